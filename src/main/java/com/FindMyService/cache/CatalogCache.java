@@ -0,0 +1,123 @@
+package com.FindMyService.cache;
+
+import com.FindMyService.metrics.MetricsSource;
+import com.FindMyService.model.dto.ProviderDto;
+import com.FindMyService.model.dto.ServiceCatalogDto;
+import com.FindMyService.utils.AfterCommit;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-evicting read-through cache for service and provider reads.
+ * Values are DTO snapshots rather than entities so nothing lazy escapes a
+ * persistence context. Concurrent misses for one key share a single load.
+ */
+@Component
+public class CatalogCache implements MetricsSource {
+
+    private final Cache<Long, Optional<ServiceCatalogDto>> services;
+    private final Cache<Long, Optional<ProviderDto>> providers;
+
+    public CatalogCache(@Value("${cache.catalog.max-size:10000}") long maxSize,
+                        @Value("${cache.catalog.ttl:PT5M}") Duration ttl) {
+        this.services = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.providers = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<ServiceCatalogDto> getService(Long serviceId, Function<Long, Optional<ServiceCatalogDto>> loader) {
+        return services.get(serviceId, loader);
+    }
+
+    // Misses are loaded together in one call; ids the loader omits are cached as absent
+    public Map<Long, ServiceCatalogDto> getServices(Collection<Long> serviceIds,
+                                                    Function<Set<Long>, Map<Long, ServiceCatalogDto>> loader) {
+        Map<Long, Optional<ServiceCatalogDto>> cached = services.getAll(serviceIds, missing -> {
+            Set<Long> ids = new HashSet<>(missing);
+            Map<Long, ServiceCatalogDto> loaded = loader.apply(ids);
+            Map<Long, Optional<ServiceCatalogDto>> result = new HashMap<>();
+            ids.forEach(id -> result.put(id, Optional.ofNullable(loaded.get(id))));
+            return result;
+        });
+        Map<Long, ServiceCatalogDto> result = new HashMap<>();
+        cached.forEach((id, dto) -> dto.ifPresent(value -> result.put(id, value)));
+        return result;
+    }
+
+    public Optional<ProviderDto> getProvider(Long providerId, Function<Long, Optional<ProviderDto>> loader) {
+        return providers.get(providerId, loader);
+    }
+
+    // Evict now and again after commit, so a read racing the write cannot re-cache the old row
+    public void evictService(Long serviceId) {
+        services.invalidate(serviceId);
+        AfterCommit.run(() -> services.invalidate(serviceId));
+    }
+
+    public void evictProvider(Long providerId) {
+        providers.invalidate(providerId);
+        AfterCommit.run(() -> providers.invalidate(providerId));
+    }
+
+    public void evictAll() {
+        services.invalidateAll();
+        providers.invalidateAll();
+    }
+
+    // Cached service DTOs embed the provider name, so a rename or delete must drop them too
+    public void evictServicesOfProvider(Long providerId) {
+        evictServicesOfProviderNow(providerId);
+        AfterCommit.run(() -> evictServicesOfProviderNow(providerId));
+    }
+
+    private void evictServicesOfProviderNow(Long providerId) {
+        services.asMap().entrySet().removeIf(entry -> entry.getValue()
+                .map(dto -> providerId.equals(dto.getProviderId()))
+                .orElse(false));
+    }
+
+    @Override
+    public String metricsName() {
+        return "catalogCache";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("services", stats(services));
+        metrics.put("providers", stats(providers));
+        return metrics;
+    }
+
+    private static Map<String, Object> stats(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("size", cache.estimatedSize());
+        values.put("hits", stats.hitCount());
+        values.put("misses", stats.missCount());
+        values.put("hitRate", stats.hitRate());
+        values.put("loads", stats.loadCount());
+        values.put("evictions", stats.evictionCount());
+        return values;
+    }
+}
@@ -0,0 +1,31 @@
+package com.FindMyService.controller;
+
+import com.FindMyService.metrics.MetricsSource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@RequestMapping("/api/v1/admin/metrics")
+@RestController
+public class AdminMetricsController {
+
+    private final List<MetricsSource> sources;
+
+    public AdminMetricsController(List<MetricsSource> sources) {
+        this.sources = sources;
+    }
+
+    @GetMapping
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getMetrics() {
+        Map<String, Object> body = new TreeMap<>();
+        sources.forEach(source -> body.put(source.metricsName(), source.metrics()));
+        return ResponseEntity.ok(body);
+    }
+}
@@ -0,0 +1,39 @@
+package com.FindMyService.controller;
+
+import com.FindMyService.service.RatingBackfillService;
+import com.FindMyService.utils.ResponseBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RequestMapping("/api/v1/admin/ratings")
+@RestController
+public class AdminRatingsController {
+
+    private final RatingBackfillService ratingBackfillService;
+
+    public AdminRatingsController(RatingBackfillService ratingBackfillService) {
+        this.ratingBackfillService = ratingBackfillService;
+    }
+
+    @PostMapping("/backfill")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<?> backfill() {
+        try {
+            return ResponseEntity.ok(ratingBackfillService.backfill());
+        } catch (IllegalStateException ex) {
+            Map<String, Object> errorBody = ResponseBuilder.conflict(ex.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(errorBody);
+        } catch (Exception ex) {
+            Map<String, Object> errorBody = ResponseBuilder.internalServerError(
+                    "Failed to backfill ratings: " + ex.getMessage()
+            );
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorBody);
+        }
+    }
+}
@@ -1,12 +1,20 @@
 package com.FindMyService.controller;
 
 import com.FindMyService.model.dto.LoginRequestDto;
+import com.FindMyService.model.dto.RefreshTokenRequestDto;
 import com.FindMyService.model.dto.RegisterRequestDto;
+import com.FindMyService.security.JwtPrincipal;
+import com.FindMyService.security.PasswordHashingRejectedException;
 import com.FindMyService.service.AuthService;
+import com.FindMyService.utils.ResponseBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/auth")
@@ -24,7 +32,25 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<Map<String, Object>> login(@RequestBody LoginRequestDto request) {
-        return authService.login(request);
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> login(@RequestBody LoginRequestDto request) {
+        try {
+            return authService.login(request);
+        } catch (PasswordHashingRejectedException ex) {
+            return CompletableFuture.completedFuture(ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(ResponseBuilder.build(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage())));
+        }
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<Map<String, Object>> refresh(@RequestBody RefreshTokenRequestDto request) {
+        return authService.refresh(request.getRefreshToken());
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Map<String, Object>> logout(@AuthenticationPrincipal JwtPrincipal caller,
+                                                      @RequestBody(required = false) RefreshTokenRequestDto request) {
+        return authService.logout(caller, request != null ? request.getRefreshToken() : null);
     }
 }
@@ -1,20 +1,38 @@
 package com.FindMyService.controller;
 
 import com.FindMyService.model.Feedback;
+import com.FindMyService.model.dto.FeedbackImportResultDto;
+import com.FindMyService.model.dto.FeedbackPageDto;
+import com.FindMyService.service.FeedbackImportService;
 import com.FindMyService.service.FeedbackService;
+import com.FindMyService.utils.DtoMapper;
+import com.FindMyService.utils.NdjsonExporter;
+import com.FindMyService.utils.ResponseBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @RequestMapping("/api/v1/feedbacks")
 @RestController
 public class FeedbackController {
 
     private final FeedbackService feedbackService;
+    private final FeedbackImportService feedbackImportService;
+    private final NdjsonExporter ndjsonExporter;
 
-    public FeedbackController(FeedbackService feedbackService) {
+    public FeedbackController(FeedbackService feedbackService, FeedbackImportService feedbackImportService,
+                              NdjsonExporter ndjsonExporter) {
         this.feedbackService = feedbackService;
+        this.feedbackImportService = feedbackImportService;
+        this.ndjsonExporter = ndjsonExporter;
     }
 
     @GetMapping
@@ -23,13 +41,60 @@ public class FeedbackController {
         return ResponseEntity.ok(feedbackService.getAllFeedbacks());
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamAllFeedbacks() {
+        return ndjsonExporter.export(feedbackService::streamAllFeedbacks, DtoMapper::toDto);
+    }
+
     @GetMapping("/{serviceId}")
-    public ResponseEntity<?> getAllFeedbacksForService(@PathVariable Long serviceId) {
-        return feedbackService.getAllFeedbacksForService(serviceId);
+    public ResponseEntity<?> getFeedbacksForService(
+            @PathVariable Long serviceId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + FeedbackService.DEFAULT_PAGE_SIZE) int size) {
+        try {
+            Optional<FeedbackPageDto> page = feedbackService.getFeedbackPage(serviceId, cursor, size);
+            if (page.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ResponseBuilder.notFound("Service not found"));
+            }
+            return ResponseEntity.ok(page.get());
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ResponseBuilder.badRequest(ex.getMessage()));
+        }
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<?> importFeedbacksCsv(InputStream body) {
+        return importFeedbacks(() -> feedbackImportService.importCsv(body));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<?> importFeedbacksNdjson(InputStream body) {
+        return importFeedbacks(() -> feedbackImportService.importNdjson(body));
     }
 
     @PostMapping
     public ResponseEntity<?> createFeedback(@RequestBody Feedback feedback) {
         return feedbackService.createFeedback(feedback);
     }
+
+    private ResponseEntity<?> importFeedbacks(FeedbackImport run) {
+        try {
+            return ResponseEntity.ok(run.get());
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ResponseBuilder.badRequest(ex.getMessage()));
+        } catch (Exception ex) {
+            Map<String, Object> errorBody = ResponseBuilder.internalServerError(
+                    "Failed to import feedbacks: " + ex.getMessage()
+            );
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorBody);
+        }
+    }
+
+    @FunctionalInterface
+    private interface FeedbackImport {
+        FeedbackImportResultDto get() throws IOException;
+    }
 }
@@ -5,11 +5,15 @@ import com.FindMyService.model.enums.OrderStatus;
 import com.FindMyService.service.OrderService;
 import com.FindMyService.utils.ResponseBuilder;
 import com.FindMyService.utils.OwnerCheck;
+import com.FindMyService.utils.DtoMapper;
+import com.FindMyService.utils.NdjsonExporter;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
 import java.util.Map;
 
@@ -19,10 +23,12 @@ public class OrderController {
 
     private final OrderService orderService;
     private final OwnerCheck ownerCheck;
+    private final NdjsonExporter ndjsonExporter;
 
-    public OrderController(OrderService orderService, OwnerCheck ownerCheck) {
+    public OrderController(OrderService orderService, OwnerCheck ownerCheck, NdjsonExporter ndjsonExporter) {
         this.orderService = orderService;
         this.ownerCheck = ownerCheck;
+        this.ndjsonExporter = ndjsonExporter;
     }
 
     @GetMapping
@@ -31,6 +37,12 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getAllOrders());
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamAllOrders() {
+        return ndjsonExporter.export(orderService::streamAllOrders, DtoMapper::toDto);
+    }
+
     @GetMapping("/{orderId}")
     public ResponseEntity<?> getOrderById(@PathVariable Long orderId) {
         return orderService.getOrderById(orderId)
@@ -67,28 +79,48 @@ public class OrderController {
 
     @GetMapping("/user/{userId}")
     @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('USER')")
-    public ResponseEntity<?> getOrdersByUser(@PathVariable Long userId) {
+    public ResponseEntity<?> getOrdersByUser(
+            @PathVariable Long userId,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + OrderService.DEFAULT_PAGE_SIZE) int size) {
         try {
             ownerCheck.verifyOwner(userId);
+            return orderService.getOrderHistoryByUser(userId, status, cursor, size)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity
+                            .status(HttpStatus.NOT_FOUND)
+                            .body(ResponseBuilder.build(HttpStatus.NOT_FOUND, "User not found")));
         } catch (AccessDeniedException ex) {
             return ResponseEntity
                     .status(HttpStatus.FORBIDDEN)
                     .body(ResponseBuilder.forbidden("You are not authorized to access these orders"));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ResponseBuilder.badRequest(ex.getMessage()));
         }
-        return orderService.getOrdersByUser(userId);
     }
 
     @GetMapping("/provider/{providerId}")
     @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('PROVIDER')")
-    public ResponseEntity<?> getOrdersByProvider(@PathVariable Long providerId) {
+    public ResponseEntity<?> getOrdersByProvider(
+            @PathVariable Long providerId,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + OrderService.DEFAULT_PAGE_SIZE) int size) {
         try {
             ownerCheck.verifyOwner(providerId);
+            return orderService.getOrderHistoryByProvider(providerId, status, cursor, size)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity
+                            .status(HttpStatus.NOT_FOUND)
+                            .body(ResponseBuilder.build(HttpStatus.NOT_FOUND, "Provider not found")));
         } catch (AccessDeniedException ex) {
             return ResponseEntity
                     .status(HttpStatus.FORBIDDEN)
                     .body(ResponseBuilder.forbidden("You are not authorized to access these orders"));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ResponseBuilder.badRequest(ex.getMessage()));
         }
-        return orderService.getOrdersByProvider(providerId);
     }
 
     @PostMapping("/{orderId}/payment/initiate")
@@ -106,20 +138,8 @@ public class OrderController {
     }
 
     @PutMapping("/{orderId}/status")
+    @PreAuthorize("hasAuthority('ADMIN') or (hasAuthority('PROVIDER') and @ownerCheck.ownsOrder(#orderId))")
     public ResponseEntity<?> updateOrderStatus(@PathVariable Long orderId, @RequestBody OrderStatus newStatus) {
-        return orderService.getOrderById(orderId)
-                .map(order -> {
-                    try {
-                        ownerCheck.verifyOwner(order.getProviderId().getProviderId());
-                        return orderService.updateOrderStatus(orderId, newStatus);
-                    } catch (AccessDeniedException ex) {
-                        return ResponseEntity
-                                .status(HttpStatus.FORBIDDEN)
-                                .body(ResponseBuilder.forbidden("You are not authorized to update this order"));
-                    }
-                })
-                .orElseGet(() -> ResponseEntity
-                        .status(HttpStatus.NOT_FOUND)
-                        .body(ResponseBuilder.build(HttpStatus.NOT_FOUND, "Order not found")));
+        return orderService.updateOrderStatus(orderId, newStatus);
     }
 }
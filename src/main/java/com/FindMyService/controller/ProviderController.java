@@ -2,16 +2,20 @@ package com.FindMyService.controller;
 
 import com.FindMyService.model.Provider;
 import com.FindMyService.model.dto.ProviderDto;
+import com.FindMyService.security.PasswordHashingRejectedException;
 import com.FindMyService.service.ProviderService;
 import com.FindMyService.utils.DtoMapper;
 import com.FindMyService.utils.ResponseBuilder;
 import com.FindMyService.utils.OwnerCheck;
+import com.FindMyService.utils.NdjsonExporter;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -21,10 +25,12 @@ public class ProviderController {
 
     private final ProviderService providerService;
     private final OwnerCheck ownerCheck;
+    private final NdjsonExporter ndjsonExporter;
 
-    public ProviderController(ProviderService providerService, OwnerCheck ownerCheck) {
+    public ProviderController(ProviderService providerService, OwnerCheck ownerCheck, NdjsonExporter ndjsonExporter) {
         this.providerService = providerService;
         this.ownerCheck = ownerCheck;
+        this.ndjsonExporter = ndjsonExporter;
     }
 
     @GetMapping
@@ -37,6 +43,28 @@ public class ProviderController {
         return ResponseEntity.ok(dtos);
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamAllProviders() {
+        return ndjsonExporter.export(providerService::streamAllProviders, DtoMapper::toDto);
+    }
+
+    @GetMapping("/nearby")
+    public ResponseEntity<?> nearbyProviders(
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lng,
+            @RequestParam(required = false) String zip,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "0") double ratingWeight) {
+        try {
+            return ResponseEntity.ok(providerService.nearby(lat, lng, zip, radiusKm, limit, ratingWeight));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ResponseBuilder.badRequest(ex.getMessage()));
+        }
+    }
+
     @GetMapping("/{providerId}")
     public ResponseEntity<?> getProvider(@PathVariable Long providerId, HttpServletRequest request) {
         try {
@@ -47,7 +75,6 @@ public class ProviderController {
                     .body(ResponseBuilder.forbidden("You are not authorized to access this provider"));
         }
         return providerService.getProviderById(providerId)
-                .map(DtoMapper::toDto)
                 .map(dto -> ResponseEntity.ok((Object) dto))
                 .orElseGet(() -> ResponseEntity
                         .status(HttpStatus.NOT_FOUND)
@@ -75,6 +102,10 @@ public class ProviderController {
             return ResponseEntity
                     .status(HttpStatus.NOT_FOUND)
                     .body(ResponseBuilder.notFound(ex.getMessage()));
+        } catch (PasswordHashingRejectedException ex) {
+            return ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(ResponseBuilder.build(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage()));
         } catch (Exception ex) {
             return ResponseEntity
                     .status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -0,0 +1,110 @@
+package com.FindMyService.controller;
+
+import com.FindMyService.index.AttributePredicate;
+import com.FindMyService.model.dto.ServiceAttributeDto;
+import com.FindMyService.service.ServiceAttributeService;
+import com.FindMyService.service.ServiceCatalogService;
+import com.FindMyService.utils.ResponseBuilder;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+@RequestMapping("/api/v1/services")
+@RestController
+public class ServiceAttributeController {
+
+    private static final Set<String> PAGING_PARAMS = Set.of("cursor", "size");
+
+    private final ServiceAttributeService serviceAttributeService;
+    private final ServiceCatalogService serviceCatalogService;
+
+    public ServiceAttributeController(ServiceAttributeService serviceAttributeService,
+                                      ServiceCatalogService serviceCatalogService) {
+        this.serviceAttributeService = serviceAttributeService;
+        this.serviceCatalogService = serviceCatalogService;
+    }
+
+    // Every query parameter other than cursor/size is a predicate, e.g. ?voltage%3E%3D220&brand=Bosch
+    @GetMapping("/by-attributes")
+    public ResponseEntity<?> filterByAttributes(
+            HttpServletRequest request,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ServiceCatalogService.DEFAULT_PAGE_SIZE) int size) {
+        try {
+            List<AttributePredicate> predicates = new ArrayList<>();
+            String query = request.getQueryString();
+            if (query != null) {
+                for (String part : query.split("&")) {
+                    String expression = URLDecoder.decode(part, StandardCharsets.UTF_8);
+                    int equals = expression.indexOf('=');
+                    if (expression.isBlank() || (equals > 0 && PAGING_PARAMS.contains(expression.substring(0, equals)))) {
+                        continue;
+                    }
+                    predicates.add(AttributePredicate.parse(expression));
+                }
+            }
+            if (predicates.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(ResponseBuilder.badRequest("At least one attribute filter is required"));
+            }
+            return ResponseEntity.ok(serviceCatalogService.filterByAttributes(predicates, cursor, size));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ResponseBuilder.badRequest(ex.getMessage()));
+        }
+    }
+
+    @GetMapping("/{serviceId}/attributes")
+    public ResponseEntity<?> getAttributes(@PathVariable Long serviceId) {
+        try {
+            return ResponseEntity.ok(serviceAttributeService.getAttributes(serviceId));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ResponseBuilder.notFound(ex.getMessage()));
+        }
+    }
+
+    @PostMapping("/{serviceId}/attributes")
+    @PreAuthorize("hasAuthority('ADMIN') or (hasAuthority('PROVIDER') and @ownerCheck.ownsService(#serviceId))")
+    public ResponseEntity<?> addAttribute(@PathVariable Long serviceId, @RequestBody ServiceAttributeDto attributeDto) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(serviceAttributeService.addAttribute(serviceId, attributeDto));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ResponseBuilder.badRequest(ex.getMessage()));
+        }
+    }
+
+    @PatchMapping("/{serviceId}/attributes/{attributeId}")
+    @PreAuthorize("hasAuthority('ADMIN') or (hasAuthority('PROVIDER') and @ownerCheck.ownsService(#serviceId))")
+    public ResponseEntity<?> updateAttribute(@PathVariable Long serviceId, @PathVariable Long attributeId,
+                                             @RequestBody ServiceAttributeDto attributeDto) {
+        try {
+            return ResponseEntity.ok(serviceAttributeService.updateAttribute(serviceId, attributeId, attributeDto));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ResponseBuilder.badRequest(ex.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{serviceId}/attributes/{attributeId}")
+    @PreAuthorize("hasAuthority('ADMIN') or (hasAuthority('PROVIDER') and @ownerCheck.ownsService(#serviceId))")
+    public ResponseEntity<?> deleteAttribute(@PathVariable Long serviceId, @PathVariable Long attributeId) {
+        try {
+            serviceAttributeService.deleteAttribute(serviceId, attributeId);
+            return ResponseEntity.ok(ResponseBuilder.ok("Attribute deleted successfully"));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ResponseBuilder.notFound(ex.getMessage()));
+        }
+    }
+}
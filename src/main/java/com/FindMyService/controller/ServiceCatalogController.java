@@ -1,19 +1,25 @@
 package com.FindMyService.controller;
 
-import com.FindMyService.model.ServiceCatalog;
+import com.FindMyService.index.CatalogVersions;
+import com.FindMyService.index.FacetQuery;
+import com.FindMyService.model.dto.CursorPage;
 import com.FindMyService.model.dto.ServiceCatalogDto;
+import com.FindMyService.model.enums.Availability;
+import com.FindMyService.model.enums.ServiceSortField;
 import com.FindMyService.service.ServiceCatalogService;
-import com.FindMyService.utils.DtoMapper;
 import com.FindMyService.utils.ResponseBuilder;
 import com.FindMyService.utils.OwnerCheck;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
+import org.springframework.web.context.request.NativeWebRequest;
+import jakarta.servlet.http.HttpServletRequest;
+import java.math.BigDecimal;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @RequestMapping("/api/v1/services")
 @RestController
@@ -21,43 +27,139 @@ public class ServiceCatalogController {
 
     private final ServiceCatalogService serviceCatalogService;
     private final OwnerCheck ownerCheck;
+    private final CatalogVersions catalogVersions;
 
-    public ServiceCatalogController(ServiceCatalogService serviceCatalogService, OwnerCheck ownerCheck) {
+    public ServiceCatalogController(ServiceCatalogService serviceCatalogService, OwnerCheck ownerCheck,
+                                    CatalogVersions catalogVersions) {
         this.ownerCheck = ownerCheck;
         this.serviceCatalogService = serviceCatalogService;
+        this.catalogVersions = catalogVersions;
+    }
+
+    // Answers 304 from in-memory validators before any database access or serialization
+    private boolean catalogNotModified(NativeWebRequest webRequest) {
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        String variant = request != null ? request.getRequestURI() + "?" + request.getQueryString() : null;
+        CatalogVersions.Validator validator = catalogVersions.forCatalog(variant);
+        return webRequest.checkNotModified(validator.etag(), validator.lastModified().toEpochMilli());
     }
 
     @GetMapping
-    public ResponseEntity<List<ServiceCatalogDto>> getAllServices() {
-        List<ServiceCatalog> services = serviceCatalogService.getAllServices();
-        List<ServiceCatalogDto> serviceDtos = services.stream()
-                .map(DtoMapper::toDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(serviceDtos);
+    public ResponseEntity<?> getAllServices(
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "desc") String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ServiceCatalogService.DEFAULT_PAGE_SIZE) int size,
+            NativeWebRequest webRequest) {
+        if (catalogNotModified(webRequest)) {
+            return null;
+        }
+        try {
+            CursorPage<ServiceCatalogDto> page = serviceCatalogService.getServicesPage(
+                    ServiceSortField.fromParam(sort), Sort.Direction.fromString(direction), cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ResponseBuilder.badRequest(ex.getMessage()));
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchServices(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "" + ServiceCatalogService.DEFAULT_PAGE_SIZE) int limit,
+            NativeWebRequest webRequest) {
+        if (query == null || query.isBlank()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ResponseBuilder.badRequest("Query parameter 'q' must not be blank"));
+        }
+        if (catalogNotModified(webRequest)) {
+            return null;
+        }
+        return ResponseEntity.ok(serviceCatalogService.search(query, limit));
+    }
+
+    @GetMapping("/top-rated")
+    public ResponseEntity<?> topRatedServices(
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) Availability availability,
+            @RequestParam(defaultValue = "10") int limit,
+            NativeWebRequest webRequest) {
+        if (catalogNotModified(webRequest)) {
+            return null;
+        }
+        return ResponseEntity.ok(serviceCatalogService.topRated(location, availability, limit));
+    }
+
+    @GetMapping("/nearby")
+    public ResponseEntity<?> nearbyServices(
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lng,
+            @RequestParam(required = false) String zip,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "0") double ratingWeight) {
+        try {
+            return ResponseEntity.ok(serviceCatalogService.nearby(lat, lng, zip, radiusKm, limit, ratingWeight));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ResponseBuilder.badRequest(ex.getMessage()));
+        }
+    }
+
+    @GetMapping("/filter")
+    public ResponseEntity<?> filterServices(
+            @RequestParam(required = false) BigDecimal minCost,
+            @RequestParam(required = false) BigDecimal maxCost,
+            @RequestParam(required = false) Availability availability,
+            @RequestParam(required = false) BigDecimal minRating,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ServiceCatalogService.DEFAULT_PAGE_SIZE) int size,
+            NativeWebRequest webRequest) {
+        if (catalogNotModified(webRequest)) {
+            return null;
+        }
+        try {
+            FacetQuery query = new FacetQuery(minCost, maxCost, availability, minRating, location, active);
+            return ResponseEntity.ok(serviceCatalogService.filterServices(query, cursor, size));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ResponseBuilder.badRequest(ex.getMessage()));
+        }
     }
 
     @GetMapping("/{serviceId}")
-    public ResponseEntity<ServiceCatalogDto> getService(@PathVariable Long serviceId) {
-        return serviceCatalogService.getServiceById(serviceId)
-                .map(DtoMapper::toDto)
+    public ResponseEntity<ServiceCatalogDto> getService(@PathVariable Long serviceId, NativeWebRequest webRequest) {
+        Optional<CatalogVersions.Validator> validator = catalogVersions.forService(serviceId);
+        if (validator.isPresent()
+                && webRequest.checkNotModified(validator.get().etag(), validator.get().lastModified().toEpochMilli())) {
+            return null;
+        }
+        return serviceCatalogService.getServiceDtoById(serviceId)
                 .map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
     }
 
     @GetMapping("/provider/{providerId}")
-    public ResponseEntity<?> getServicesByProvider(@PathVariable Long providerId) {
+    public ResponseEntity<?> getServicesByProvider(
+            @PathVariable Long providerId,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "desc") String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ServiceCatalogService.DEFAULT_PAGE_SIZE) int size) {
         try {
             ownerCheck.verifyOwner(providerId);
-            List<ServiceCatalog> services = serviceCatalogService.getServicesByProvider(providerId);
-            List<ServiceCatalogDto> serviceDtos = services.stream()
-                    .map(DtoMapper::toDto)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(serviceDtos);
+            CursorPage<ServiceCatalogDto> page = serviceCatalogService.getServicesByProvider(
+                    providerId, ServiceSortField.fromParam(sort), Sort.Direction.fromString(direction), cursor, size);
+            return ResponseEntity.ok(page);
         } catch (AccessDeniedException ex) {
             Map<String, Object> errorBody = ResponseBuilder.forbidden(
                     "You are not authorized to access services for this provider"
             );
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorBody);
+        } catch (IllegalArgumentException ex) {
+            Map<String, Object> errorBody = ResponseBuilder.badRequest(ex.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorBody);
         }
     }
 
@@ -85,13 +187,13 @@ public class ServiceCatalogController {
     }
 
     @PatchMapping("/{serviceId}")
-    @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('PROVIDER')")
+    @PreAuthorize("hasAuthority('ADMIN') or (hasAuthority('PROVIDER') and @ownerCheck.ownsService(#serviceId))")
     public ResponseEntity<?> updateService(@PathVariable Long serviceId, @RequestBody ServiceCatalogDto serviceDto) {
         try {
-            ServiceCatalog existingService = serviceCatalogService.getServiceById(serviceId)
-                    .orElseThrow(() -> new IllegalArgumentException("Service not found with id: " + serviceId));
-
-            ownerCheck.verifyOwner(existingService.getProviderId().getProviderId());
+            // A provider may not hand the service over to someone else
+            if (serviceDto.getProviderId() != null) {
+                ownerCheck.verifyOwner(serviceDto.getProviderId());
+            }
 
             ServiceCatalogDto updatedService = serviceCatalogService.updateService(serviceId, serviceDto);
             return ResponseEntity.ok(updatedService);
@@ -112,24 +214,15 @@ public class ServiceCatalogController {
     }
 
     @DeleteMapping("/{serviceId}")
-    @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('PROVIDER')")
+    @PreAuthorize("hasAuthority('ADMIN') or (hasAuthority('PROVIDER') and @ownerCheck.ownsService(#serviceId))")
     public ResponseEntity<?> deleteService(@PathVariable Long serviceId) {
         try {
-            ServiceCatalog service = serviceCatalogService.getServiceById(serviceId)
-                    .orElseThrow(() -> new IllegalArgumentException("Service not found with id: " + serviceId));
-
-            ownerCheck.verifyOwner(service.getProviderId().getProviderId());
             serviceCatalogService.deleteService(serviceId);
 
             Map<String, Object> responseBody = ResponseBuilder.ok(
                     "Service deleted successfully"
             );
             return ResponseEntity.ok(responseBody);
-        } catch (AccessDeniedException ex) {
-            Map<String, Object> errorBody = ResponseBuilder.forbidden(
-                    "You are not authorized to delete this service"
-            );
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorBody);
         } catch (IllegalArgumentException ex) {
             Map<String, Object> errorBody = ResponseBuilder.notFound(ex.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorBody);
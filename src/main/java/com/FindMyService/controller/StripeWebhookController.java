@@ -0,0 +1,44 @@
+package com.FindMyService.controller;
+
+import com.FindMyService.service.StripeWebhookService;
+import com.FindMyService.utils.ResponseBuilder;
+import com.stripe.exception.SignatureVerificationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/webhooks")
+public class StripeWebhookController {
+
+    private final StripeWebhookService stripeWebhookService;
+
+    public StripeWebhookController(StripeWebhookService stripeWebhookService) {
+        this.stripeWebhookService = stripeWebhookService;
+    }
+
+    // Must answer 2xx quickly or Stripe redelivers; duplicates are acknowledged too
+    @PostMapping("/stripe")
+    public ResponseEntity<?> receiveStripeEvent(
+            @RequestBody String payload,
+            @RequestHeader(value = "Stripe-Signature", required = false) String signature) {
+        try {
+            boolean recorded = stripeWebhookService.receive(payload, signature);
+            return ResponseEntity.ok(Map.of("received", true, "recorded", recorded));
+        } catch (SignatureVerificationException e) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(ResponseBuilder.badRequest("Invalid webhook signature"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(ResponseBuilder.badRequest(e.getMessage()));
+        }
+    }
+}
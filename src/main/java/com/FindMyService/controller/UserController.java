@@ -6,12 +6,16 @@ import com.FindMyService.model.dto.UserDto;
 import com.FindMyService.utils.DtoMapper;
 import com.FindMyService.utils.ResponseBuilder;
 import com.FindMyService.utils.OwnerCheck;
+import com.FindMyService.utils.NdjsonExporter;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import com.FindMyService.model.User;
+import com.FindMyService.security.PasswordHashingRejectedException;
 import com.FindMyService.service.UserService;
 
 @RequestMapping("/api/v1/users")
@@ -20,10 +24,12 @@ public class UserController {
 
     private final UserService userService;
     private final OwnerCheck ownerCheck;
+    private final NdjsonExporter ndjsonExporter;
 
-    public UserController(UserService userService, OwnerCheck ownerCheck) {
+    public UserController(UserService userService, OwnerCheck ownerCheck, NdjsonExporter ndjsonExporter) {
         this.userService = userService;
         this.ownerCheck = ownerCheck;
+        this.ndjsonExporter = ndjsonExporter;
     }
 
     @GetMapping
@@ -36,6 +42,12 @@ public class UserController {
         return ResponseEntity.ok(dtos);
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        return ndjsonExporter.export(userService::streamAllUsers, DtoMapper::toDto);
+    }
+
     @GetMapping("/{userId}")
     public ResponseEntity<?> getUser(@PathVariable Long userId) {
         try {
@@ -74,6 +86,10 @@ public class UserController {
             return ResponseEntity
                     .status(HttpStatus.NOT_FOUND)
                     .body(ResponseBuilder.notFound(ex.getMessage()));
+        } catch (PasswordHashingRejectedException ex) {
+            return ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(ResponseBuilder.build(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage()));
         } catch (Exception ex) {
             return ResponseEntity
                     .status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -0,0 +1,75 @@
+package com.FindMyService.geo;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Offline postal-code geocoder backed by a "code,latitude,longitude" CSV.
+ * Lookups try the full code first and then successively shorter prefixes, so
+ * the table may mix exact PIN codes with 3-digit sorting-district centroids.
+ */
+@Component
+@Slf4j
+public class ZipCentroids {
+
+    private static final int MIN_PREFIX = 3;
+
+    private final Map<String, GeoPoint> centroids = new HashMap<>();
+
+    public ZipCentroids(@Value("${geo.centroids:classpath:geo/pin-centroids.csv}") Resource table) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(table.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split(",");
+                centroids.put(parts[0].strip(), new GeoPoint(
+                        Double.parseDouble(parts[1].strip()), Double.parseDouble(parts[2].strip())));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load postal code centroids from " + table, e);
+        }
+        log.info("Loaded {} postal code centroids", centroids.size());
+    }
+
+    // Explicit coordinates win; otherwise the postal code is geocoded
+    public GeoPoint origin(Double latitude, Double longitude, String zipCode) {
+        if (latitude != null || longitude != null) {
+            if (latitude == null || longitude == null) {
+                throw new IllegalArgumentException("Both lat and lng are required");
+            }
+            return new GeoPoint(latitude, longitude);
+        }
+        if (zipCode == null || zipCode.isBlank()) {
+            throw new IllegalArgumentException("Either lat/lng or zip is required");
+        }
+        return lookup(zipCode).orElseThrow(() -> new IllegalArgumentException("Unknown zip code: " + zipCode));
+    }
+
+    public Optional<GeoPoint> lookup(String zipCode) {
+        if (zipCode == null) {
+            return Optional.empty();
+        }
+        String digits = zipCode.replaceAll("\\D", "");
+        for (int length = digits.length(); length >= MIN_PREFIX; length--) {
+            GeoPoint point = centroids.get(digits.substring(0, length));
+            if (point != null) {
+                return Optional.of(point);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,295 @@
+package com.FindMyService.index;
+
+import com.FindMyService.model.ServiceAttribute;
+import com.FindMyService.model.enums.AttributeValueType;
+import com.FindMyService.repository.ServiceAttributeRepository;
+import com.FindMyService.utils.AfterCommit;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typed index over service attributes (EAV rows), so multi-predicate filters
+ * never join or scan service_attributes.
+ *
+ * Per attribute name it keeps hash postings from normalized value to ordinals
+ * for equality, and sorted columns for integer/float and date values for
+ * range comparisons. Only active services match, which is learned from the
+ * catalog indexer like the other catalog indexes.
+ */
+@Component
+@Slf4j
+public class AttributeIndex implements CatalogIndex {
+
+    private final ServiceAttributeRepository serviceAttributeRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTx;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Ordinals ordinals = new Ordinals();
+    private final BitSet active = new BitSet();
+    private final Map<String, Attribute> byName = new HashMap<>();
+    private final Map<Long, Row> rows = new HashMap<>();
+    private final Map<Long, Set<Long>> rowsByService = new HashMap<>();
+
+    private static final class Attribute {
+        final Map<String, BitSet> postings = new HashMap<>();
+        final SortedColumn numbers = new SortedColumn();
+        final SortedColumn dates = new SortedColumn();
+        int rowCount;
+    }
+
+    private record Row(Long serviceId, String name, AttributeValueType type, String normalized, double orderKey) {
+    }
+
+    public AttributeIndex(ServiceAttributeRepository serviceAttributeRepository,
+                          EntityManager entityManager,
+                          PlatformTransactionManager transactionManager) {
+        this.serviceAttributeRepository = serviceAttributeRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        long started = System.currentTimeMillis();
+        readOnlyTx.executeWithoutResult(status -> serviceAttributeRepository.streamAll().forEach(attribute -> {
+            try {
+                put(attribute.getAttributeId(), snapshot(attribute));
+            } catch (IllegalArgumentException e) {
+                log.warn("Skipping attribute {}: {}", attribute.getAttributeId(), e.getMessage());
+            }
+            entityManager.detach(attribute);
+        }));
+        log.info("Attribute index loaded {} attributes in {} ms", rows.size(), System.currentTimeMillis() - started);
+    }
+
+    @Override
+    public void upsert(IndexedService service) {
+        lock.writeLock().lock();
+        try {
+            int ordinal = ordinalLocked(service.serviceId());
+            active.set(ordinal, service.active());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long serviceId) {
+        lock.writeLock().lock();
+        try {
+            for (Long attributeId : new ArrayList<>(rowsByService.getOrDefault(serviceId, Set.of()))) {
+                removeRowLocked(attributeId);
+            }
+            Integer ordinal = ordinals.release(serviceId);
+            if (ordinal != null) {
+                active.clear(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void indexAfterCommit(ServiceAttribute attribute) {
+        Long attributeId = attribute.getAttributeId();
+        Row row = snapshot(attribute);
+        AfterCommit.run(() -> put(attributeId, row));
+    }
+
+    public void removeAfterCommit(Long attributeId) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                removeRowLocked(attributeId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Services matching every predicate, in descending id order starting below
+     * {@code beforeServiceId} when given.
+     */
+    public AttributeResult query(List<AttributePredicate> predicates, Long beforeServiceId, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = (BitSet) active.clone();
+            for (AttributePredicate predicate : predicates) {
+                if (matches.isEmpty()) {
+                    break;
+                }
+                matches.and(evaluate(predicate));
+            }
+
+            long[] page = ordinals.descendingServiceIds(matches, beforeServiceId, limit + 1);
+            List<Long> serviceIds = new ArrayList<>(Math.min(page.length, limit));
+            for (int i = 0; i < page.length && i < limit; i++) {
+                serviceIds.add(page[i]);
+            }
+            return new AttributeResult(matches.cardinality(), serviceIds, page.length > limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet evaluate(AttributePredicate predicate) {
+        Attribute attribute = byName.get(predicate.name());
+        if (attribute == null) {
+            return new BitSet();
+        }
+        return switch (predicate.operator()) {
+            case EQ -> equalTo(attribute, predicate.operand());
+            case NE -> {
+                BitSet result = withAttribute(attribute);
+                result.andNot(equalTo(attribute, predicate.operand()));
+                yield result;
+            }
+            case GT -> compare(attribute, predicate.operand(), false, true);
+            case GTE -> compare(attribute, predicate.operand(), true, true);
+            case LT -> compare(attribute, predicate.operand(), false, false);
+            case LTE -> compare(attribute, predicate.operand(), true, false);
+        };
+    }
+
+    private BitSet equalTo(Attribute attribute, String operand) {
+        BitSet result = new BitSet();
+        BitSet exact = attribute.postings.get(operand.trim().toLowerCase(Locale.ROOT));
+        if (exact != null) {
+            result.or(exact);
+        }
+        // Numeric and date values also match by value, so "220" finds "220.0"
+        Double number = parseNumber(operand);
+        if (number != null) {
+            result.or(attribute.numbers.range(number, true, number, true));
+        }
+        Double date = parseDate(operand);
+        if (date != null) {
+            result.or(attribute.dates.range(date, true, date, true));
+        }
+        return result;
+    }
+
+    private BitSet compare(Attribute attribute, String operand, boolean inclusive, boolean greater) {
+        Double date = parseDate(operand);
+        Double number = date == null ? parseNumber(operand) : null;
+        if (date == null && number == null) {
+            throw new IllegalArgumentException("Range filters need a number or an ISO date: " + operand);
+        }
+        SortedColumn column = date != null ? attribute.dates : attribute.numbers;
+        double value = date != null ? date : number;
+        return greater
+                ? column.range(value, inclusive, Double.POSITIVE_INFINITY, true)
+                : column.range(Double.NEGATIVE_INFINITY, true, value, inclusive);
+    }
+
+    private BitSet withAttribute(Attribute attribute) {
+        BitSet result = new BitSet();
+        attribute.postings.values().forEach(result::or);
+        return result;
+    }
+
+    private void put(Long attributeId, Row row) {
+        lock.writeLock().lock();
+        try {
+            removeRowLocked(attributeId);
+            int ordinal = ordinalLocked(row.serviceId());
+            Attribute attribute = byName.computeIfAbsent(row.name(), name -> new Attribute());
+            attribute.postings.computeIfAbsent(row.normalized(), value -> new BitSet()).set(ordinal);
+            if (row.type() == AttributeValueType.DATE) {
+                attribute.dates.add(row.orderKey(), ordinal);
+            } else if (row.type().isOrdered()) {
+                attribute.numbers.add(row.orderKey(), ordinal);
+            }
+            attribute.rowCount++;
+            rows.put(attributeId, row);
+            rowsByService.computeIfAbsent(row.serviceId(), id -> new HashSet<>()).add(attributeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeRowLocked(Long attributeId) {
+        Row row = rows.remove(attributeId);
+        if (row == null) {
+            return;
+        }
+        Set<Long> serviceRows = rowsByService.get(row.serviceId());
+        serviceRows.remove(attributeId);
+        if (serviceRows.isEmpty()) {
+            rowsByService.remove(row.serviceId());
+        }
+
+        int ordinal = ordinals.get(row.serviceId());
+        Attribute attribute = byName.get(row.name());
+        if (row.type() == AttributeValueType.DATE) {
+            attribute.dates.remove(row.orderKey(), ordinal);
+        } else if (row.type().isOrdered()) {
+            attribute.numbers.remove(row.orderKey(), ordinal);
+        }
+        // Another row of the same service may carry the same value
+        boolean stillPosted = serviceRows.stream()
+                .map(rows::get)
+                .anyMatch(other -> other.name().equals(row.name()) && other.normalized().equals(row.normalized()));
+        if (!stillPosted) {
+            BitSet bits = attribute.postings.get(row.normalized());
+            bits.clear(ordinal);
+            if (bits.isEmpty()) {
+                attribute.postings.remove(row.normalized());
+            }
+        }
+        if (--attribute.rowCount == 0) {
+            byName.remove(row.name());
+        }
+    }
+
+    private int ordinalLocked(Long serviceId) {
+        Integer ordinal = ordinals.get(serviceId);
+        return ordinal != null ? ordinal : ordinals.assign(serviceId);
+    }
+
+    private static Row snapshot(ServiceAttribute attribute) {
+        AttributeValueType type = AttributeValueType.fromValue(attribute.getValueType());
+        String value = attribute.getAttributeValue();
+        return new Row(
+                attribute.getServiceId().getServiceId(),
+                attribute.getAttributeName().trim().toLowerCase(Locale.ROOT),
+                type,
+                type.normalize(value).toLowerCase(Locale.ROOT),
+                type.isOrdered() ? type.orderKey(value) : Double.NaN);
+    }
+
+    private static Double parseNumber(String operand) {
+        try {
+            return Double.parseDouble(operand.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Double parseDate(String operand) {
+        try {
+            return (double) LocalDate.parse(operand.trim()).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.FindMyService.index;
+
+import java.util.Locale;
+
+/**
+ * One attribute condition such as {@code voltage>=220} or {@code brand=Bosch}.
+ * Attribute names are matched case-insensitively.
+ */
+public record AttributePredicate(String name, Operator operator, String operand) {
+
+    public enum Operator {
+        // Two-character symbols first so ">=" is not read as ">"
+        GTE(">="), LTE("<="), NE("!="), GT(">"), LT("<"), EQ("=");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+    }
+
+    // The first operator splits name from operand, so operands may contain operator characters
+    public static AttributePredicate parse(String expression) {
+        for (int at = 1; at < expression.length(); at++) {
+            for (Operator operator : Operator.values()) {
+                if (!expression.startsWith(operator.symbol, at)) {
+                    continue;
+                }
+                String name = expression.substring(0, at).trim();
+                String operand = expression.substring(at + operator.symbol.length()).trim();
+                if (name.isEmpty() || operand.isEmpty()) {
+                    throw new IllegalArgumentException("Malformed attribute filter: " + expression);
+                }
+                return new AttributePredicate(name.toLowerCase(Locale.ROOT), operator, operand);
+            }
+        }
+        throw new IllegalArgumentException("Malformed attribute filter: " + expression);
+    }
+}
@@ -0,0 +1,6 @@
+package com.FindMyService.index;
+
+import java.util.List;
+
+public record AttributeResult(long total, List<Long> serviceIds, boolean hasMore) {
+}
@@ -0,0 +1,8 @@
+package com.FindMyService.index;
+
+public interface CatalogIndex {
+
+    void upsert(IndexedService service);
+
+    void remove(Long serviceId);
+}
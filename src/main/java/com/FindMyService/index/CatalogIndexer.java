@@ -0,0 +1,84 @@
+package com.FindMyService.index;
+
+import com.FindMyService.model.ServiceCatalog;
+import com.FindMyService.repository.ServiceCatalogRepository;
+import com.FindMyService.repository.ServiceCatalogSpecifications;
+import com.FindMyService.utils.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Slf4j
+public class CatalogIndexer {
+
+    private final List<CatalogIndex> indexes;
+    private final ServiceCatalogRepository serviceCatalogRepository;
+    private final int loadBatchSize;
+
+    public CatalogIndexer(List<CatalogIndex> indexes,
+                          ServiceCatalogRepository serviceCatalogRepository,
+                          @Value("${catalog.index.load-batch-size:1000}") int loadBatchSize) {
+        this.indexes = indexes;
+        this.serviceCatalogRepository = serviceCatalogRepository;
+        this.loadBatchSize = loadBatchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        long started = System.currentTimeMillis();
+        long loaded = 0;
+        Long lastId = null;
+
+        while (true) {
+            Long after = lastId;
+            List<ServiceCatalog> batch = serviceCatalogRepository.findBy(
+                    ServiceCatalogSpecifications.idAfter(after),
+                    q -> q.project("providerId")
+                            .sortBy(Sort.by(Sort.Direction.ASC, "serviceId"))
+                            .limit(loadBatchSize)
+                            .all());
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (ServiceCatalog service : batch) {
+                apply(IndexedService.from(service));
+            }
+            loaded += batch.size();
+            lastId = batch.get(batch.size() - 1).getServiceId();
+        }
+
+        log.info("Catalog indexes loaded {} services in {} ms", loaded, System.currentTimeMillis() - started);
+    }
+
+    public void indexAfterCommit(ServiceCatalog service) {
+        IndexedService snapshot = IndexedService.from(service);
+        AfterCommit.run(() -> apply(snapshot));
+    }
+
+    // Reloads once committed, for writes that bypass the entity (bulk updates)
+    public void reindexAfterCommit(Long serviceId) {
+        AfterCommit.run(() -> serviceCatalogRepository.findWithProviderByServiceId(serviceId)
+                .ifPresent(service -> apply(IndexedService.from(service))));
+    }
+
+    public void reindexProviderAfterCommit(Long providerId) {
+        AfterCommit.run(() -> serviceCatalogRepository.findBy(
+                        ServiceCatalogSpecifications.ownedBy(providerId),
+                        q -> q.project("providerId").all())
+                .forEach(service -> apply(IndexedService.from(service))));
+    }
+
+    public void removeAfterCommit(Long serviceId) {
+        AfterCommit.run(() -> indexes.forEach(index -> index.remove(serviceId)));
+    }
+
+    private void apply(IndexedService snapshot) {
+        indexes.forEach(index -> index.upsert(snapshot));
+    }
+}
@@ -0,0 +1,72 @@
+package com.FindMyService.index;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * HTTP validators for catalog reads, kept in memory so conditional requests
+ * can be answered without a database round trip.
+ *
+ * A service's ETag derives from its updatedAt and provider name, the only
+ * inputs of its DTO that can change. Collections share one catalog version
+ * that is bumped on every write; it is prefixed with the node's start time so
+ * validators never repeat across restarts.
+ */
+@Component
+public class CatalogVersions implements CatalogIndex {
+
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final AtomicReference<Instant> catalogLastModified = new AtomicReference<>(Instant.EPOCH);
+    private final Map<Long, Entry> services = new ConcurrentHashMap<>();
+
+    public record Validator(String etag, Instant lastModified) {
+    }
+
+    private record Entry(long updatedAtMicros, int providerNameHash) {
+    }
+
+    @Override
+    public void upsert(IndexedService service) {
+        Instant updatedAt = service.updatedAt() != null ? service.updatedAt() : Instant.now();
+        services.put(service.serviceId(), new Entry(
+                ChronoUnit.MICROS.between(Instant.EPOCH, updatedAt),
+                service.providerName() != null ? service.providerName().hashCode() : 0));
+        bump(updatedAt);
+    }
+
+    @Override
+    public void remove(Long serviceId) {
+        services.remove(serviceId);
+        bump(Instant.now());
+    }
+
+    public Optional<Validator> forService(Long serviceId) {
+        Entry entry = services.get(serviceId);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        String etag = serviceId + "-" + Long.toHexString(entry.updatedAtMicros()) + "-" + Integer.toHexString(entry.providerNameHash());
+        Instant lastModified = Instant.EPOCH.plus(entry.updatedAtMicros(), ChronoUnit.MICROS);
+        return Optional.of(new Validator(etag, lastModified));
+    }
+
+    // The variant distinguishes representations of the same catalog state, e.g. query parameters
+    public Validator forCatalog(String variant) {
+        String etag = "c-" + Long.toHexString(epoch) + "-" + catalogVersion.get()
+                + "-" + Integer.toHexString(variant != null ? variant.hashCode() : 0);
+        return new Validator(etag, catalogLastModified.get());
+    }
+
+    private void bump(Instant modified) {
+        catalogVersion.incrementAndGet();
+        catalogLastModified.accumulateAndGet(modified, (current, next) -> next.isAfter(current) ? next : current);
+    }
+}
@@ -0,0 +1,305 @@
+package com.FindMyService.index;
+
+import com.FindMyService.model.enums.Availability;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitset posting lists per facet value (availability, price bucket, rating
+ * step, location, active). Filters and facet counts are answered with bitwise
+ * AND/OR and cardinality only; the database is never consulted.
+ *
+ * Facet counts are "multi-select" style: the counts for one facet apply every
+ * filter except that facet's own, so clients can show alternatives.
+ */
+@Component
+public class FacetIndex implements CatalogIndex {
+
+    private static final int RATING_STEPS = 51; // 0.0 .. 5.0 in 0.1 increments
+
+    private final long[] priceBoundaries;
+    private final String[] priceLabels;
+    private final int maxLocationFacets;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Ordinals ordinals = new Ordinals();
+
+    private final BitSet live = new BitSet();
+    private final BitSet active = new BitSet();
+    private final EnumMap<Availability, BitSet> byAvailability = new EnumMap<>(Availability.class);
+    private final BitSet[] byPriceBucket;
+    private final BitSet[] byRatingStep = new BitSet[RATING_STEPS];
+    private final Map<String, BitSet> byLocation = new HashMap<>();
+    private final Map<String, String> locationLabels = new HashMap<>();
+
+    private Doc[] docs = new Doc[1024];
+
+    public FacetIndex(@Value("${facets.price-buckets:500,1000,2500,5000}") long[] priceBoundaries,
+                      @Value("${facets.max-locations:20}") int maxLocationFacets) {
+        this.priceBoundaries = priceBoundaries.clone();
+        Arrays.sort(this.priceBoundaries);
+        this.maxLocationFacets = maxLocationFacets;
+
+        this.byPriceBucket = new BitSet[this.priceBoundaries.length + 1];
+        this.priceLabels = new String[this.priceBoundaries.length + 1];
+        long lower = 0;
+        for (int i = 0; i < this.priceBoundaries.length; i++) {
+            priceLabels[i] = lower + "-" + this.priceBoundaries[i];
+            lower = this.priceBoundaries[i];
+        }
+        priceLabels[this.priceBoundaries.length] = lower + "+";
+
+        Arrays.setAll(byPriceBucket, i -> new BitSet());
+        Arrays.setAll(byRatingStep, i -> new BitSet());
+        for (Availability availability : Availability.values()) {
+            byAvailability.put(availability, new BitSet());
+        }
+    }
+
+    @Override
+    public void upsert(IndexedService service) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(service.serviceId());
+            addLocked(service);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long serviceId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(serviceId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} matching service ids in descending id order,
+     * starting below {@code beforeServiceId} when given, plus facet counts.
+     */
+    public FacetResult query(FacetQuery query, Long beforeServiceId, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet activeFilter = query.active() == null ? null
+                    : query.active() ? active : andNot(live, active);
+            BitSet availabilityFilter = query.availability() == null ? null : byAvailability.get(query.availability());
+            BitSet costFilter = costFilter(query.minCost(), query.maxCost());
+            BitSet ratingFilter = ratingFilter(query.minRating());
+            String location = normalize(query.location());
+            BitSet locationFilter = location == null ? null : byLocation.getOrDefault(location, new BitSet());
+
+            BitSet matches = intersect(activeFilter, availabilityFilter, costFilter, ratingFilter, locationFilter);
+            // One buffer per query for every facet count, rather than a copy per facet value
+            BitSet scratch = new BitSet(live.length());
+
+            Map<String, Long> availabilityCounts = new LinkedHashMap<>();
+            BitSet withoutAvailability = intersect(activeFilter, costFilter, ratingFilter, locationFilter);
+            byAvailability.forEach((value, bits) ->
+                    availabilityCounts.put(value.name(), countAnd(scratch, withoutAvailability, bits)));
+
+            Map<String, Long> priceCounts = new LinkedHashMap<>();
+            BitSet withoutCost = intersect(activeFilter, availabilityFilter, ratingFilter, locationFilter);
+            for (int i = 0; i < byPriceBucket.length; i++) {
+                priceCounts.put(priceLabels[i], countAnd(scratch, withoutCost, byPriceBucket[i]));
+            }
+
+            BitSet withoutLocation = intersect(activeFilter, availabilityFilter, costFilter, ratingFilter);
+            List<Map.Entry<String, Long>> locationCounts = new ArrayList<>();
+            byLocation.forEach((key, bits) -> {
+                long count = countAnd(scratch, withoutLocation, bits);
+                if (count > 0) {
+                    locationCounts.add(Map.entry(locationLabels.get(key), count));
+                }
+            });
+            locationCounts.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                    .thenComparing(Map.Entry.comparingByKey()));
+            Map<String, Long> topLocations = new LinkedHashMap<>();
+            locationCounts.stream().limit(maxLocationFacets).forEach(e -> topLocations.put(e.getKey(), e.getValue()));
+
+            long[] page = ordinals.descendingServiceIds(matches, beforeServiceId, limit + 1);
+            boolean hasMore = page.length > limit;
+            List<Long> serviceIds = new ArrayList<>(Math.min(page.length, limit));
+            for (int i = 0; i < page.length && i < limit; i++) {
+                serviceIds.add(page[i]);
+            }
+
+            return new FacetResult(matches.cardinality(), serviceIds, hasMore,
+                    availabilityCounts, priceCounts, topLocations);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addLocked(IndexedService service) {
+        int ordinal = ordinals.assign(service.serviceId());
+        if (ordinal >= docs.length) {
+            docs = Arrays.copyOf(docs, Math.max(ordinal + 1, docs.length * 2));
+        }
+
+        String location = normalize(service.location());
+        Doc doc = new Doc(
+                service.cost() != null ? service.cost().doubleValue() : Double.NaN,
+                service.availability(),
+                service.avgRating(),
+                ratingStep(service.avgRating()),
+                location,
+                service.active());
+        docs[ordinal] = doc;
+
+        live.set(ordinal);
+        if (doc.active) active.set(ordinal);
+        if (doc.availability != null) byAvailability.get(doc.availability).set(ordinal);
+        if (!Double.isNaN(doc.cost)) byPriceBucket[priceBucket(doc.cost)].set(ordinal);
+        byRatingStep[doc.ratingStep].set(ordinal);
+        if (location != null) {
+            byLocation.computeIfAbsent(location, key -> new BitSet()).set(ordinal);
+            locationLabels.putIfAbsent(location, service.location().trim());
+        }
+    }
+
+    private void removeLocked(Long serviceId) {
+        Integer ordinal = ordinals.release(serviceId);
+        if (ordinal == null) {
+            return;
+        }
+        Doc doc = docs[ordinal];
+        docs[ordinal] = null;
+
+        live.clear(ordinal);
+        active.clear(ordinal);
+        if (doc.availability != null) byAvailability.get(doc.availability).clear(ordinal);
+        if (!Double.isNaN(doc.cost)) byPriceBucket[priceBucket(doc.cost)].clear(ordinal);
+        byRatingStep[doc.ratingStep].clear(ordinal);
+        if (doc.location != null) {
+            BitSet bits = byLocation.get(doc.location);
+            bits.clear(ordinal);
+            if (bits.isEmpty()) {
+                byLocation.remove(doc.location);
+                locationLabels.remove(doc.location);
+            }
+        }
+    }
+
+    private BitSet costFilter(BigDecimal minCost, BigDecimal maxCost) {
+        if (minCost == null && maxCost == null) {
+            return null;
+        }
+        double min = minCost != null ? minCost.doubleValue() : Double.NEGATIVE_INFINITY;
+        double max = maxCost != null ? maxCost.doubleValue() : Double.POSITIVE_INFINITY;
+
+        BitSet result = new BitSet();
+        for (int bucket = 0; bucket < byPriceBucket.length; bucket++) {
+            double lower = bucket == 0 ? Double.NEGATIVE_INFINITY : priceBoundaries[bucket - 1];
+            double upper = bucket == priceBoundaries.length ? Double.POSITIVE_INFINITY : priceBoundaries[bucket];
+            if (upper <= min || lower > max) {
+                continue;
+            }
+            if (lower >= min && upper <= max) {
+                // Bucket is [lower, upper) and lies entirely inside the range
+                result.or(byPriceBucket[bucket]);
+            } else {
+                BitSet bits = byPriceBucket[bucket];
+                for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                    double cost = docs[i].cost;
+                    if (cost >= min && cost <= max) {
+                        result.set(i);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private BitSet ratingFilter(BigDecimal minRating) {
+        if (minRating == null) {
+            return null;
+        }
+        BitSet result = new BitSet();
+        int from = minRating.movePointRight(1).setScale(0, RoundingMode.FLOOR).intValue();
+        if (from < 0) {
+            from = 0;
+        } else if (from < RATING_STEPS) {
+            // The step holding the minimum may also hold ratings just below it, e.g. 4.01 for a 4.05 minimum
+            BitSet bits = byRatingStep[from];
+            for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                BigDecimal rating = docs[i].rating != null ? docs[i].rating : BigDecimal.ZERO;
+                if (rating.compareTo(minRating) >= 0) {
+                    result.set(i);
+                }
+            }
+            from++;
+        }
+        for (int step = from; step < RATING_STEPS; step++) {
+            result.or(byRatingStep[step]);
+        }
+        return result;
+    }
+
+    private BitSet intersect(BitSet... filters) {
+        BitSet result = (BitSet) live.clone();
+        for (BitSet filter : filters) {
+            if (filter != null) {
+                result.and(filter);
+            }
+        }
+        return result;
+    }
+
+    private int priceBucket(double cost) {
+        int bucket = 0;
+        while (bucket < priceBoundaries.length && cost >= priceBoundaries[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    // Truncated, never rounded up, so a 3.95 average lands in the 3.9 step and not the 4.0 one
+    private static int ratingStep(BigDecimal rating) {
+        if (rating == null) {
+            return 0;
+        }
+        int step = rating.movePointRight(1).setScale(0, RoundingMode.FLOOR).intValue();
+        return Math.max(0, Math.min(RATING_STEPS - 1, step));
+    }
+
+    private static long countAnd(BitSet scratch, BitSet base, BitSet other) {
+        scratch.clear();
+        scratch.or(base);
+        scratch.and(other);
+        return scratch.cardinality();
+    }
+
+    private static BitSet andNot(BitSet base, BitSet other) {
+        BitSet copy = (BitSet) base.clone();
+        copy.andNot(other);
+        return copy;
+    }
+
+    private static String normalize(String location) {
+        if (location == null || location.isBlank()) {
+            return null;
+        }
+        return location.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Doc(double cost, Availability availability, BigDecimal rating, int ratingStep, String location, boolean active) {
+    }
+}
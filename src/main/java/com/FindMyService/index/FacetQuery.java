@@ -0,0 +1,15 @@
+package com.FindMyService.index;
+
+import com.FindMyService.model.enums.Availability;
+
+import java.math.BigDecimal;
+
+public record FacetQuery(
+        BigDecimal minCost,
+        BigDecimal maxCost,
+        Availability availability,
+        BigDecimal minRating,
+        String location,
+        Boolean active
+) {
+}
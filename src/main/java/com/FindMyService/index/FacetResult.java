@@ -0,0 +1,14 @@
+package com.FindMyService.index;
+
+import java.util.List;
+import java.util.Map;
+
+public record FacetResult(
+        long total,
+        List<Long> serviceIds,
+        boolean hasMore,
+        Map<String, Long> availability,
+        Map<String, Long> priceBuckets,
+        Map<String, Long> locations
+) {
+}
@@ -0,0 +1,156 @@
+package com.FindMyService.index;
+
+import com.FindMyService.geo.GeoPoint;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Fixed-size latitude/longitude cells with id sets per cell. Radius queries
+ * scan only the cells overlapping the query's bounding box. Not thread-safe;
+ * callers hold their own lock.
+ */
+final class GeoGrid {
+
+    private static final double KM_PER_DEGREE = Math.PI * GeoPoint.EARTH_RADIUS_KM / 180;
+
+    private final double cellDegrees;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Long, Set<Long>> cells = new HashMap<>();
+
+    private record Entry(double latitude, double longitude, double rating, long cell) {
+    }
+
+    private record Scored(Long id, double distanceKm, double score) {
+    }
+
+    GeoGrid(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+    }
+
+    double cellKm() {
+        return cellDegrees * KM_PER_DEGREE;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    void put(Long id, GeoPoint point, double rating) {
+        remove(id);
+        long cell = cellKey(row(point.latitude()), column(point.longitude()));
+        entries.put(id, new Entry(point.latitude(), point.longitude(), rating, cell));
+        cells.computeIfAbsent(cell, c -> new HashSet<>()).add(id);
+    }
+
+    void remove(Long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        Set<Long> members = cells.get(entry.cell());
+        members.remove(id);
+        if (members.isEmpty()) {
+            cells.remove(entry.cell());
+        }
+    }
+
+    /**
+     * Entries within radiusKm of origin ordered by distance divided by
+     * (1 + ratingWeight * rating / 5); a weight of zero orders by distance alone.
+     */
+    List<GeoHit> within(GeoPoint origin, double radiusKm, int limit, double ratingWeight) {
+        Comparator<Scored> worstFirst = Comparator.comparingDouble(Scored::score).reversed();
+        PriorityQueue<Scored> top = new PriorityQueue<>(limit + 1, worstFirst);
+
+        double latSpan = radiusKm / KM_PER_DEGREE;
+        double lngSpan = radiusKm / (KM_PER_DEGREE * Math.max(0.01, Math.cos(Math.toRadians(origin.latitude()))));
+        int minRow = row(Math.max(-90, origin.latitude() - latSpan));
+        int maxRow = row(Math.min(90, origin.latitude() + latSpan));
+        int minColumn = column(Math.max(-180, origin.longitude() - lngSpan));
+        int maxColumn = column(Math.min(180, origin.longitude() + lngSpan));
+
+        long boxCells = (long) (maxRow - minRow + 1) * (maxColumn - minColumn + 1);
+        if (boxCells > cells.size()) {
+            // Sparse grid: cheaper to walk the occupied cells than the bounding box
+            cells.forEach((cell, members) -> {
+                int row = (int) (cell >> 32);
+                int column = (int) cell.longValue();
+                if (row >= minRow && row <= maxRow && column >= minColumn && column <= maxColumn) {
+                    collect(members, origin, radiusKm, limit, ratingWeight, top);
+                }
+            });
+        } else {
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int column = minColumn; column <= maxColumn; column++) {
+                    Set<Long> members = cells.get(cellKey(row, column));
+                    if (members != null) {
+                        collect(members, origin, radiusKm, limit, ratingWeight, top);
+                    }
+                }
+            }
+        }
+
+        List<Scored> ranked = new ArrayList<>(top);
+        ranked.sort(Comparator.comparingDouble(Scored::score).thenComparingDouble(Scored::distanceKm));
+        return ranked.stream().map(s -> new GeoHit(s.id(), s.distanceKm())).toList();
+    }
+
+    /**
+     * The limit best entries around origin, widening the radius from one cell
+     * until enough are found or maxRadiusKm is reached.
+     */
+    List<GeoHit> nearest(GeoPoint origin, int limit, double maxRadiusKm, double ratingWeight) {
+        double radius = Math.min(cellKm(), maxRadiusKm);
+        while (true) {
+            List<GeoHit> hits = within(origin, radius, limit, ratingWeight);
+            if (hits.size() >= limit) {
+                // A farther entry can still win on rating: its score is at least distance / (1 + weight)
+                GeoHit last = hits.get(hits.size() - 1);
+                double worstScore = last.distanceKm() / (1 + ratingWeight * entries.get(last.id()).rating() / 5);
+                double exactRadius = Math.min(maxRadiusKm, worstScore * (1 + ratingWeight));
+                return exactRadius > radius ? within(origin, exactRadius, limit, ratingWeight) : hits;
+            }
+            if (radius >= maxRadiusKm) {
+                return hits;
+            }
+            radius = Math.min(radius * 2, maxRadiusKm);
+        }
+    }
+
+    private void collect(Set<Long> members, GeoPoint origin, double radiusKm, int limit, double ratingWeight,
+                         PriorityQueue<Scored> top) {
+        for (Long id : members) {
+            Entry entry = entries.get(id);
+            double distance = origin.distanceKm(entry.latitude(), entry.longitude());
+            if (distance > radiusKm) {
+                continue;
+            }
+            double score = distance / (1 + ratingWeight * entry.rating() / 5);
+            if (top.size() < limit) {
+                top.add(new Scored(id, distance, score));
+            } else if (score < top.peek().score()) {
+                top.poll();
+                top.add(new Scored(id, distance, score));
+            }
+        }
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor(latitude / cellDegrees);
+    }
+
+    private int column(double longitude) {
+        return (int) Math.floor(longitude / cellDegrees);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+}
@@ -0,0 +1,4 @@
+package com.FindMyService.index;
+
+public record GeoHit(Long id, double distanceKm) {
+}
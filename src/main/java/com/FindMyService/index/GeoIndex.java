@@ -0,0 +1,209 @@
+package com.FindMyService.index;
+
+import com.FindMyService.geo.GeoPoint;
+import com.FindMyService.geo.ZipCentroids;
+import com.FindMyService.model.Provider;
+import com.FindMyService.repository.ProviderRepository;
+import com.FindMyService.utils.AfterCommit;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Spatial index over active services and providers.
+ *
+ * A provider is placed at its own coordinates, or at the centroid of its postal
+ * code when it has none. A service without coordinates follows its provider,
+ * so moving a provider moves those services without touching the database.
+ */
+@Component
+@Slf4j
+public class GeoIndex implements CatalogIndex {
+
+    private final ZipCentroids zipCentroids;
+    private final ProviderRepository providerRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTx;
+    private final double maxRadiusKm;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final GeoGrid services;
+    private final GeoGrid providers;
+    private final Map<Long, GeoPoint> providerPoints = new HashMap<>();
+    private final Map<Long, Placement> servicePlacements = new HashMap<>();
+    private final Map<Long, Set<Long>> followersByProvider = new HashMap<>();
+
+    private record Placement(Long providerId, GeoPoint ownPoint, double rating) {
+    }
+
+    public GeoIndex(ZipCentroids zipCentroids,
+                    ProviderRepository providerRepository,
+                    EntityManager entityManager,
+                    PlatformTransactionManager transactionManager,
+                    @Value("${geo.cell-degrees:0.1}") double cellDegrees,
+                    @Value("${geo.max-radius-km:100}") double maxRadiusKm) {
+        this.zipCentroids = zipCentroids;
+        this.providerRepository = providerRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.maxRadiusKm = maxRadiusKm;
+        this.services = new GeoGrid(cellDegrees);
+        this.providers = new GeoGrid(cellDegrees);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadProviders() {
+        long started = System.currentTimeMillis();
+        readOnlyTx.executeWithoutResult(status -> providerRepository.streamAll().forEach(provider -> {
+            upsertProvider(provider.getProviderId(), pointOf(provider), provider.getAvgRating());
+            entityManager.detach(provider);
+        }));
+        log.info("Geo index placed {} providers in {} ms", size(providers), System.currentTimeMillis() - started);
+    }
+
+    @Override
+    public void upsert(IndexedService service) {
+        lock.writeLock().lock();
+        try {
+            removeServiceLocked(service.serviceId());
+            if (!service.active()) {
+                return;
+            }
+            Placement placement = new Placement(service.providerId(),
+                    GeoPoint.ofNullable(service.latitude(), service.longitude()), rating(service.avgRating()));
+            servicePlacements.put(service.serviceId(), placement);
+            if (placement.ownPoint() == null && placement.providerId() != null) {
+                followersByProvider.computeIfAbsent(placement.providerId(), id -> new HashSet<>()).add(service.serviceId());
+            }
+            placeServiceLocked(service.serviceId(), placement);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long serviceId) {
+        lock.writeLock().lock();
+        try {
+            removeServiceLocked(serviceId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void indexProviderAfterCommit(Provider provider) {
+        Long providerId = provider.getProviderId();
+        GeoPoint point = pointOf(provider);
+        BigDecimal avgRating = provider.getAvgRating();
+        AfterCommit.run(() -> upsertProvider(providerId, point, avgRating));
+    }
+
+    public void reindexProviderAfterCommit(Long providerId) {
+        AfterCommit.run(() -> providerRepository.findById(providerId)
+                .ifPresent(provider -> upsertProvider(providerId, pointOf(provider), provider.getAvgRating())));
+    }
+
+    public void removeProviderAfterCommit(Long providerId) {
+        AfterCommit.run(() -> upsertProvider(providerId, null, null));
+    }
+
+    public List<GeoHit> nearbyServices(GeoPoint origin, Double radiusKm, int limit, double ratingWeight) {
+        return nearby(services, origin, radiusKm, limit, ratingWeight);
+    }
+
+    public List<GeoHit> nearbyProviders(GeoPoint origin, Double radiusKm, int limit, double ratingWeight) {
+        return nearby(providers, origin, radiusKm, limit, ratingWeight);
+    }
+
+    public double maxRadiusKm() {
+        return maxRadiusKm;
+    }
+
+    private List<GeoHit> nearby(GeoGrid grid, GeoPoint origin, Double radiusKm, int limit, double ratingWeight) {
+        if (radiusKm != null && (radiusKm <= 0 || radiusKm > maxRadiusKm)) {
+            throw new IllegalArgumentException("radiusKm must be between 0 and " + maxRadiusKm);
+        }
+        if (ratingWeight < 0) {
+            throw new IllegalArgumentException("ratingWeight must not be negative");
+        }
+        lock.readLock().lock();
+        try {
+            return radiusKm != null
+                    ? grid.within(origin, radiusKm, limit, ratingWeight)
+                    : grid.nearest(origin, limit, maxRadiusKm, ratingWeight);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // A null point removes the provider; its following services drop out until it is placed again
+    private void upsertProvider(Long providerId, GeoPoint point, BigDecimal avgRating) {
+        lock.writeLock().lock();
+        try {
+            if (point != null) {
+                providerPoints.put(providerId, point);
+                providers.put(providerId, point, rating(avgRating));
+            } else {
+                providerPoints.remove(providerId);
+                providers.remove(providerId);
+            }
+            for (Long serviceId : followersByProvider.getOrDefault(providerId, Set.of())) {
+                placeServiceLocked(serviceId, servicePlacements.get(serviceId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void placeServiceLocked(Long serviceId, Placement placement) {
+        GeoPoint point = placement.ownPoint() != null ? placement.ownPoint() : providerPoints.get(placement.providerId());
+        if (point != null) {
+            services.put(serviceId, point, placement.rating());
+        } else {
+            services.remove(serviceId);
+        }
+    }
+
+    private void removeServiceLocked(Long serviceId) {
+        Placement previous = servicePlacements.remove(serviceId);
+        if (previous != null && previous.providerId() != null) {
+            Set<Long> followers = followersByProvider.get(previous.providerId());
+            if (followers != null && followers.remove(serviceId) && followers.isEmpty()) {
+                followersByProvider.remove(previous.providerId());
+            }
+        }
+        services.remove(serviceId);
+    }
+
+    private GeoPoint pointOf(Provider provider) {
+        GeoPoint own = GeoPoint.ofNullable(provider.getLatitude(), provider.getLongitude());
+        return own != null ? own : zipCentroids.lookup(provider.getZipCode()).orElse(null);
+    }
+
+    private int size(GeoGrid grid) {
+        lock.readLock().lock();
+        try {
+            return grid.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static double rating(BigDecimal avgRating) {
+        return avgRating != null ? avgRating.doubleValue() : 0;
+    }
+}
@@ -0,0 +1,49 @@
+package com.FindMyService.index;
+
+import com.FindMyService.model.ServiceCatalog;
+import com.FindMyService.model.enums.Availability;
+import com.FindMyService.utils.Ratings;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Immutable snapshot of the catalog fields the in-memory indexes care about.
+ * Taken inside the writing transaction so lazy associations can still load.
+ */
+public record IndexedService(
+        Long serviceId,
+        Long providerId,
+        String providerName,
+        String serviceName,
+        String description,
+        String location,
+        Double latitude,
+        Double longitude,
+        BigDecimal cost,
+        Availability availability,
+        boolean active,
+        BigDecimal avgRating,
+        int totalRatings,
+        Instant updatedAt
+) {
+
+    public static IndexedService from(ServiceCatalog service) {
+        return new IndexedService(
+                service.getServiceId(),
+                service.getProviderId() != null ? service.getProviderId().getProviderId() : null,
+                service.getProviderId() != null ? service.getProviderId().getProviderName() : null,
+                service.getServiceName(),
+                service.getDescription(),
+                service.getLocation(),
+                service.getLatitude(),
+                service.getLongitude(),
+                service.getCost(),
+                service.getAvailability(),
+                service.isActive(),
+                Ratings.average(service.getRatingSum(), service.getTotalRatings()),
+                service.getTotalRatings(),
+                service.getUpdatedAt()
+        );
+    }
+}
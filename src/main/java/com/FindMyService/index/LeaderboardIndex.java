@@ -0,0 +1,134 @@
+package com.FindMyService.index;
+
+import com.FindMyService.model.enums.Availability;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Top-rated services per (location, availability), including "any" for either
+ * dimension, kept in concurrent skip lists ordered by a Bayesian average:
+ *
+ *   score = (priorWeight * priorMean + avgRating * totalRatings) / (priorWeight + totalRatings)
+ *
+ * so a single 5.0 review does not outrank hundreds of 4.8s. Reads walk the
+ * head of one skip list without locking; writes are serialized.
+ */
+@Component
+public class LeaderboardIndex implements CatalogIndex {
+
+    private static final String ANY = "*";
+    private static final Comparator<Ranked> BEST_FIRST = Comparator
+            .comparingDouble(Ranked::score).reversed()
+            .thenComparingLong(Ranked::serviceId);
+
+    private final double priorMean;
+    private final double priorWeight;
+
+    private final Map<Board, NavigableSet<Ranked>> boards = new ConcurrentHashMap<>();
+    private final Map<Long, Placed> placed = new ConcurrentHashMap<>();
+
+    private record Board(String location, String availability) {
+    }
+
+    public record Ranked(double score, long serviceId) {
+    }
+
+    private record Placed(Ranked ranked, List<Board> boards) {
+    }
+
+    public LeaderboardIndex(@Value("${leaderboard.prior-mean:3.5}") double priorMean,
+                            @Value("${leaderboard.prior-weight:5}") double priorWeight) {
+        this.priorMean = priorMean;
+        this.priorWeight = priorWeight;
+    }
+
+    @Override
+    public synchronized void upsert(IndexedService service) {
+        removeLocked(service.serviceId());
+        if (!service.active()) {
+            return;
+        }
+
+        double average = service.avgRating() != null ? service.avgRating().doubleValue() : 0;
+        int count = Math.max(0, service.totalRatings());
+        Ranked ranked = new Ranked(
+                (priorWeight * priorMean + average * count) / (priorWeight + count),
+                service.serviceId());
+
+        String location = normalize(service.location());
+        String availability = service.availability() != null ? service.availability().name() : null;
+        List<Board> targets = new ArrayList<>(4);
+        targets.add(new Board(ANY, ANY));
+        if (availability != null) {
+            targets.add(new Board(ANY, availability));
+        }
+        if (location != null) {
+            targets.add(new Board(location, ANY));
+        }
+        if (location != null && availability != null) {
+            targets.add(new Board(location, availability));
+        }
+
+        for (Board board : targets) {
+            boards.computeIfAbsent(board, b -> new ConcurrentSkipListSet<>(BEST_FIRST)).add(ranked);
+        }
+        placed.put(service.serviceId(), new Placed(ranked, targets));
+    }
+
+    @Override
+    public synchronized void remove(Long serviceId) {
+        removeLocked(serviceId);
+    }
+
+    /**
+     * Up to {@code limit} best services, optionally restricted to a location
+     * and/or availability.
+     */
+    public List<Ranked> top(String location, Availability availability, int limit) {
+        String key = normalize(location);
+        NavigableSet<Ranked> board = boards.get(new Board(
+                key != null ? key : ANY,
+                availability != null ? availability.name() : ANY));
+        if (board == null) {
+            return List.of();
+        }
+        List<Ranked> result = new ArrayList<>(limit);
+        for (Ranked ranked : board) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(ranked);
+        }
+        return result;
+    }
+
+    private void removeLocked(Long serviceId) {
+        Placed previous = placed.remove(serviceId);
+        if (previous == null) {
+            return;
+        }
+        for (Board board : previous.boards()) {
+            NavigableSet<Ranked> entries = boards.get(board);
+            entries.remove(previous.ranked());
+            if (entries.isEmpty()) {
+                boards.remove(board);
+            }
+        }
+    }
+
+    private static String normalize(String location) {
+        if (location == null || location.isBlank()) {
+            return null;
+        }
+        return location.trim().toLowerCase(Locale.ROOT);
+    }
+}
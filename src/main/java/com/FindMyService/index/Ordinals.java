@@ -0,0 +1,103 @@
+package com.FindMyService.index;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps service ids to dense int ordinals for array- and bitset-backed
+ * indexes. Released ordinals are reused so the arrays stay bounded by the
+ * live service count. Not thread-safe; callers hold their own lock.
+ */
+final class Ordinals {
+
+    private final Map<Long, Integer> byServiceId = new HashMap<>();
+    private final Deque<Integer> free = new ArrayDeque<>();
+    private long[] serviceIds = new long[1024];
+    private int next;
+
+    Integer get(Long serviceId) {
+        return byServiceId.get(serviceId);
+    }
+
+    int assign(Long serviceId) {
+        int ordinal = free.isEmpty() ? next++ : free.pop();
+        if (ordinal >= serviceIds.length) {
+            serviceIds = Arrays.copyOf(serviceIds, Math.max(ordinal + 1, serviceIds.length * 2));
+        }
+        serviceIds[ordinal] = serviceId;
+        byServiceId.put(serviceId, ordinal);
+        return ordinal;
+    }
+
+    Integer release(Long serviceId) {
+        Integer ordinal = byServiceId.remove(serviceId);
+        if (ordinal != null) {
+            free.push(ordinal);
+        }
+        return ordinal;
+    }
+
+    long serviceId(int ordinal) {
+        return serviceIds[ordinal];
+    }
+
+    int size() {
+        return byServiceId.size();
+    }
+
+    // Exclusive upper bound of every ordinal handed out so far
+    int bound() {
+        return next;
+    }
+
+    /**
+     * Up to {@code limit} service ids of the set ordinals, largest first,
+     * skipping ids at or above {@code beforeServiceId} when given.
+     */
+    long[] descendingServiceIds(BitSet matches, Long beforeServiceId, int limit) {
+        long[] best = new long[limit];
+        int size = 0;
+        // Min-heap on service id, keeping the largest ids below the cursor
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            long id = serviceIds[i];
+            if (beforeServiceId != null && id >= beforeServiceId) {
+                continue;
+            }
+            if (size < limit) {
+                best[size] = id;
+                int c = size++;
+                while (c > 0 && best[(c - 1) >>> 1] > best[c]) {
+                    swap(best, c, (c - 1) >>> 1);
+                    c = (c - 1) >>> 1;
+                }
+            } else if (id > best[0]) {
+                best[0] = id;
+                int c = 0;
+                while (true) {
+                    int l = 2 * c + 1;
+                    if (l >= size) break;
+                    int m = l + 1 < size && best[l + 1] < best[l] ? l + 1 : l;
+                    if (best[c] <= best[m]) break;
+                    swap(best, c, m);
+                    c = m;
+                }
+            }
+        }
+        long[] result = Arrays.copyOf(best, size);
+        Arrays.sort(result);
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            swap(result, i, j);
+        }
+        return result;
+    }
+
+    private static void swap(long[] values, int a, int b) {
+        long tmp = values[a];
+        values[a] = values[b];
+        values[b] = tmp;
+    }
+}
@@ -0,0 +1,4 @@
+package com.FindMyService.index;
+
+public record SearchHit(Long serviceId, double score) {
+}
@@ -0,0 +1,320 @@
+package com.FindMyService.index;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over service name, description, location and
+ * provider name. Documents are scored with BM25 (field-weighted term
+ * frequencies) and the score is blended with the service's average rating.
+ *
+ * Every service occupies a dense int ordinal. Posting lists are unordered:
+ * a document is appended to each of its terms' lists and remembers the slot
+ * it landed in, and removal moves the list's last entry into that slot, so
+ * indexing or dropping a document costs O(its terms) whatever the list sizes.
+ */
+@Component
+public class SearchIndex implements CatalogIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private static final float NAME_WEIGHT = 3f;
+    private static final float PROVIDER_WEIGHT = 2f;
+    private static final float LOCATION_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    private final double ratingWeight;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Ordinals ordinals = new Ordinals();
+
+    private float[] docLengths = new float[1024];
+    private float[] ratings = new float[1024];
+    private String[][] docTerms = new String[1024][];
+    private int[][] docSlots = new int[1024][];
+    private int liveDocs;
+    private double totalLength;
+
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    public SearchIndex(@Value("${search.rating-weight:0.3}") double ratingWeight) {
+        this.ratingWeight = ratingWeight;
+    }
+
+    @Override
+    public void upsert(IndexedService service) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(service.serviceId());
+            if (service.active()) {
+                addLocked(service);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long serviceId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(serviceId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<SearchHit> search(String query, int limit) {
+        List<String> queryTerms = Tokenizer.tokenize(query).stream().distinct().toList();
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (liveDocs == 0) {
+                return List.of();
+            }
+            Scratch s = scratch.get();
+            s.ensureCapacity(ordinals.bound());
+
+            float avgLength = (float) (totalLength / liveDocs);
+            for (String term : queryTerms) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+                float idf = (float) Math.log(1 + (liveDocs - list.size + 0.5) / (list.size + 0.5));
+                for (int i = 0; i < list.size; i++) {
+                    int doc = list.docs[i];
+                    float tf = list.freqs[i];
+                    float norm = K1 * (1 - B + B * docLengths[doc] / avgLength);
+                    s.add(doc, idf * tf * (K1 + 1) / (tf + norm));
+                }
+            }
+
+            return topHits(s, limit);
+        } finally {
+            scratch.get().reset();
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<SearchHit> topHits(Scratch s, int limit) {
+        int k = Math.min(limit, s.touchedCount);
+        int[] heap = new int[k];
+        double[] heapScores = new double[k];
+        int heapSize = 0;
+
+        for (int i = 0; i < s.touchedCount; i++) {
+            int doc = s.touched[i];
+            double score = s.scores[doc] * (1 + ratingWeight * ratings[doc] / 5.0);
+            if (heapSize < k) {
+                heap[heapSize] = doc;
+                heapScores[heapSize] = score;
+                siftUp(heap, heapScores, heapSize++);
+            } else if (score > heapScores[0]) {
+                heap[0] = doc;
+                heapScores[0] = score;
+                siftDown(heap, heapScores, heapSize);
+            }
+        }
+
+        SearchHit[] hits = new SearchHit[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            hits[i] = new SearchHit(ordinals.serviceId(heap[0]), heapScores[0]);
+            heap[0] = heap[i];
+            heapScores[0] = heapScores[i];
+            siftDown(heap, heapScores, i);
+        }
+        return Arrays.asList(hits);
+    }
+
+    private void addLocked(IndexedService service) {
+        Map<String, Float> termFreqs = new LinkedHashMap<>();
+        float length = 0;
+        length += collect(termFreqs, service.serviceName(), NAME_WEIGHT);
+        length += collect(termFreqs, service.providerName(), PROVIDER_WEIGHT);
+        length += collect(termFreqs, service.location(), LOCATION_WEIGHT);
+        length += collect(termFreqs, service.description(), DESCRIPTION_WEIGHT);
+
+        int ordinal = ordinals.assign(service.serviceId());
+        ensureCapacity(ordinal + 1);
+
+        docLengths[ordinal] = length;
+        ratings[ordinal] = service.avgRating() != null ? service.avgRating().floatValue() : 0f;
+
+        String[] terms = new String[termFreqs.size()];
+        int[] slots = new int[terms.length];
+        int t = 0;
+        for (Map.Entry<String, Float> entry : termFreqs.entrySet()) {
+            Postings list = postings.computeIfAbsent(entry.getKey(), key -> new Postings());
+            slots[t] = list.append(ordinal, entry.getValue());
+            terms[t++] = entry.getKey();
+        }
+        docTerms[ordinal] = terms;
+        docSlots[ordinal] = slots;
+
+        liveDocs++;
+        totalLength += length;
+    }
+
+    private void removeLocked(Long serviceId) {
+        Integer ordinal = ordinals.release(serviceId);
+        if (ordinal == null) {
+            return;
+        }
+        String[] terms = docTerms[ordinal];
+        int[] slots = docSlots[ordinal];
+        for (int t = 0; t < terms.length; t++) {
+            Postings list = postings.get(terms[t]);
+            int moved = list.removeAt(slots[t]);
+            if (moved >= 0) {
+                // The list's last entry now sits in the freed slot; point its document there
+                String[] movedTerms = docTerms[moved];
+                for (int m = 0; m < movedTerms.length; m++) {
+                    if (movedTerms[m].equals(terms[t])) {
+                        docSlots[moved][m] = slots[t];
+                        break;
+                    }
+                }
+            } else if (list.size == 0) {
+                postings.remove(terms[t]);
+            }
+        }
+        liveDocs--;
+        totalLength -= docLengths[ordinal];
+        docTerms[ordinal] = null;
+        docSlots[ordinal] = null;
+        ratings[ordinal] = 0f;
+        docLengths[ordinal] = 0f;
+    }
+
+    private static float collect(Map<String, Float> termFreqs, String text, float weight) {
+        List<String> tokens = Tokenizer.tokenize(text);
+        for (String token : tokens) {
+            termFreqs.merge(token, weight, Float::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= docLengths.length) {
+            return;
+        }
+        int capacity = Math.max(required, docLengths.length * 2);
+        docLengths = Arrays.copyOf(docLengths, capacity);
+        ratings = Arrays.copyOf(ratings, capacity);
+        docTerms = Arrays.copyOf(docTerms, capacity);
+        docSlots = Arrays.copyOf(docSlots, capacity);
+    }
+
+    private static void siftUp(int[] heap, double[] scores, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (scores[parent] <= scores[i]) {
+                return;
+            }
+            swap(heap, scores, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, double[] scores, int size) {
+        int i = 0;
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int smallest = left + 1 < size && scores[left + 1] < scores[left] ? left + 1 : left;
+            if (scores[i] <= scores[smallest]) {
+                return;
+            }
+            swap(heap, scores, i, smallest);
+            i = smallest;
+        }
+    }
+
+    private static void swap(int[] heap, double[] scores, int a, int b) {
+        int doc = heap[a];
+        heap[a] = heap[b];
+        heap[b] = doc;
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+
+    private static final class Postings {
+        int[] docs = new int[4];
+        float[] freqs = new float[4];
+        int size;
+
+        int append(int doc, float freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            return size++;
+        }
+
+        // Fills the slot with the last entry; returns that entry's document, or -1 if the slot was last
+        int removeAt(int slot) {
+            int last = --size;
+            if (slot == last) {
+                return -1;
+            }
+            docs[slot] = docs[last];
+            freqs[slot] = freqs[last];
+            return docs[slot];
+        }
+    }
+
+    // Per-thread score accumulator, reset after every query by clearing only the touched slots
+    private static final class Scratch {
+        float[] scores = new float[0];
+        int[] touched = new int[0];
+        int touchedCount;
+
+        void ensureCapacity(int capacity) {
+            if (scores.length < capacity) {
+                scores = new float[capacity];
+                touched = new int[capacity];
+            }
+        }
+
+        void add(int doc, float score) {
+            if (scores[doc] == 0f) {
+                touched[touchedCount++] = doc;
+            }
+            scores[doc] += score;
+        }
+
+        void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                scores[touched[i]] = 0f;
+            }
+            touchedCount = 0;
+        }
+    }
+}
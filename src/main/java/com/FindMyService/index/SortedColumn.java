@@ -0,0 +1,78 @@
+package com.FindMyService.index;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * (value, ordinal) pairs kept sorted by value, so a range is two binary
+ * searches and a contiguous copy into a bitset. Writes shift the arrays,
+ * which stays cheap at catalog sizes. Not thread-safe.
+ */
+final class SortedColumn {
+
+    private double[] values = new double[16];
+    private int[] ordinals = new int[16];
+    private int size;
+
+    void add(double value, int ordinal) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+            ordinals = Arrays.copyOf(ordinals, size * 2);
+        }
+        int at = upperBound(value);
+        System.arraycopy(values, at, values, at + 1, size - at);
+        System.arraycopy(ordinals, at, ordinals, at + 1, size - at);
+        values[at] = value;
+        ordinals[at] = ordinal;
+        size++;
+    }
+
+    void remove(double value, int ordinal) {
+        for (int i = lowerBound(value); i < size && values[i] == value; i++) {
+            if (ordinals[i] == ordinal) {
+                System.arraycopy(values, i + 1, values, i, size - i - 1);
+                System.arraycopy(ordinals, i + 1, ordinals, i, size - i - 1);
+                size--;
+                return;
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    BitSet range(double min, boolean minInclusive, double max, boolean maxInclusive) {
+        int from = minInclusive ? lowerBound(min) : upperBound(min);
+        int to = maxInclusive ? upperBound(max) : lowerBound(max);
+        BitSet result = new BitSet();
+        for (int i = from; i < to; i++) {
+            result.set(ordinals[i]);
+        }
+        return result;
+    }
+
+    // First index whose value is >= the given value
+    private int lowerBound(double value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < value) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    // First index whose value is > the given value
+    private int upperBound(double value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= value) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+}
@@ -1,5 +1,6 @@
 package com.FindMyService.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -42,4 +43,10 @@ public class Feedback {
 
     @CreationTimestamp
     private Instant createdAt;
+
+    // Set once the rating has been folded into the service and provider aggregates
+    @JsonIgnore
+    @Column(nullable = false)
+    @Builder.Default
+    private boolean ratingApplied = false;
 }
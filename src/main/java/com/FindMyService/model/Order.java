@@ -2,6 +2,7 @@ package com.FindMyService.model;
 
 import com.FindMyService.model.enums.OrderStatus;
 import com.FindMyService.model.enums.PaymentMethod;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
 import lombok.*;
@@ -23,14 +24,18 @@ public class Order {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long orderId;
 
-    @ManyToMany(fetch = FetchType.LAZY)
-    @JoinTable(
-            name = "order_line_items",
-            joinColumns = @JoinColumn(name = "order_id"),
-            inverseJoinColumns = @JoinColumn(name = "line_item_id")
-    )
+    @OneToMany(mappedBy = "order", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Set<LineItem> lineItemDTOS;
 
+    // Keeps both sides in step; line items are only ever saved through their order
+    public void attachLineItems() {
+        if (lineItemDTOS != null) {
+            lineItemDTOS.forEach(item -> item.setOrder(this));
+        }
+    }
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "ordered_by_user_id", nullable = false)
     private User userId;
@@ -56,6 +61,15 @@ public class Order {
     private String stripePaymentIntentId;
     private Instant paymentDate;
 
+    // Reconciliation backoff for the current intent: lookups that found it still open, and when to look again
+    @JsonIgnore
+    @Column(nullable = false)
+    @Builder.Default
+    private int reconcileChecks = 0;
+
+    @JsonIgnore
+    private Instant reconcileAfter;
+
     @CreationTimestamp
     private Instant createdAt;
 
@@ -0,0 +1,53 @@
+package com.FindMyService.model;
+
+import com.FindMyService.model.enums.PaymentAttemptStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * Outbox record for a payment intent request. It is committed before Stripe is
+ * called, so a crash between the call and recording its result leaves a PENDING
+ * row that the recovery relay replays with the same idempotency key.
+ */
+@Entity
+@Table(name = "payment_attempts")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentAttempt {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long paymentAttemptId;
+
+    @Column(nullable = false)
+    private Long orderId;
+
+    @Column(nullable = false)
+    private Long amountInPaise;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String idempotencyKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private PaymentAttemptStatus status;
+
+    private String stripePaymentIntentId;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private int tries = 0;
+
+    @Column(length = 512)
+    private String lastError;
+
+    @CreationTimestamp
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+}
@@ -42,6 +42,14 @@ public class Provider {
 
     private String zipCode;
 
+    @DecimalMin("-90.0")
+    @DecimalMax("90.0")
+    private Double latitude;
+
+    @DecimalMin("-180.0")
+    @DecimalMax("180.0")
+    private Double longitude;
+
     @NotBlank(message = "Password is required")
     private String password;
 
@@ -58,4 +66,10 @@ public class Provider {
     private BigDecimal avgRating;
 
     private int totalRatings;
+
+    private long ratingSum;
+
+    @Embedded
+    @Builder.Default
+    private RatingHistogram ratingHistogram = new RatingHistogram();
 }
@@ -0,0 +1,31 @@
+package com.FindMyService.model;
+
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Review count per star value, stored as stars1..stars5 on the owning row
+@Embeddable
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingHistogram {
+    private int stars1;
+    private int stars2;
+    private int stars3;
+    private int stars4;
+    private int stars5;
+
+    public Map<Integer, Integer> toMap() {
+        Map<Integer, Integer> counts = new LinkedHashMap<>();
+        counts.put(1, stars1);
+        counts.put(2, stars2);
+        counts.put(3, stars3);
+        counts.put(4, stars4);
+        counts.put(5, stars5);
+        return counts;
+    }
+}
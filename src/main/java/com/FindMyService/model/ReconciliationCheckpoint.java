@@ -0,0 +1,36 @@
+package com.FindMyService.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "reconciliation_checkpoints")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationCheckpoint {
+    @Id
+    @Column(length = 64)
+    private String jobName;
+
+    @Column(nullable = false)
+    private Long lastOrderId;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    // Instance running the pass, and until when; both null when no pass is running
+    @Column(length = 64)
+    private String leaseOwner;
+
+    private Instant leaseUntil;
+}
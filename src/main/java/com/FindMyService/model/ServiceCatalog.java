@@ -15,7 +15,15 @@ import java.time.Instant;
 
 @Entity
 @Table(name = "services",
-        uniqueConstraints = @UniqueConstraint(name = "uk_service_provider_name", columnNames = {"provider_id","service_name"}))
+        uniqueConstraints = @UniqueConstraint(name = "uk_service_provider_name", columnNames = {"provider_id","service_name"}),
+        indexes = {
+                @Index(name = "idx_services_created_at", columnList = "created_at, service_id"),
+                @Index(name = "idx_services_cost", columnList = "cost, service_id"),
+                @Index(name = "idx_services_avg_rating", columnList = "avg_rating, service_id"),
+                @Index(name = "idx_services_provider_created_at", columnList = "provider_id, created_at, service_id"),
+                @Index(name = "idx_services_provider_cost", columnList = "provider_id, cost, service_id"),
+                @Index(name = "idx_services_provider_avg_rating", columnList = "provider_id, avg_rating, service_id")
+        })
 @Data
 @Builder
 @NoArgsConstructor
@@ -44,6 +52,14 @@ public class ServiceCatalog {
     @Column(length = 120)
     private String location;
 
+    @DecimalMin("-90.0")
+    @DecimalMax("90.0")
+    private Double latitude;
+
+    @DecimalMin("-180.0")
+    @DecimalMax("180.0")
+    private Double longitude;
+
     @Enumerated(EnumType.STRING)
     @Column(length = 30)
     private Availability availability;
@@ -60,10 +76,17 @@ public class ServiceCatalog {
 
     private boolean active;
 
+    // Sort key only, maintained from ratingSum/totalRatings by SQL; reads derive the average via Ratings
     @Column(precision = 2, scale = 1)
     @DecimalMin("0.0")
     @DecimalMax("5.0")
     private BigDecimal avgRating;
 
     private int totalRatings;
+
+    private long ratingSum;
+
+    @Embedded
+    @Builder.Default
+    private RatingHistogram ratingHistogram = new RatingHistogram();
 }
@@ -0,0 +1,44 @@
+package com.FindMyService.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "stripe_webhook_events")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StripeWebhookEvent {
+    @Id
+    private String eventId;
+
+    @Column(nullable = false, length = 64)
+    private String eventType;
+
+    @Column(nullable = false)
+    private String paymentIntentId;
+
+    private Long orderId;
+
+    @Column(nullable = false)
+    private Instant receivedAt;
+
+    private Instant settledAt;
+
+    // Flushes in which a succeeded event resolved to no order
+    @Column(nullable = false)
+    @Builder.Default
+    private int matchAttempts = 0;
+
+    // Set once matchAttempts reaches the limit; the event is no longer replayed
+    private Instant unmatchedAt;
+}
@@ -0,0 +1,19 @@
+package com.FindMyService.model.dto;
+
+import lombok.*;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedbackDto {
+    private Long feedbackId;
+    private Long serviceId;
+    private Long userId;
+    private Long orderId;
+    private String comment;
+    private Integer rating;
+    private Instant createdAt;
+}
@@ -0,0 +1,18 @@
+package com.FindMyService.model.dto;
+
+import lombok.*;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedbackImportDto {
+    private Long serviceId;
+    private Long userId;
+    private Long orderId;
+    private Integer rating;
+    private String comment;
+    private Instant createdAt;
+}
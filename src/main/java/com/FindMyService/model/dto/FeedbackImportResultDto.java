@@ -0,0 +1,17 @@
+package com.FindMyService.model.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedbackImportResultDto {
+    private long imported;
+    private long rejected;
+    private List<String> errors;
+    private int servicesRecomputed;
+    private int providersRecomputed;
+}
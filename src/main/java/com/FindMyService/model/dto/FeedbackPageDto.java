@@ -0,0 +1,19 @@
+package com.FindMyService.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedbackPageDto {
+    private RatingSummaryDto summary;
+    private List<FeedbackDto> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
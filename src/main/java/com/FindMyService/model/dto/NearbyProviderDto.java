@@ -0,0 +1,25 @@
+package com.FindMyService.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Public listing: contact details stay behind the owner-checked provider endpoint
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyProviderDto {
+    private Long providerId;
+    private String providerName;
+    private String city;
+    private String state;
+    private Double latitude;
+    private Double longitude;
+    private BigDecimal avgRating;
+    private int totalRatings;
+    private double distanceKm;
+}
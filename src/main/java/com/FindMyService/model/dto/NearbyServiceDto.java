@@ -0,0 +1,15 @@
+package com.FindMyService.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyServiceDto {
+    private ServiceCatalogDto service;
+    private double distanceKm;
+}
@@ -0,0 +1,26 @@
+package com.FindMyService.model.dto;
+
+import com.FindMyService.model.enums.OrderStatus;
+import com.FindMyService.model.enums.PaymentMethod;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderDto {
+    private Long orderId;
+    private Long userId;
+    private Long providerId;
+    private OrderStatus orderStatus;
+    private BigDecimal totalCost;
+    private String transactionId;
+    private PaymentMethod paymentMethod;
+    private String stripePaymentIntentId;
+    private Instant paymentDate;
+    private Instant createdAt;
+    private Instant updatedAt;
+}
@@ -0,0 +1,29 @@
+package com.FindMyService.model.dto;
+
+import com.FindMyService.model.enums.OrderStatus;
+import com.FindMyService.model.enums.PaymentMethod;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderHistoryDto {
+    private Long orderId;
+    private Long userId;
+    private Long providerId;
+    private OrderStatus orderStatus;
+    private BigDecimal totalCost;
+    private PaymentMethod paymentMethod;
+    private Instant paymentDate;
+    private Instant createdAt;
+    private Instant updatedAt;
+    private List<OrderLineItemDto> lineItems;
+}
@@ -0,0 +1,23 @@
+package com.FindMyService.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderLineItemDto {
+    private Long lineItemId;
+    private String serviceName;
+    private BigDecimal cost;
+    private String imageUrl;
+    private Integer quantityUnits;
+    private LocalDate requestedDate;
+    private LocalDate scheduledDate;
+}
@@ -6,6 +6,7 @@ import lombok.*;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Builder
@@ -26,9 +27,12 @@ public class ProviderDto{
     private String city;
     private String state;
     private String zipCode;
+    private Double latitude;
+    private Double longitude;
     private Instant createdAt;
     private String profilePictureUrl;
     private List<String> imageUrls;
     private BigDecimal avgRating;
     private int totalRatings;
+    private Map<Integer, Integer> ratingHistogram;
 }
@@ -0,0 +1,8 @@
+package com.FindMyService.model.dto;
+
+import lombok.Data;
+
+@Data
+public class RefreshTokenRequestDto {
+    private String refreshToken;
+}
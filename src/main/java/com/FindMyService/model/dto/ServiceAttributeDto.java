@@ -0,0 +1,18 @@
+package com.FindMyService.model.dto;
+
+import lombok.*;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ServiceAttributeDto {
+    private Long attributeId;
+    private Long serviceId;
+    private String attributeName;
+    private String attributeValue;
+    private String valueType;
+    private Instant createdAt;
+}
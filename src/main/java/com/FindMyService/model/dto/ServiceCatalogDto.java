@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.Map;
 
 @Data
 @Builder
@@ -21,6 +22,8 @@ public class ServiceCatalogDto {
     private String description;
     private BigDecimal cost;
     private String location;
+    private Double latitude;
+    private Double longitude;
     private Availability availability;
     private Integer warrantyPeriodMonths;
     private String imageUrl;
@@ -29,4 +32,5 @@ public class ServiceCatalogDto {
     private Boolean active;
     private BigDecimal avgRating;
     private Integer totalRatings;
+    private Map<Integer, Integer> ratingHistogram;
 }
@@ -0,0 +1,21 @@
+package com.FindMyService.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ServiceFacetResponseDto {
+    private long total;
+    private List<ServiceCatalogDto> items;
+    private String nextCursor;
+    private boolean hasMore;
+    private Map<String, Map<String, Long>> facets;
+}
@@ -0,0 +1,61 @@
+package com.FindMyService.model.enums;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+public enum AttributeValueType {
+    STRING,
+    INTEGER,
+    FLOAT,
+    BOOLEAN,
+    DATE,
+    ENUM;
+
+    public static AttributeValueType fromValue(String valueType) {
+        if (valueType == null || valueType.isBlank()) {
+            return STRING;
+        }
+        try {
+            return valueOf(valueType.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported valueType: " + valueType);
+        }
+    }
+
+    public boolean isOrdered() {
+        return this == INTEGER || this == FLOAT || this == DATE;
+    }
+
+    // Comparable numeric form of an ordered value; dates become epoch days
+    public double orderKey(String value) {
+        try {
+            return switch (this) {
+                case INTEGER -> Long.parseLong(value.trim());
+                case FLOAT -> Double.parseDouble(value.trim());
+                case DATE -> LocalDate.parse(value.trim()).toEpochDay();
+                default -> throw new IllegalStateException(this + " values are not ordered");
+            };
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + name().toLowerCase(Locale.ROOT) + " value: " + value);
+        }
+    }
+
+    // Canonical text used for equality matching
+    public String normalize(String value) {
+        String trimmed = value.trim();
+        return switch (this) {
+            case BOOLEAN -> {
+                if (!trimmed.equalsIgnoreCase("true") && !trimmed.equalsIgnoreCase("false")) {
+                    throw new IllegalArgumentException("Invalid boolean value: " + value);
+                }
+                yield trimmed.toLowerCase(Locale.ROOT);
+            }
+            case INTEGER, FLOAT, DATE -> {
+                orderKey(trimmed);
+                yield trimmed;
+            }
+            default -> trimmed.toLowerCase(Locale.ROOT);
+        };
+    }
+}
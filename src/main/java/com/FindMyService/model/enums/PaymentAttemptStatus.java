@@ -0,0 +1,7 @@
+package com.FindMyService.model.enums;
+
+public enum PaymentAttemptStatus {
+    PENDING,
+    CREATED,
+    FAILED
+}
@@ -0,0 +1,29 @@
+package com.FindMyService.model.enums;
+
+public enum ServiceSortField {
+    CREATED_AT("createdAt"),
+    COST("cost"),
+    AVG_RATING("avgRating");
+
+    private final String property;
+
+    ServiceSortField(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public static ServiceSortField fromParam(String param) {
+        if (param == null || param.isBlank()) {
+            return CREATED_AT;
+        }
+        for (ServiceSortField field : values()) {
+            if (field.property.equalsIgnoreCase(param) || field.name().equalsIgnoreCase(param)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort field: " + param);
+    }
+}
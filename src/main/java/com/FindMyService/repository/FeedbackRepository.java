@@ -1,13 +1,69 @@
 package com.FindMyService.repository;
 
 import com.FindMyService.model.Feedback;
-import com.FindMyService.model.Provider;
-import com.FindMyService.model.ServiceCatalog;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
-    List<Feedback> findByServiceId(ServiceCatalog serviceId);
+    List<Feedback> findByServiceId_ServiceIdOrderByCreatedAtDescFeedbackIdDesc(Long serviceId, Limit limit);
+
+    @Query("select f from Feedback f where f.serviceId.serviceId = :serviceId "
+            + "and (f.createdAt < :createdAt or (f.createdAt = :createdAt and f.feedbackId < :feedbackId)) "
+            + "order by f.createdAt desc, f.feedbackId desc")
+    List<Feedback> findPageBefore(@Param("serviceId") Long serviceId, @Param("createdAt") Instant createdAt,
+                                  @Param("feedbackId") Long feedbackId, Limit limit);
+
+    // Locks the still-unapplied rows for the caller's transaction, skipping rows another flush holds
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select f.feedbackId from Feedback f where f.feedbackId in :ids and f.ratingApplied = false")
+    List<Long> claimUnapplied(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.FindMyService.repository.PendingRating(f.feedbackId, s.serviceId, p.providerId, f.rating) "
+            + "from Feedback f join f.serviceId s join s.providerId p "
+            + "where f.feedbackId in :ids and f.ratingApplied = false")
+    List<PendingRating> findPendingRatings(@Param("ids") Collection<Long> ids);
+
+    @Query("select f.feedbackId from Feedback f where f.ratingApplied = false and f.feedbackId > :afterId "
+            + "order by f.feedbackId")
+    List<Long> findUnappliedIds(@Param("afterId") Long afterId, Limit limit);
+
+    @Modifying
+    @Query("update Feedback f set f.ratingApplied = true where f.feedbackId in :ids and f.ratingApplied = false")
+    int markRatingsApplied(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update Feedback f set f.ratingApplied = true "
+            + "where f.ratingApplied = false and f.feedbackId <= :maxId and f.serviceId.serviceId in :serviceIds")
+    int markRatingsAppliedUpTo(@Param("maxId") Long maxId, @Param("serviceIds") Collection<Long> serviceIds);
+
+    @Modifying
+    @Query("update Feedback f set f.ratingApplied = true where f.ratingApplied = false and f.feedbackId <= :maxId "
+            + "and f.serviceId.serviceId between :fromServiceId and :toServiceId")
+    int markRatingsAppliedInRange(@Param("maxId") Long maxId, @Param("fromServiceId") Long fromServiceId,
+                                  @Param("toServiceId") Long toServiceId);
+
+    @Query("select coalesce(max(f.feedbackId), 0) from Feedback f")
+    long findMaxFeedbackId();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select e from Feedback e")
+    Stream<Feedback> streamAll();
 }
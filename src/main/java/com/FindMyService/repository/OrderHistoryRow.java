@@ -0,0 +1,12 @@
+package com.FindMyService.repository;
+
+import com.FindMyService.model.enums.OrderStatus;
+import com.FindMyService.model.enums.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record OrderHistoryRow(Long orderId, Long userId, Long providerId, OrderStatus orderStatus,
+                              BigDecimal totalCost, PaymentMethod paymentMethod, Instant paymentDate,
+                              Instant createdAt, Instant updatedAt) {
+}
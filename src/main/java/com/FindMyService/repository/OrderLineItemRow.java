@@ -0,0 +1,9 @@
+package com.FindMyService.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record OrderLineItemRow(Long orderId, Long lineItemId, String serviceName, BigDecimal cost,
+                               String imageUrl, Integer quantityUnits, LocalDate requestedDate,
+                               LocalDate scheduledDate) {
+}
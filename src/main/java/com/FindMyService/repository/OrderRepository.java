@@ -1,14 +1,130 @@
 package com.FindMyService.repository;
 
 import com.FindMyService.model.Order;
-import com.FindMyService.model.Provider;
-import com.FindMyService.model.User;
+import com.FindMyService.model.enums.OrderStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    List<Order> findByUserId(User userId);
-    List<Order> findByProviderId(Provider providerId);
+    String HISTORY_ROW = "select new com.FindMyService.repository.OrderHistoryRow(o.orderId, o.userId.userId, "
+            + "o.providerId.providerId, o.orderStatus, o.totalCost, o.paymentMethod, o.paymentDate, o.createdAt, o.updatedAt) "
+            + "from Order o ";
+
+    // Keyset pages, newest first; beforeId is Long.MAX_VALUE for the first page
+    @Query(HISTORY_ROW + "where o.userId.userId = :userId and (:status is null or o.orderStatus = :status) "
+            + "and o.orderId < :beforeId order by o.orderId desc")
+    List<OrderHistoryRow> findHistoryByUser(@Param("userId") Long userId, @Param("status") OrderStatus status,
+                                            @Param("beforeId") Long beforeId, Limit limit);
+
+    @Query(HISTORY_ROW + "where o.providerId.providerId = :providerId and (:status is null or o.orderStatus = :status) "
+            + "and o.orderId < :beforeId order by o.orderId desc")
+    List<OrderHistoryRow> findHistoryByProvider(@Param("providerId") Long providerId, @Param("status") OrderStatus status,
+                                                @Param("beforeId") Long beforeId, Limit limit);
+
+    // Line items of a whole page in one statement
+    @Query("select new com.FindMyService.repository.OrderLineItemRow(li.order.orderId, li.lineItemId, li.serviceName, "
+            + "li.cost, li.imageUrl, li.quantityUnits, li.requestedDate, li.scheduledDate) "
+            + "from LineItem li where li.order.orderId in :orderIds order by li.order.orderId desc, li.lineItemId")
+    List<OrderLineItemRow> findLineItemRows(@Param("orderIds") Collection<Long> orderIds);
+
+    // Ownership predicate: a primary-key probe that reads only provider_id, no entity is built
+    @Query("select count(o) > 0 from Order o where o.orderId = :orderId and o.providerId.providerId = :providerId")
+    boolean isOwnedByProvider(@Param("orderId") Long orderId, @Param("providerId") Long providerId);
+
+    // Fully loaded for rendering where no session is open (the payment endpoints run without one)
+    @Query("select o from Order o join fetch o.userId join fetch o.providerId left join fetch o.lineItemDTOS "
+            + "where o.orderId = :orderId")
+    Optional<Order> findDetailedById(@Param("orderId") Long orderId);
+
+    // Row lock that serialises payment initiations for one order until the caller's transaction ends;
+    // the status is read under the lock so a settlement that got in first is seen
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o.orderStatus from Order o where o.orderId = :orderId")
+    Optional<OrderStatus> lockForPayment(@Param("orderId") Long orderId);
+
+    @Transactional
+    @Modifying
+    @Query("update Order o set o.stripePaymentIntentId = :intentId, o.updatedAt = :now, "
+            + "o.reconcileChecks = 0, o.reconcileAfter = null "
+            + "where o.orderId = :orderId and o.orderStatus <> com.FindMyService.model.enums.OrderStatus.PAID")
+    int attachPaymentIntent(@Param("orderId") Long orderId, @Param("intentId") String intentId, @Param("now") Instant now);
+
+    // One statement per settlement batch; conditional so a replayed event changes nothing
+    @Transactional
+    @Modifying
+    @Query("update Order o set o.orderStatus = com.FindMyService.model.enums.OrderStatus.PAID, "
+            + "o.paymentDate = :now, o.updatedAt = :now "
+            + "where o.stripePaymentIntentId in :intentIds and o.orderStatus in "
+            + "(com.FindMyService.model.enums.OrderStatus.REQUESTED, com.FindMyService.model.enums.OrderStatus.SCHEDULED)")
+    int settlePaid(@Param("intentIds") Collection<String> intentIds, @Param("now") Instant now);
+
+    // Settles orders resolved from webhook events, whichever intent they currently hold
+    @Transactional
+    @Modifying
+    @Query("update Order o set o.orderStatus = com.FindMyService.model.enums.OrderStatus.PAID, "
+            + "o.paymentDate = :now, o.updatedAt = :now "
+            + "where o.orderId in :orderIds and o.orderStatus in "
+            + "(com.FindMyService.model.enums.OrderStatus.REQUESTED, com.FindMyService.model.enums.OrderStatus.SCHEDULED)")
+    int settlePaidOrders(@Param("orderIds") Collection<Long> orderIds, @Param("now") Instant now);
+
+    @Query("select new com.FindMyService.repository.PaymentIntentRef(o.orderId, o.stripePaymentIntentId) from Order o "
+            + "where o.stripePaymentIntentId in :intentIds")
+    List<PaymentIntentRef> findPaymentIntentRefs(@Param("intentIds") Collection<String> intentIds);
+
+    // Keyset chunks of orders holding an intent that no webhook has settled yet, attached between
+    // updatedAfter and updatedBefore and not backed off past now
+    @Query("select new com.FindMyService.repository.ReconciliationCandidate("
+            + "o.orderId, o.stripePaymentIntentId, o.reconcileChecks) from Order o "
+            + "where o.orderStatus = com.FindMyService.model.enums.OrderStatus.REQUESTED "
+            + "and o.stripePaymentIntentId is not null and o.orderId > :afterId "
+            + "and o.updatedAt < :updatedBefore and o.updatedAt > :updatedAfter "
+            + "and (o.reconcileAfter is null or o.reconcileAfter <= :now) "
+            + "order by o.orderId")
+    List<ReconciliationCandidate> findReconciliationCandidates(@Param("afterId") Long afterId,
+                                                               @Param("updatedBefore") Instant updatedBefore,
+                                                               @Param("updatedAfter") Instant updatedAfter,
+                                                               @Param("now") Instant now, Limit limit);
+
+    // Leaves updatedAt alone so the order keeps its place in the candidate age window
+    @Transactional
+    @Modifying
+    @Query("update Order o set o.reconcileChecks = o.reconcileChecks + 1, o.reconcileAfter = :after "
+            + "where o.orderId in :orderIds "
+            + "and o.orderStatus = com.FindMyService.model.enums.OrderStatus.REQUESTED")
+    int deferReconciliation(@Param("orderIds") Collection<Long> orderIds, @Param("after") Instant after);
+
+    // Detaches intents that can no longer be paid so the order can start a new payment
+    @Transactional
+    @Modifying
+    @Query("update Order o set o.stripePaymentIntentId = null, o.updatedAt = :now, "
+            + "o.reconcileChecks = 0, o.reconcileAfter = null "
+            + "where o.stripePaymentIntentId in :intentIds "
+            + "and o.orderStatus = com.FindMyService.model.enums.OrderStatus.REQUESTED")
+    int releasePaymentIntents(@Param("intentIds") Collection<String> intentIds, @Param("now") Instant now);
+
+    @Query("select o.orderId from Order o where o.orderId in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select e from Order e")
+    Stream<Order> streamAll();
 }
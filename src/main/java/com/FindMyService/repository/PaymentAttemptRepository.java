@@ -0,0 +1,59 @@
+package com.FindMyService.repository;
+
+import com.FindMyService.model.PaymentAttempt;
+import com.FindMyService.model.enums.PaymentAttemptStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PaymentAttemptRepository extends JpaRepository<PaymentAttempt, Long> {
+
+    // Latest attempt that can still be replayed under its idempotency key
+    Optional<PaymentAttempt> findFirstByOrderIdAndAmountInPaiseAndStatusInAndCreatedAtAfterOrderByPaymentAttemptIdDesc(
+            Long orderId, Long amountInPaise, Collection<PaymentAttemptStatus> statuses, Instant createdAfter);
+
+    List<PaymentAttempt> findByStatusAndUpdatedAtBeforeOrderByPaymentAttemptId(
+            PaymentAttemptStatus status, Instant updatedBefore, Limit limit);
+
+    // Every intent ever created for an order, not just the one the order currently holds
+    @Query("select new com.FindMyService.repository.PaymentIntentRef(a.orderId, a.stripePaymentIntentId) "
+            + "from PaymentAttempt a where a.stripePaymentIntentId in :intentIds")
+    List<PaymentIntentRef> findPaymentIntentRefs(@Param("intentIds") Collection<String> intentIds);
+
+    @Transactional
+    @Modifying
+    @Query("update PaymentAttempt a set a.status = com.FindMyService.model.enums.PaymentAttemptStatus.CREATED, "
+            + "a.stripePaymentIntentId = :intentId, a.tries = a.tries + 1, a.lastError = null, a.updatedAt = :now "
+            + "where a.paymentAttemptId = :id")
+    int markCreated(@Param("id") Long id, @Param("intentId") String intentId, @Param("now") Instant now);
+
+    // Stays PENDING so the relay retries it, until it has been tried too often
+    @Transactional
+    @Modifying
+    @Query("update PaymentAttempt a set a.tries = a.tries + 1, a.lastError = :error, a.updatedAt = :now, "
+            + "a.status = case when a.tries + 1 >= :maxTries "
+            + "then com.FindMyService.model.enums.PaymentAttemptStatus.FAILED else a.status end "
+            + "where a.paymentAttemptId = :id and a.status = com.FindMyService.model.enums.PaymentAttemptStatus.PENDING")
+    int recordFailure(@Param("id") Long id, @Param("error") String error, @Param("maxTries") int maxTries,
+                      @Param("now") Instant now);
+
+    // Stops initiatePayment replaying a key whose intent Stripe has since canceled
+    @Transactional
+    @Modifying
+    @Query("update PaymentAttempt a set a.status = com.FindMyService.model.enums.PaymentAttemptStatus.FAILED, "
+            + "a.lastError = :reason, a.updatedAt = :now "
+            + "where a.stripePaymentIntentId in :intentIds "
+            + "and a.status <> com.FindMyService.model.enums.PaymentAttemptStatus.FAILED")
+    int failByPaymentIntent(@Param("intentIds") Collection<String> intentIds, @Param("reason") String reason,
+                            @Param("now") Instant now);
+}
@@ -0,0 +1,4 @@
+package com.FindMyService.repository;
+
+public record PaymentIntentRef(Long orderId, String paymentIntentId) {
+}
@@ -0,0 +1,4 @@
+package com.FindMyService.repository;
+
+public record PendingRating(Long feedbackId, Long serviceId, Long providerId, Integer rating) {
+}
@@ -1,13 +1,76 @@
 package com.FindMyService.repository;
 
 import com.FindMyService.model.Provider;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProviderRepository extends JpaRepository<Provider, Long> {
+
+    // Same shape as ServiceCatalogRepository.RECOMPUTE_RATINGS
+    String RECOMPUTE_RATINGS = "update Provider p set "
+            + "p.ratingSum = (select coalesce(sum(f.rating), 0) from Feedback f join f.serviceId fs where fs.providerId = p and f.feedbackId <= :maxFeedbackId), "
+            + "p.totalRatings = (select count(f) from Feedback f join f.serviceId fs where fs.providerId = p and f.feedbackId <= :maxFeedbackId), "
+            + "p.avgRating = (select round(avg(f.rating * 1.0), 1) from Feedback f join f.serviceId fs where fs.providerId = p and f.feedbackId <= :maxFeedbackId), "
+            + "p.ratingHistogram.stars1 = (select count(f) from Feedback f join f.serviceId fs where fs.providerId = p and f.feedbackId <= :maxFeedbackId and f.rating = 1), "
+            + "p.ratingHistogram.stars2 = (select count(f) from Feedback f join f.serviceId fs where fs.providerId = p and f.feedbackId <= :maxFeedbackId and f.rating = 2), "
+            + "p.ratingHistogram.stars3 = (select count(f) from Feedback f join f.serviceId fs where fs.providerId = p and f.feedbackId <= :maxFeedbackId and f.rating = 3), "
+            + "p.ratingHistogram.stars4 = (select count(f) from Feedback f join f.serviceId fs where fs.providerId = p and f.feedbackId <= :maxFeedbackId and f.rating = 4), "
+            + "p.ratingHistogram.stars5 = (select count(f) from Feedback f join f.serviceId fs where fs.providerId = p and f.feedbackId <= :maxFeedbackId and f.rating = 5) ";
+
     Optional<Provider> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    // Same shape as ServiceCatalogRepository.addRatings
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Provider p set "
+            + "p.avgRating = round((p.ratingSum + :sum) * 1.0 / (p.totalRatings + :count), 1), "
+            + "p.ratingSum = p.ratingSum + :sum, "
+            + "p.totalRatings = p.totalRatings + :count, "
+            + "p.ratingHistogram.stars1 = p.ratingHistogram.stars1 + :stars1, "
+            + "p.ratingHistogram.stars2 = p.ratingHistogram.stars2 + :stars2, "
+            + "p.ratingHistogram.stars3 = p.ratingHistogram.stars3 + :stars3, "
+            + "p.ratingHistogram.stars4 = p.ratingHistogram.stars4 + :stars4, "
+            + "p.ratingHistogram.stars5 = p.ratingHistogram.stars5 + :stars5 "
+            + "where p.providerId = :providerId")
+    int addRatings(@Param("providerId") Long providerId, @Param("count") int count, @Param("sum") long sum,
+                   @Param("stars1") int stars1, @Param("stars2") int stars2, @Param("stars3") int stars3,
+                   @Param("stars4") int stars4, @Param("stars5") int stars5);
+
+    @Query("select coalesce(max(p.providerId), 0) from Provider p")
+    long findMaxProviderId();
+
+    @Modifying
+    @Query(RECOMPUTE_RATINGS + "where p.providerId between :fromId and :toId")
+    int recomputeRatings(@Param("fromId") Long fromId, @Param("toId") Long toId,
+                         @Param("maxFeedbackId") Long maxFeedbackId);
+
+    @Modifying
+    @Query(RECOMPUTE_RATINGS + "where p.providerId in :ids")
+    int recomputeRatingsIn(@Param("ids") Collection<Long> providerIds,
+                           @Param("maxFeedbackId") Long maxFeedbackId);
+
+    // Compare-and-set, so a rehash never overwrites a password changed in the meantime
+    @Transactional
+    @Modifying
+    @Query("update Provider p set p.password = :newHash where p.providerId = :id and p.password = :oldHash")
+    int replacePasswordHash(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select e from Provider e")
+    Stream<Provider> streamAll();
 }
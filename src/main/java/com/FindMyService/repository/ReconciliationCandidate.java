@@ -0,0 +1,4 @@
+package com.FindMyService.repository;
+
+public record ReconciliationCandidate(Long orderId, String paymentIntentId, int checks) {
+}
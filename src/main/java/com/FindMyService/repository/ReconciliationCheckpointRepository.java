@@ -0,0 +1,44 @@
+package com.FindMyService.repository;
+
+import com.FindMyService.model.ReconciliationCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface ReconciliationCheckpointRepository extends JpaRepository<ReconciliationCheckpoint, String> {
+
+    // Plain insert rather than save(): when two instances create the row at once, one must fail
+    @Transactional
+    @Modifying
+    @Query(value = "insert into reconciliation_checkpoints (job_name, last_order_id, updated_at) "
+            + "values (:jobName, 0, :now)", nativeQuery = true)
+    int insert(@Param("jobName") String jobName, @Param("now") Instant now);
+
+    // Takes the lease if nobody holds it or the holder let it lapse; returns 1 when taken
+    @Transactional
+    @Modifying
+    @Query("update ReconciliationCheckpoint c set c.leaseOwner = :owner, c.leaseUntil = :until "
+            + "where c.jobName = :jobName and (c.leaseOwner is null or c.leaseUntil < :now)")
+    int acquireLease(@Param("jobName") String jobName, @Param("owner") String owner,
+                     @Param("now") Instant now, @Param("until") Instant until);
+
+    // Moves the checkpoint and extends the lease, only while the caller still holds it
+    @Transactional
+    @Modifying
+    @Query("update ReconciliationCheckpoint c set c.lastOrderId = :lastOrderId, c.updatedAt = :now, "
+            + "c.leaseUntil = :until where c.jobName = :jobName and c.leaseOwner = :owner")
+    int advance(@Param("jobName") String jobName, @Param("owner") String owner,
+                @Param("lastOrderId") long lastOrderId, @Param("now") Instant now, @Param("until") Instant until);
+
+    @Transactional
+    @Modifying
+    @Query("update ReconciliationCheckpoint c set c.leaseOwner = null, c.leaseUntil = null "
+            + "where c.jobName = :jobName and c.leaseOwner = :owner")
+    int releaseLease(@Param("jobName") String jobName, @Param("owner") String owner);
+}
@@ -0,0 +1,30 @@
+package com.FindMyService.repository;
+
+import com.FindMyService.model.ServiceAttribute;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface ServiceAttributeRepository extends JpaRepository<ServiceAttribute, Long> {
+    List<ServiceAttribute> findByServiceId_ServiceIdOrderByAttributeIdAsc(Long serviceId);
+
+    @Modifying
+    @Query("delete from ServiceAttribute a where a.serviceId.serviceId = :serviceId")
+    int deleteAllOfService(@Param("serviceId") Long serviceId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select e from ServiceAttribute e")
+    Stream<ServiceAttribute> streamAll();
+}
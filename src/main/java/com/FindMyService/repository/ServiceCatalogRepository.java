@@ -1,11 +1,84 @@
 package com.FindMyService.repository;
 
 import com.FindMyService.model.ServiceCatalog;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ServiceCatalogRepository extends JpaRepository<ServiceCatalog, Long> {
+public interface ServiceCatalogRepository extends JpaRepository<ServiceCatalog, Long>,
+        JpaSpecificationExecutor<ServiceCatalog> {
+
+    // Recomputes every rating column from feedbacks up to a watermark in one statement
+    String RECOMPUTE_RATINGS = "update ServiceCatalog s set "
+            + "s.ratingSum = (select coalesce(sum(f.rating), 0) from Feedback f where f.serviceId = s and f.feedbackId <= :maxFeedbackId), "
+            + "s.totalRatings = (select count(f) from Feedback f where f.serviceId = s and f.feedbackId <= :maxFeedbackId), "
+            + "s.avgRating = (select round(avg(f.rating * 1.0), 1) from Feedback f where f.serviceId = s and f.feedbackId <= :maxFeedbackId), "
+            + "s.ratingHistogram.stars1 = (select count(f) from Feedback f where f.serviceId = s and f.feedbackId <= :maxFeedbackId and f.rating = 1), "
+            + "s.ratingHistogram.stars2 = (select count(f) from Feedback f where f.serviceId = s and f.feedbackId <= :maxFeedbackId and f.rating = 2), "
+            + "s.ratingHistogram.stars3 = (select count(f) from Feedback f where f.serviceId = s and f.feedbackId <= :maxFeedbackId and f.rating = 3), "
+            + "s.ratingHistogram.stars4 = (select count(f) from Feedback f where f.serviceId = s and f.feedbackId <= :maxFeedbackId and f.rating = 4), "
+            + "s.ratingHistogram.stars5 = (select count(f) from Feedback f where f.serviceId = s and f.feedbackId <= :maxFeedbackId and f.rating = 5), "
+            + "s.updatedAt = :now ";
+
     List<ServiceCatalog> findByProviderId_ProviderId(Long providerId);
+
+    // Ownership predicate: a primary-key probe that reads only provider_id, no entity is built
+    @Query("select count(s) > 0 from ServiceCatalog s where s.serviceId = :serviceId and s.providerId.providerId = :providerId")
+    boolean isOwnedBy(@Param("serviceId") Long serviceId, @Param("providerId") Long providerId);
+
+    @EntityGraph(attributePaths = "providerId")
+    Optional<ServiceCatalog> findWithProviderByServiceId(Long serviceId);
+
+    @EntityGraph(attributePaths = "providerId")
+    List<ServiceCatalog> findWithProviderByServiceIdIn(Collection<Long> serviceIds);
+
+    // Applies a coalesced batch of ratings; avgRating is assigned first because MySQL applies SET clauses
+    // left to right while standard SQL reads old values throughout
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ServiceCatalog s set "
+            + "s.avgRating = round((s.ratingSum + :sum) * 1.0 / (s.totalRatings + :count), 1), "
+            + "s.ratingSum = s.ratingSum + :sum, "
+            + "s.totalRatings = s.totalRatings + :count, "
+            + "s.ratingHistogram.stars1 = s.ratingHistogram.stars1 + :stars1, "
+            + "s.ratingHistogram.stars2 = s.ratingHistogram.stars2 + :stars2, "
+            + "s.ratingHistogram.stars3 = s.ratingHistogram.stars3 + :stars3, "
+            + "s.ratingHistogram.stars4 = s.ratingHistogram.stars4 + :stars4, "
+            + "s.ratingHistogram.stars5 = s.ratingHistogram.stars5 + :stars5, "
+            + "s.updatedAt = :now "
+            + "where s.serviceId = :serviceId")
+    int addRatings(@Param("serviceId") Long serviceId, @Param("count") int count, @Param("sum") long sum,
+                   @Param("stars1") int stars1, @Param("stars2") int stars2, @Param("stars3") int stars3,
+                   @Param("stars4") int stars4, @Param("stars5") int stars5,
+                   @Param("now") Instant now);
+
+    @Query("select s.serviceId from ServiceCatalog s where s.serviceId in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> serviceIds);
+
+    @Query("select distinct s.providerId.providerId from ServiceCatalog s where s.serviceId in :ids")
+    List<Long> findProviderIdsOf(@Param("ids") Collection<Long> serviceIds);
+
+    @Query("select s.serviceId from ServiceCatalog s where s.providerId.providerId in :ids")
+    List<Long> findIdsByProviderIds(@Param("ids") Collection<Long> providerIds);
+
+    @Query("select coalesce(max(s.serviceId), 0) from ServiceCatalog s")
+    long findMaxServiceId();
+
+    @Modifying
+    @Query(RECOMPUTE_RATINGS + "where s.serviceId between :fromId and :toId")
+    int recomputeRatings(@Param("fromId") Long fromId, @Param("toId") Long toId,
+                         @Param("maxFeedbackId") Long maxFeedbackId, @Param("now") Instant now);
+
+    @Modifying
+    @Query(RECOMPUTE_RATINGS + "where s.serviceId in :ids")
+    int recomputeRatingsIn(@Param("ids") Collection<Long> serviceIds,
+                           @Param("maxFeedbackId") Long maxFeedbackId, @Param("now") Instant now);
 }
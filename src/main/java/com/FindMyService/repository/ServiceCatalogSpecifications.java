@@ -0,0 +1,51 @@
+package com.FindMyService.repository;
+
+import com.FindMyService.model.ServiceCatalog;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+public final class ServiceCatalogSpecifications {
+
+    private ServiceCatalogSpecifications() {}
+
+    public static Specification<ServiceCatalog> ownedBy(Long providerId) {
+        return (root, query, cb) -> providerId == null
+                ? null
+                : cb.equal(root.get("providerId").get("providerId"), providerId);
+    }
+
+    public static Specification<ServiceCatalog> idAfter(Long lastId) {
+        return (root, query, cb) -> lastId == null
+                ? null
+                : cb.greaterThan(root.get("serviceId"), lastId);
+    }
+
+    /*
+     * Seek predicate for (sortKey, serviceId) keyset pagination. Follows MySQL's
+     * null ordering: NULLs sort first ascending and last descending.
+     */
+    public static <T extends Comparable<? super T>> Specification<ServiceCatalog> after(
+            String property, Sort.Direction direction, T lastValue, Long lastId) {
+        return (root, query, cb) -> {
+            if (lastId == null) {
+                return null;
+            }
+            Path<T> key = root.get(property);
+            Path<Long> id = root.get("serviceId");
+            boolean asc = direction.isAscending();
+            Predicate idAfter = asc ? cb.greaterThan(id, lastId) : cb.lessThan(id, lastId);
+
+            if (lastValue == null) {
+                Predicate sameNullKey = cb.and(cb.isNull(key), idAfter);
+                return asc ? cb.or(sameNullKey, cb.isNotNull(key)) : sameNullKey;
+            }
+
+            Predicate keyAfter = asc ? cb.greaterThan(key, lastValue) : cb.lessThan(key, lastValue);
+            Predicate sameKey = cb.and(cb.equal(key, lastValue), idAfter);
+            Predicate seek = cb.or(keyAfter, sameKey);
+            return asc ? seek : cb.or(seek, cb.isNull(key));
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package com.FindMyService.repository;
+
+import com.FindMyService.model.StripeWebhookEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StripeWebhookEventRepository extends JpaRepository<StripeWebhookEvent, String> {
+
+    // Plain insert rather than save(): a redelivered event id must fail, not merge
+    @Transactional
+    @Modifying
+    @Query(value = "insert into stripe_webhook_events "
+            + "(event_id, event_type, payment_intent_id, order_id, received_at, match_attempts) "
+            + "values (:eventId, :eventType, :paymentIntentId, :orderId, :receivedAt, 0)", nativeQuery = true)
+    int insert(@Param("eventId") String eventId, @Param("eventType") String eventType,
+               @Param("paymentIntentId") String paymentIntentId, @Param("orderId") Long orderId,
+               @Param("receivedAt") Instant receivedAt);
+
+    // Keyset pages of events the queue never applied and has not given up on; afterEventId is "" for the first page
+    @Query("select e from StripeWebhookEvent e where e.settledAt is null and e.unmatchedAt is null "
+            + "and e.receivedAt < :receivedBefore and e.eventId > :afterEventId order by e.eventId")
+    List<StripeWebhookEvent> findUnsettled(@Param("receivedBefore") Instant receivedBefore,
+                                           @Param("afterEventId") String afterEventId, Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("update StripeWebhookEvent e set e.settledAt = :now where e.eventId in :eventIds and e.settledAt is null")
+    int markSettled(@Param("eventIds") Collection<String> eventIds, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("update StripeWebhookEvent e set e.matchAttempts = e.matchAttempts + 1 "
+            + "where e.eventId in :eventIds and e.settledAt is null and e.unmatchedAt is null")
+    int recordMatchMiss(@Param("eventIds") Collection<String> eventIds);
+
+    // Parks the events that have now missed maxAttempts times; replay skips them from then on
+    @Transactional
+    @Modifying
+    @Query("update StripeWebhookEvent e set e.unmatchedAt = :now where e.eventId in :eventIds "
+            + "and e.settledAt is null and e.unmatchedAt is null and e.matchAttempts >= :maxAttempts")
+    int markUnmatched(@Param("eventIds") Collection<String> eventIds, @Param("maxAttempts") int maxAttempts,
+                      @Param("now") Instant now);
+}
@@ -0,0 +1,221 @@
+package com.FindMyService.security;
+
+import com.FindMyService.metrics.MetricsSource;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles the public login, register and refresh endpoints before any database
+ * lookup or bcrypt work happens. Every attempt takes a token from the caller's IP
+ * bucket and from the bucket of the email in the body, if any; either running dry
+ * answers 429 with a Retry-After header.
+ *
+ * The IP is the request's remote address, so behind a reverse proxy it relies on
+ * server.forward-headers-strategy to take the client address from X-Forwarded-For;
+ * without it every client would share the proxy's bucket.
+ */
+@Component
+@Slf4j
+public class AuthRateLimitFilter extends OncePerRequestFilter implements MetricsSource {
+
+    private static final Set<String> LIMITED_PATHS = Set.of("/api/v1/auth/login", "/api/v1/auth/register", "/api/v1/auth/refresh");
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final RateLimiter byIp;
+    private final RateLimiter byEmail;
+
+    public AuthRateLimitFilter(ObjectMapper objectMapper,
+                               @Value("${security.rate-limit.enabled:true}") boolean enabled,
+                               @Value("${security.rate-limit.ip.capacity:20}") int ipCapacity,
+                               @Value("${security.rate-limit.ip.per-minute:20}") int ipPerMinute,
+                               @Value("${security.rate-limit.email.capacity:5}") int emailCapacity,
+                               @Value("${security.rate-limit.email.per-minute:5}") int emailPerMinute,
+                               @Value("${security.rate-limit.stripes:16}") int stripes,
+                               @Value("${security.rate-limit.max-entries:100000}") int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        long now = System.nanoTime();
+        this.byIp = new RateLimiter(ipCapacity, ipPerMinute, stripes, maxEntries, now);
+        this.byEmail = new RateLimiter(emailCapacity, emailPerMinute, stripes, maxEntries, now);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || !"POST".equals(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !LIMITED_PATHS.contains(path);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        long now = System.nanoTime();
+        long waitNanos = byIp.tryAcquire(request.getRemoteAddr(), now);
+        if (waitNanos > 0) {
+            log.warn("Rate limited {} by client address", request.getRequestURI());
+            reject(response, waitNanos);
+            return;
+        }
+
+        byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+        if (body.length > MAX_BODY_BYTES) {
+            response.setStatus(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            response.setContentType("application/json");
+            response.getWriter().write("{\"error\": \"Payload Too Large\", \"message\": \"Request body is too large.\"}");
+            return;
+        }
+
+        String email = extractEmail(body);
+        if (email != null) {
+            waitNanos = byEmail.tryAcquire(email, now);
+            if (waitNanos > 0) {
+                log.warn("Rate limited {} by account", request.getRequestURI());
+                reject(response, waitNanos);
+                return;
+            }
+        }
+
+        filterChain.doFilter(new CachedBodyRequest(request, body), response);
+    }
+
+    private String extractEmail(byte[] body) {
+        try {
+            JsonNode email = objectMapper.readTree(body).path("email");
+            if (!email.isTextual() || email.asText().isBlank()) {
+                return null;
+            }
+            return email.asText().trim().toLowerCase(Locale.ROOT);
+        } catch (IOException e) {
+            // Malformed bodies are left for the controller to reject
+            return null;
+        }
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfter = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\": \"Too Many Requests\", \"message\": \"Too many attempts. Please try again later.\"}");
+    }
+
+    @Override
+    public String metricsName() {
+        return "authRateLimiter";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("ip", limiterMetrics(byIp));
+        metrics.put("email", limiterMetrics(byEmail));
+        return metrics;
+    }
+
+    private static Map<String, Object> limiterMetrics(RateLimiter limiter) {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("allowed", limiter.allowed());
+        metrics.put("rejected", limiter.rejected());
+        metrics.put("tracked", limiter.size());
+        metrics.put("evicted", limiter.evicted());
+        return metrics;
+    }
+
+    // The body has already been read to find the email; replay it for the controller
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // Everything is already in memory, so the listener can be told at once
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
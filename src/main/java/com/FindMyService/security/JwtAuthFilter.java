@@ -1,40 +1,32 @@
 package com.FindMyService.security;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import javax.crypto.SecretKey;
-import javax.crypto.spec.SecretKeySpec;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 
 @Component
 @Slf4j
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtTokenUtil jwtUtil;
-    private final SecretKey secretKey;
+    private final TokenDenylist denylist;
+    private final WebAuthenticationDetailsSource detailsSource = new WebAuthenticationDetailsSource();
 
-    public JwtAuthFilter(JwtTokenUtil jwtUtil,
-                        @Value("${jwt.secret}") String secret) {
+    public JwtAuthFilter(JwtTokenUtil jwtUtil, TokenDenylist denylist) {
         this.jwtUtil = jwtUtil;
-        this.secretKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.denylist = denylist;
     }
 
     @Override
@@ -45,83 +37,38 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
 
         String authHeader = request.getHeader("Authorization");
-        String email = null;
-        String jwt = null;
-
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            jwt = authHeader.substring(7);
-
-            try {
-                // Try to extract email - this will fail if token is expired
-                email = jwtUtil.extractEmail(jwt).orElse(null);
-                log.debug("Authorization header present, extracted email: {}", email);
-            } catch (Exception e) {
-                String masked = jwt.length() > 8 ? jwt.substring(0, 4) + "..." + jwt.substring(jwt.length() - 4) : "****";
-                log.warn("Failed to extract email from token: {} - {}", masked, e.getMessage());
-                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                response.setContentType("application/json");
-                response.getWriter().write("{\"error\": \"Unauthorized\", \"message\": \"JWT token is expired or invalid. Please login again.\"}");
-                return;
-            }
-
-            if (email == null) {
-                String masked = jwt.length() > 8 ? jwt.substring(0, 4) + "..." + jwt.substring(jwt.length() - 4) : "****";
-                log.warn("Bearer token present but email extraction failed. token(needle)={} ", masked);
-                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                response.setContentType("application/json");
-                response.getWriter().write("{\"error\": \"Unauthorized\", \"message\": \"JWT token is expired or invalid. Please login again.\"}");
-                return;
-            }
-        } else{
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             log.debug("No Authorization header or header does not start with 'Bearer '");
+            filterChain.doFilter(request, response);
+            return;
         }
 
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-
-            try {
-                Claims claims = Jwts.parserBuilder()
-                        .setSigningKey(secretKey)
-                        .build()
-                        .parseClaimsJws(jwt)
-                        .getBody();
-
-                String role = claims.get("role", String.class);
-
-                if (role == null) {
-                    log.warn("JWT token for {} does not contain role claim", email);
-                    filterChain.doFilter(request, response);
-                    return;
-                }
-
-                UserDetails userDetails = User.builder()
-                        .username(email)
-                        .password("") // Not needed for JWT auth
-                        .authorities(Collections.singletonList(new SimpleGrantedAuthority(role)))
-                        .build();
-
-                boolean valid = jwtUtil.validateToken(jwt, email);
-                log.debug("Token validation for user '{}' returned: {}", email, valid);
-
-                if (valid) {
-                    UsernamePasswordAuthenticationToken authToken =
-                            new UsernamePasswordAuthenticationToken(
-                                    userDetails, null, userDetails.getAuthorities()
-                            );
-                    log.debug("Authentication set for user: {} with authorities: {}", email, userDetails.getAuthorities());
-                    authToken.setDetails(
-                            new WebAuthenticationDetailsSource().buildDetails(request)
-                    );
+        // Parsed and verified once; the principal carries everything later checks need
+        String jwt = authHeader.substring(7);
+        Optional<JwtPrincipal> principal = jwtUtil.authenticate(jwt)
+                .filter(p -> !denylist.isRevoked(p.tokenId()));
+        if (principal.isEmpty()) {
+            String masked = jwt.length() > 8 ? jwt.substring(0, 4) + "..." + jwt.substring(jwt.length() - 4) : "****";
+            log.warn("Bearer token rejected: {}", masked);
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            response.setContentType("application/json");
+            response.getWriter().write("{\"error\": \"Unauthorized\", \"message\": \"JWT token is expired, revoked or invalid. Please login again.\"}");
+            return;
+        }
 
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                    log.debug("Authentication set for user: {}", email);
-                }
-            } catch (Exception ex) {
-                log.warn("Failed to parse JWT for {}: {}", email, ex.getMessage());
-                filterChain.doFilter(request, response);
-                return;
+        JwtPrincipal user = principal.get();
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            if (user.role() == null) {
+                log.warn("JWT token for {} does not contain a valid role claim", user.email());
+            } else {
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        user, null, List.of(new SimpleGrantedAuthority(user.role().name())));
+                authToken.setDetails(detailsSource.buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
+                log.debug("Authentication set for user: {} with role: {}", user.email(), user.role());
             }
         }
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+}
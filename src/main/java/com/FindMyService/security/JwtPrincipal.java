@@ -0,0 +1,18 @@
+package com.FindMyService.security;
+
+import com.FindMyService.model.enums.Role;
+
+import java.security.Principal;
+import java.time.Instant;
+
+/**
+ * Identity taken from a verified token; role is null when the claim is missing or unknown.
+ * tokenId is the jti claim and is null only for tokens issued before revocation existed.
+ */
+public record JwtPrincipal(Long userId, String email, Role role, String tokenId, Instant expiresAt) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -1,9 +1,13 @@
 package com.FindMyService.security;
 
 import com.FindMyService.model.enums.Role;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.slf4j.Logger;
@@ -13,84 +17,160 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Predicate;
 
 @Component
 public class JwtTokenUtil {
 
     private static final Logger log = LoggerFactory.getLogger(JwtTokenUtil.class);
 
+    private static final String TYPE_CLAIM = "typ";
+    private static final String ACCESS = "access";
+    private static final String REFRESH = "refresh";
+
     private final SecretKey secretKey;
     private final long expirationMs;
+    private final long refreshExpirationMs;
+    private final JwtParser parser;
+    // Keyed by a SHA-256 digest so raw bearer tokens are never kept in memory
+    private final Cache<String, VerifiedToken> verified;
+
+    private record VerifiedToken(JwtPrincipal principal, long expiresAtMillis) {}
 
     public JwtTokenUtil(
             @Value("${jwt.secret}") String secret,
-            @Value("${jwt.expiration-ms:36000000}") long expirationMs
+            @Value("${jwt.expiration-ms:900000}") long expirationMs,
+            @Value("${jwt.refresh-expiration-ms:1209600000}") long refreshExpirationMs,
+            @Value("${jwt.cache.max-size:10000}") long cacheMaxSize
     ) {
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.expirationMs = expirationMs;
+        this.refreshExpirationMs = refreshExpirationMs;
+        this.parser = Jwts.parserBuilder().setSigningKey(secretKey).build();
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(Expiry.<String, VerifiedToken>creating((key, token) -> Duration.ofMillis(
+                        Math.max(0, token.expiresAtMillis() - System.currentTimeMillis()))))
+                .build();
     }
 
     public String generateToken(String userId, String email, Role role) {
+        return build(userId, email, role, ACCESS, expirationMs);
+    }
+
+    // Long-lived token that is only accepted by the refresh endpoint, never as a bearer token
+    public String generateRefreshToken(String userId, String email, Role role) {
+        return build(userId, email, role, REFRESH, refreshExpirationMs);
+    }
+
+    public long getExpirationMs() {
+        return expirationMs;
+    }
+
+    private String build(String userId, String email, Role role, String type, long ttlMs) {
         Date now = new Date();
-        Date exp = new Date(now.getTime() + expirationMs);
+        Date exp = new Date(now.getTime() + ttlMs);
 
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(email)
                 .claim("userId", userId)
                 .claim("role", role.name())
+                .claim(TYPE_CLAIM, type)
                 .setIssuedAt(now)
                 .setExpiration(exp)
                 .signWith(secretKey)
                 .compact();
     }
 
-    public Optional<String> extractEmail(String token) {
-        return parseClaims(token)
-                .map(Claims::getSubject); // Subject == email
+    /**
+     * Verifies the token and returns who it identifies. The signature is checked
+     * at most once per token; later calls are served from the cache until the
+     * token's own expiry.
+     */
+    public Optional<JwtPrincipal> authenticate(String token) {
+        String key = digest(token);
+        VerifiedToken cached = verified.getIfPresent(key);
+        if (cached != null) {
+            if (cached.expiresAtMillis() > System.currentTimeMillis()) {
+                return Optional.of(cached.principal());
+            }
+            verified.invalidate(key);
+            return Optional.empty();
+        }
+
+        // Tokens issued before the type claim existed are access tokens
+        Optional<JwtPrincipal> principal = verify(token, type -> type == null || ACCESS.equals(type));
+        principal.ifPresent(p -> verified.put(key, new VerifiedToken(p, p.expiresAt().toEpochMilli())));
+        return principal;
     }
 
-    public boolean validateToken(String token, String expectedEmail) {
-        return parseClaims(token)
-                .map(claims -> {
-                    String email = claims.getSubject();
-                    if (email == null) return false;
+    // Not cached: refresh tokens are presented once and then revoked
+    public Optional<JwtPrincipal> authenticateRefreshToken(String token) {
+        return verify(token, REFRESH::equals);
+    }
 
-                    Date exp = claims.getExpiration();
-                    return exp.after(new Date()) && email.equals(expectedEmail);
-                })
-                .orElse(false);
+    private Optional<JwtPrincipal> verify(String token, Predicate<String> acceptType) {
+        Optional<Claims> claims = parseClaims(token);
+        if (claims.isEmpty() || claims.get().getSubject() == null || claims.get().getExpiration() == null) {
+            return Optional.empty();
+        }
+        if (!acceptType.test(claims.get().get(TYPE_CLAIM, String.class))) {
+            log.warn("JWT of type {} used where it is not accepted", claims.get().get(TYPE_CLAIM, String.class));
+            return Optional.empty();
+        }
+
+        return Optional.of(new JwtPrincipal(
+                parseUserId(claims.get().get("userId", String.class)),
+                claims.get().getSubject(),
+                parseRole(claims.get().get("role", String.class)),
+                claims.get().getId(),
+                claims.get().getExpiration().toInstant()));
     }
 
     private Optional<Claims> parseClaims(String token) {
         try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(secretKey)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-
-            return Optional.of(claims);
+            return Optional.of(parser.parseClaimsJws(token).getBody());
 
         } catch (ExpiredJwtException e) {
             log.warn("JWT expired: {}", e.getMessage());
             return Optional.empty();
 
-        } catch (JwtException e) {
+        } catch (JwtException | IllegalArgumentException e) {
             log.warn("Invalid JWT: {}", e.getMessage());
             return Optional.empty();
         }
     }
 
-    public Optional<String> extractUserId(String token) {
-        return parseClaims(token)
-                .map(claims -> claims.get("userId", String.class));
+    private static Long parseUserId(String userId) {
+        try {
+            return userId != null ? Long.valueOf(userId) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 
-    public Optional<String> extractRole(String token) {
-        return parseClaims(token)
-                .map(claims -> claims.get("role", String.class));
+    private static Role parseRole(String role) {
+        try {
+            return role != null ? Role.valueOf(role) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
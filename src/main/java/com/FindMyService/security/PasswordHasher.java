@@ -0,0 +1,205 @@
+package com.FindMyService.security;
+
+import com.FindMyService.metrics.MetricsSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt hashing and verification on a small dedicated pool so a burst of
+ * logins cannot occupy every request thread. The queue is bounded; once it is
+ * full, work is refused immediately with {@link PasswordHashingRejectedException}
+ * and callers answer 503.
+ *
+ * The cost factor is calibrated at startup to the largest value whose hash time
+ * stays within {@code security.password.target-ms}, unless
+ * {@code security.password.cost} pins it. Neither goes below
+ * {@code security.password.min-cost}, so a slow host cannot weaken new hashes.
+ * Stored hashes below the current cost are upgraded on login; the write-back runs
+ * on its own thread so database time never holds a hashing thread.
+ */
+@Component
+@Slf4j
+public class PasswordHasher implements MetricsSource {
+
+    static final int MAX_COST = 16;
+
+    private final ThreadPoolExecutor pool;
+    private final ThreadPoolExecutor rehashWriter;
+    private final int queueCapacity;
+    private final int cost;
+    private final long calibratedMs;
+    private final BCryptPasswordEncoder encoder;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong rehashed = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+
+    public PasswordHasher(@Value("${security.password.threads:0}") int threads,
+                          @Value("${security.password.queue-capacity:64}") int queueCapacity,
+                          @Value("${security.password.cost:0}") int cost,
+                          @Value("${security.password.min-cost:10}") int minCost,
+                          @Value("${security.password.target-ms:250}") long targetMs) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        // Rehashes are optional; when the writer falls behind they are dropped and redone on a later login
+        this.rehashWriter = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-rehash");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        int floor = Math.max(4, Math.min(MAX_COST, minCost));
+        if (cost > 0) {
+            this.cost = Math.max(floor, Math.min(31, cost));
+        } else {
+            this.cost = calibrate(targetMs, floor);
+        }
+        this.calibratedMs = time(this.cost);
+        this.encoder = new BCryptPasswordEncoder(this.cost);
+        log.info("Password hashing uses bcrypt cost {} (~{} ms per hash) on {} threads",
+                this.cost, calibratedMs, poolSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+        rehashWriter.shutdown();
+    }
+
+    public CompletableFuture<String> hash(String rawPassword) {
+        return submit(() -> encoder.encode(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(() -> encodedPassword != null && encoder.matches(rawPassword, encodedPassword));
+    }
+
+    // For callers that need the hash before continuing; still bounded by the pool
+    public String hashNow(String rawPassword) {
+        try {
+            return hash(rawPassword).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    // True when a stored bcrypt hash was made with a lower cost than the current one
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$'
+                || encodedPassword.charAt(3) != '$' || encodedPassword.charAt(6) != '$') {
+            return false;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6)) < cost;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Hashes the password at the current cost on the hashing pool and hands the new
+     * hash to {@code save} on the rehash writer thread.
+     */
+    public CompletableFuture<Void> rehash(String rawPassword, Consumer<String> save) {
+        return hash(rawPassword)
+                .thenAcceptAsync(save, rehashWriter)
+                .thenRun(rehashed::incrementAndGet);
+    }
+
+    public int cost() {
+        return cost;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> work) {
+        try {
+            CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> {
+                long started = System.nanoTime();
+                try {
+                    return work.get();
+                } finally {
+                    busyNanos.addAndGet(System.nanoTime() - started);
+                    completed.incrementAndGet();
+                }
+            }, pool);
+            submitted.incrementAndGet();
+            return future;
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new PasswordHashingRejectedException();
+        }
+    }
+
+    // Each cost step doubles the work, so one measurement at the minimum cost is enough to extrapolate
+    static int calibrate(long targetMs, int minCost) {
+        time(4);
+        long baseMs = Math.max(1, time(minCost));
+        int chosen = minCost;
+        long estimate = baseMs;
+        while (chosen < MAX_COST && estimate * 2 <= targetMs) {
+            chosen++;
+            estimate *= 2;
+        }
+        return chosen;
+    }
+
+    private static long time(int cost) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(cost);
+        long started = System.nanoTime();
+        probe.encode("calibration-probe");
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+
+    @Override
+    public String metricsName() {
+        return "passwordHasher";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        long done = completed.get();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("cost", cost);
+        metrics.put("calibratedMs", calibratedMs);
+        metrics.put("threads", pool.getMaximumPoolSize());
+        metrics.put("active", pool.getActiveCount());
+        metrics.put("queued", pool.getQueue().size());
+        metrics.put("queueCapacity", queueCapacity);
+        metrics.put("submitted", submitted.get());
+        metrics.put("completed", done);
+        metrics.put("rejected", rejected.get());
+        metrics.put("rehashed", rehashed.get());
+        metrics.put("rehashQueued", rehashWriter.getQueue().size());
+        metrics.put("avgMs", done == 0 ? 0.0 : TimeUnit.NANOSECONDS.toMicros(busyNanos.get() / done) / 1000.0);
+        return metrics;
+    }
+}
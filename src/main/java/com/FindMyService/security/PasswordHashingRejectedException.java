@@ -0,0 +1,9 @@
+package com.FindMyService.security;
+
+// Thrown when the password hashing pool is saturated; callers answer 503
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException() {
+        super("Too many password operations in progress, please retry shortly");
+    }
+}
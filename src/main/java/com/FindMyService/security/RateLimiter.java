@@ -0,0 +1,135 @@
+package com.FindMyService.security;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token buckets keyed by an arbitrary string.
+ *
+ * Each bucket is a single {@link AtomicLong} holding the time at which it will be
+ * full again (the virtual-scheduling form of a token bucket): taking a token pushes
+ * that time forward by one refill interval, and the request is refused when it would
+ * land more than {@code capacity} intervals in the future. One CAS per attempt, no
+ * locks, no background thread.
+ *
+ * Keys are spread over independent maps so eviction only ever walks a fraction of
+ * them. A bucket whose full-again time has passed is indistinguishable from a fresh
+ * one and is dropped by the sweep; sweeps run inline, one stripe at a time, at most
+ * once per interval or whenever a stripe grows past its share of {@code maxEntries}.
+ */
+public class RateLimiter {
+
+    private final long capacity;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int maxEntriesPerStripe;
+    private final long sweepEveryNanos;
+    private final ConcurrentHashMap<String, AtomicLong>[] stripes;
+
+    private final AtomicLong nextSweepAt;
+    private final AtomicInteger sweepCursor = new AtomicInteger();
+    private final AtomicLong allowed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    public RateLimiter(int capacity, int refillPerMinute, int stripes, int maxEntries, long nowNanos) {
+        this.capacity = Math.max(1, capacity);
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, refillPerMinute);
+        this.burstNanos = this.intervalNanos * this.capacity;
+        int stripeCount = Integer.highestOneBit(Math.max(1, stripes));
+        this.stripes = new ConcurrentHashMap[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new ConcurrentHashMap<>();
+        }
+        this.maxEntriesPerStripe = Math.max(1, maxEntries / stripeCount);
+        this.sweepEveryNanos = Math.max(TimeUnit.SECONDS.toNanos(1), burstNanos / stripeCount);
+        this.nextSweepAt = new AtomicLong(nowNanos + sweepEveryNanos);
+    }
+
+    // Returns 0 when a token was taken, otherwise the nanoseconds until one is available
+    public long tryAcquire(String key, long nowNanos) {
+        ConcurrentHashMap<String, AtomicLong> stripe = stripeFor(key);
+        AtomicLong fullAt = stripe.get(key);
+        if (fullAt == null) {
+            fullAt = stripe.computeIfAbsent(key, k -> new AtomicLong(nowNanos));
+        }
+
+        long waitNanos;
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            if (next - nowNanos > burstNanos) {
+                waitNanos = next - nowNanos - burstNanos;
+                break;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                waitNanos = 0;
+                break;
+            }
+        }
+
+        if (waitNanos == 0) {
+            allowed.incrementAndGet();
+        } else {
+            rejected.incrementAndGet();
+        }
+        maybeSweep(stripe, nowNanos);
+        return waitNanos;
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    public long allowed() {
+        return allowed.get();
+    }
+
+    public long rejected() {
+        return rejected.get();
+    }
+
+    public long evicted() {
+        return evicted.get();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<String, AtomicLong> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private ConcurrentHashMap<String, AtomicLong> stripeFor(String key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    private void maybeSweep(ConcurrentHashMap<String, AtomicLong> touched, long nowNanos) {
+        if (touched.size() > maxEntriesPerStripe) {
+            sweep(touched, nowNanos);
+        }
+        long due = nextSweepAt.get();
+        if (nowNanos - due >= 0 && nextSweepAt.compareAndSet(due, nowNanos + sweepEveryNanos)) {
+            sweep(stripes[sweepCursor.getAndIncrement() & (stripes.length - 1)], nowNanos);
+        }
+    }
+
+    private void sweep(ConcurrentHashMap<String, AtomicLong> stripe, long nowNanos) {
+        Iterator<Map.Entry<String, AtomicLong>> it = stripe.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, AtomicLong> entry = it.next();
+            // An acquire racing with the removal may still take a token from the dropped
+            // bucket; that bucket was full, so at worst one extra token is handed out
+            if (entry.getValue().get() - nowNanos <= 0 && stripe.remove(entry.getKey(), entry.getValue())) {
+                evicted.incrementAndGet();
+            }
+        }
+    }
+}
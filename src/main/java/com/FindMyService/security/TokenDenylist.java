@@ -0,0 +1,174 @@
+package com.FindMyService.security;
+
+import com.FindMyService.metrics.MetricsSource;
+import com.FindMyService.model.RevokedToken;
+import com.FindMyService.repository.RevokedTokenRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory set of revoked token ids, consulted on every authenticated request.
+ *
+ * A Bloom filter answers "definitely not revoked" for almost every token without
+ * touching the exact map; only filter hits fall through to it. Entries carry the
+ * token's own expiry and disappear once it passes, at which point the filter is
+ * rebuilt from what is left.
+ *
+ * revoked_tokens is the source of truth: it is loaded at startup and polled for
+ * revocations made on other nodes, so no request ever waits on the database.
+ */
+@Component
+@Slf4j
+public class TokenDenylist implements MetricsSource {
+
+    // Rows are polled with some overlap so clock skew between nodes cannot drop one
+    private static final long POLL_OVERLAP_MS = 5_000;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+    private final long refreshIntervalMs;
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    private volatile int filterCapacity;
+    private volatile Instant lastPoll = Instant.EPOCH;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "token-denylist");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder checks = new LongAdder();
+    private final AtomicLong filterHits = new AtomicLong();
+    private final AtomicLong denied = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    public TokenDenylist(RevokedTokenRepository revokedTokenRepository,
+                         @Value("${jwt.denylist.expected-entries:100000}") int expectedEntries,
+                         @Value("${jwt.denylist.false-positive-rate:0.01}") double falsePositiveRate,
+                         @Value("${jwt.denylist.refresh-interval-ms:30000}") long refreshIntervalMs) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedEntries = Math.max(1, expectedEntries);
+        this.falsePositiveRate = falsePositiveRate;
+        this.refreshIntervalMs = Math.max(1, refreshIntervalMs);
+        this.filter = new BloomFilter(this.expectedEntries, falsePositiveRate);
+        this.filterCapacity = this.expectedEntries;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Instant now = Instant.now();
+        List<RevokedToken> live = revokedTokenRepository.findByExpiresAtAfter(now);
+        live.forEach(token -> remember(token.getJti(), token.getExpiresAt().toEpochMilli()));
+        lastPoll = now;
+        log.info("Loaded {} revoked tokens", live.size());
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdown();
+    }
+
+    public boolean isRevoked(String tokenId) {
+        checks.increment();
+        if (tokenId == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+        filterHits.incrementAndGet();
+        Long expiresAt = revoked.get(tokenId);
+        if (expiresAt != null && expiresAt > System.currentTimeMillis()) {
+            denied.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Persists and applies a revocation. Returns false when the token was already
+     * revoked, which lets refresh-token rotation detect a second use of the same token.
+     */
+    public boolean revoke(String tokenId, Instant expiresAt) {
+        if (tokenId == null || !expiresAt.isAfter(Instant.now())) {
+            return false;
+        }
+        try {
+            revokedTokenRepository.insert(tokenId, expiresAt, Instant.now());
+        } catch (DataIntegrityViolationException e) {
+            remember(tokenId, expiresAt.toEpochMilli());
+            return false;
+        }
+        remember(tokenId, expiresAt.toEpochMilli());
+        return true;
+    }
+
+    // Guarded with rebuild() so an entry can never land in a filter that is being replaced
+    private synchronized void remember(String tokenId, long expiresAtMillis) {
+        revoked.put(tokenId, expiresAtMillis);
+        filter.add(tokenId);
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException ex) {
+            log.warn("Token denylist refresh failed: {}", ex.getMessage());
+        }
+    }
+
+    void refresh() {
+        Instant now = Instant.now();
+        revokedTokenRepository.findByRevokedAtGreaterThanEqualAndExpiresAtAfter(lastPoll.minusMillis(POLL_OVERLAP_MS), now)
+                .forEach(token -> remember(token.getJti(), token.getExpiresAt().toEpochMilli()));
+        lastPoll = now;
+
+        // Expired entries cannot be taken out of a Bloom filter, and an overfull one loses precision
+        boolean expired = revoked.values().removeIf(expiresAt -> expiresAt <= now.toEpochMilli());
+        if (expired || revoked.size() > filterCapacity) {
+            rebuild();
+        }
+        revokedTokenRepository.deleteExpired(now);
+    }
+
+    private synchronized void rebuild() {
+        int capacity = Math.max(expectedEntries, revoked.size() * 2);
+        BloomFilter fresh = new BloomFilter(capacity, falsePositiveRate);
+        revoked.keySet().forEach(fresh::add);
+        filter = fresh;
+        filterCapacity = capacity;
+        rebuilds.incrementAndGet();
+    }
+
+    @Override
+    public String metricsName() {
+        return "tokenDenylist";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("revoked", revoked.size());
+        metrics.put("checks", checks.sum());
+        metrics.put("filterHits", filterHits.get());
+        metrics.put("denied", denied.get());
+        metrics.put("rebuilds", rebuilds.get());
+        return metrics;
+    }
+}
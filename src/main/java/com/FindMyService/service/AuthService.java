@@ -7,36 +7,49 @@ import com.FindMyService.model.dto.RegisterRequestDto;
 import com.FindMyService.model.enums.Role;
 import com.FindMyService.repository.ProviderRepository;
 import com.FindMyService.repository.UserRepository;
+import com.FindMyService.security.JwtPrincipal;
 import com.FindMyService.security.JwtTokenUtil;
+import com.FindMyService.security.PasswordHashingRejectedException;
+import com.FindMyService.security.PasswordHasher;
+import com.FindMyService.security.TokenDenylist;
 import com.FindMyService.utils.ResponseBuilder;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 @Service
+@Slf4j
 public class AuthService {
 
     private final UserRepository userRepository;
     private final ProviderRepository providerRepository;
     private final UserService userService;
     private final ProviderService providerService;
-    private final PasswordEncoder encoder;
+    private final PasswordHasher passwordHasher;
     private final JwtTokenUtil jwtUtil;
+    private final TokenDenylist denylist;
 
     public AuthService(UserRepository userRepository,
                        UserService userService,
                        ProviderRepository providerRepository,
                        ProviderService providerService,
-                       PasswordEncoder encoder,
-                       JwtTokenUtil jwtUtil) {
+                       PasswordHasher passwordHasher,
+                       JwtTokenUtil jwtUtil,
+                       TokenDenylist denylist) {
         this.userRepository = userRepository;
         this.userService = userService;
         this.providerRepository = providerRepository;
         this.providerService = providerService;
-        this.encoder = encoder;
+        this.passwordHasher = passwordHasher;
         this.jwtUtil = jwtUtil;
+        this.denylist = denylist;
     }
 
     public ResponseEntity<Map<String, Object>> register(RegisterRequestDto request) {
@@ -106,48 +119,157 @@ public class AuthService {
         }
     }
 
-    public ResponseEntity<Map<String, Object>> login(LoginRequestDto request) {
+    // Verification runs on the hashing pool; the request thread is released while it does
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> login(LoginRequestDto request) {
         Role role = request.getRole();
 
         if (role == null) {
-            return ResponseEntity
+            return CompletableFuture.completedFuture(ResponseEntity
                     .badRequest()
-                    .body(ResponseBuilder.build(HttpStatus.BAD_REQUEST, "Role must be provided"));
+                    .body(ResponseBuilder.build(HttpStatus.BAD_REQUEST, "Role must be provided")));
         }
 
         switch (role) {
             case PROVIDER -> {
                 Provider provider = providerRepository.findByEmail(request.getEmail()).orElse(null);
-
-                if (provider == null || !encoder.matches(request.getPassword(), provider.getPassword())) {
-                    return ResponseEntity
-                            .status(HttpStatus.UNAUTHORIZED)
-                            .body(ResponseBuilder.unauthorized("Invalid email or password"));
+                if (provider == null) {
+                    return CompletableFuture.completedFuture(invalidCredentials());
                 }
-                String token = jwtUtil.generateToken(provider.getProviderId().toString(), provider.getEmail(), request.getRole());
-                return ResponseEntity.ok(Map.of("token", token, "providerId", provider.getProviderId()));
+
+                String stored = provider.getPassword();
+                return passwordHasher.matches(request.getPassword(), stored).thenApply(matches -> {
+                    if (!matches) {
+                        return invalidCredentials();
+                    }
+                    rehashIfNeeded(request.getPassword(), stored,
+                            hash -> providerRepository.replacePasswordHash(provider.getProviderId(), stored, hash));
+                    return ResponseEntity.ok(issueTokens(provider.getProviderId(), provider.getEmail(), Role.PROVIDER));
+                });
             }
             case USER, ADMIN -> {
                 User user = userRepository.findByEmail(request.getEmail()).orElse(null);
-
-                if (user == null || !encoder.matches(request.getPassword(), user.getPassword())) {
-                    return ResponseEntity
-                            .status(HttpStatus.UNAUTHORIZED)
-                            .body(ResponseBuilder.unauthorized("Invalid email or password"));
-                }
-                if (request.getRole() != user.getRole()) {
-                    return ResponseEntity
-                            .status(HttpStatus.FORBIDDEN)
-                            .body(ResponseBuilder.forbidden("Invalid role for user"));
+                if (user == null) {
+                    return CompletableFuture.completedFuture(invalidCredentials());
                 }
-                String token = jwtUtil.generateToken(user.getUserId().toString(), user.getEmail(), user.getRole());
-                return ResponseEntity.ok(Map.of("token", token, "userId", user.getUserId()));
+
+                String stored = user.getPassword();
+                return passwordHasher.matches(request.getPassword(), stored).thenApply(matches -> {
+                    if (!matches) {
+                        return invalidCredentials();
+                    }
+                    if (request.getRole() != user.getRole()) {
+                        return ResponseEntity
+                                .status(HttpStatus.FORBIDDEN)
+                                .body(ResponseBuilder.forbidden("Invalid role for user"));
+                    }
+                    rehashIfNeeded(request.getPassword(), stored,
+                            hash -> userRepository.replacePasswordHash(user.getUserId(), stored, hash));
+                    return ResponseEntity.ok(issueTokens(user.getUserId(), user.getEmail(), user.getRole()));
+                });
             }
             default -> {
-                return ResponseEntity
+                return CompletableFuture.completedFuture(ResponseEntity
                         .badRequest()
-                        .body(ResponseBuilder.build(HttpStatus.BAD_REQUEST, "Invalid role"));
+                        .body(ResponseBuilder.build(HttpStatus.BAD_REQUEST, "Invalid role")));
+            }
+        }
+    }
+
+    /**
+     * Exchanges a refresh token for a new access/refresh pair. The presented token is
+     * revoked in the same step, so each refresh token works exactly once.
+     */
+    public ResponseEntity<Map<String, Object>> refresh(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(ResponseBuilder.badRequest("Refresh token must be provided"));
+        }
+
+        JwtPrincipal principal = jwtUtil.authenticateRefreshToken(refreshToken).orElse(null);
+        if (principal == null || principal.userId() == null || principal.role() == null
+                || denylist.isRevoked(principal.tokenId())) {
+            return invalidRefreshToken();
+        }
+
+        // The account may have been deleted or its role changed since the token was issued
+        Optional<Map<String, Object>> tokens = principal.role() == Role.PROVIDER
+                ? providerRepository.findById(principal.userId())
+                        .map(provider -> issueTokens(provider.getProviderId(), provider.getEmail(), Role.PROVIDER))
+                : userRepository.findById(principal.userId())
+                        .filter(user -> user.getRole() != null)
+                        .map(user -> issueTokens(user.getUserId(), user.getEmail(), user.getRole()));
+        if (tokens.isEmpty()) {
+            return invalidRefreshToken();
+        }
+
+        // Losing this race means the token was already used; the pair just built is discarded
+        if (!denylist.revoke(principal.tokenId(), principal.expiresAt())) {
+            log.warn("Refresh token for {} presented more than once", principal.email());
+            return invalidRefreshToken();
+        }
+        return ResponseEntity.ok(tokens.get());
+    }
+
+    // Revokes the caller's access token and, when given, the refresh token issued with it
+    public ResponseEntity<Map<String, Object>> logout(JwtPrincipal caller, String refreshToken) {
+        if (caller != null) {
+            denylist.revoke(caller.tokenId(), caller.expiresAt());
+        }
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            JwtPrincipal refresh = jwtUtil.authenticateRefreshToken(refreshToken).orElse(null);
+            if (refresh == null) {
+                return invalidRefreshToken();
+            }
+            if (caller != null && (refresh.userId() == null
+                    || !Objects.equals(refresh.userId(), caller.userId()) || refresh.role() != caller.role())) {
+                return ResponseEntity
+                        .status(HttpStatus.FORBIDDEN)
+                        .body(ResponseBuilder.forbidden("Refresh token belongs to another account"));
             }
+            denylist.revoke(refresh.tokenId(), refresh.expiresAt());
+        } else if (caller == null) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(ResponseBuilder.badRequest("Nothing to revoke"));
+        }
+        return ResponseEntity.ok(ResponseBuilder.ok("Logged out"));
+    }
+
+    private Map<String, Object> issueTokens(Long id, String email, Role role) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("token", jwtUtil.generateToken(id.toString(), email, role));
+        body.put("refreshToken", jwtUtil.generateRefreshToken(id.toString(), email, role));
+        body.put("expiresIn", jwtUtil.getExpirationMs() / 1000);
+        body.put(role == Role.PROVIDER ? "providerId" : "userId", id);
+        return body;
+    }
+
+    private ResponseEntity<Map<String, Object>> invalidRefreshToken() {
+        return ResponseEntity
+                .status(HttpStatus.UNAUTHORIZED)
+                .body(ResponseBuilder.unauthorized("Invalid or expired refresh token"));
+    }
+
+    private ResponseEntity<Map<String, Object>> invalidCredentials() {
+        return ResponseEntity
+                .status(HttpStatus.UNAUTHORIZED)
+                .body(ResponseBuilder.unauthorized("Invalid email or password"));
+    }
+
+    // Brings hashes made with an older cost up to the current one, off the response path
+    private void rehashIfNeeded(String rawPassword, String stored, Consumer<String> save) {
+        if (!passwordHasher.needsRehash(stored)) {
+            return;
+        }
+        try {
+            passwordHasher.rehash(rawPassword, save)
+                    .exceptionally(ex -> {
+                        log.warn("Password rehash failed: {}", ex.getMessage());
+                        return null;
+                    });
+        } catch (PasswordHashingRejectedException e) {
+            log.debug("Hashing pool busy, rehash deferred to a later login");
         }
     }
 }
@@ -0,0 +1,351 @@
+package com.FindMyService.service;
+
+import com.FindMyService.cache.CatalogCache;
+import com.FindMyService.index.CatalogIndexer;
+import com.FindMyService.index.GeoIndex;
+import com.FindMyService.model.dto.FeedbackImportDto;
+import com.FindMyService.model.dto.FeedbackImportResultDto;
+import com.FindMyService.repository.FeedbackRepository;
+import com.FindMyService.repository.OrderRepository;
+import com.FindMyService.repository.ProviderRepository;
+import com.FindMyService.repository.ServiceCatalogRepository;
+import com.FindMyService.repository.UserRepository;
+import com.FindMyService.utils.CsvRecordReader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Imports historical feedback in bulk from CSV or NDJSON.
+ *
+ * Rows are read as a stream and handled in chunks: references are checked with
+ * one IN query per table, valid rows go in as a single JDBC batch, and invalid
+ * rows are reported without failing the import. Ratings are aggregated once at
+ * the end for every affected provider and all of its services.
+ */
+@Service
+@Slf4j
+public class FeedbackImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int IN_CLAUSE_SIZE = 1000;
+    private static final String INSERT_SQL = "insert into feedbacks "
+            + "(service_id, user_id, order_id, comment, rating, created_at, rating_applied) "
+            + "values (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final FeedbackRepository feedbackRepository;
+    private final UserRepository userRepository;
+    private final ServiceCatalogRepository serviceCatalogRepository;
+    private final ProviderRepository providerRepository;
+    private final OrderRepository orderRepository;
+    private final RatingAggregator ratingAggregator;
+    private final CatalogCache catalogCache;
+    private final CatalogIndexer catalogIndexer;
+    private final GeoIndex geoIndex;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public FeedbackImportService(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 FeedbackRepository feedbackRepository,
+                                 UserRepository userRepository,
+                                 ServiceCatalogRepository serviceCatalogRepository,
+                                 ProviderRepository providerRepository,
+                                 OrderRepository orderRepository,
+                                 RatingAggregator ratingAggregator,
+                                 CatalogCache catalogCache,
+                                 CatalogIndexer catalogIndexer,
+                                 GeoIndex geoIndex,
+                                 ObjectMapper objectMapper,
+                                 @Value("${feedback.import.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.feedbackRepository = feedbackRepository;
+        this.userRepository = userRepository;
+        this.serviceCatalogRepository = serviceCatalogRepository;
+        this.providerRepository = providerRepository;
+        this.orderRepository = orderRepository;
+        this.ratingAggregator = ratingAggregator;
+        this.catalogCache = catalogCache;
+        this.catalogIndexer = catalogIndexer;
+        this.geoIndex = geoIndex;
+        this.objectMapper = objectMapper;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public FeedbackImportResultDto importCsv(InputStream body) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(
+                new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)));
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV header row is required");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("serviceid", "userid", "rating")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header must include serviceId, userId and rating");
+            }
+        }
+
+        Batch batch = new Batch();
+        try {
+            long line = csv.line();
+            while (true) {
+                List<String> record;
+                try {
+                    record = csv.next();
+                } catch (IllegalArgumentException ex) {
+                    // An unterminated quote swallows the rest of the input, so the import ends here
+                    batch.reject(line, "Unterminated quoted field");
+                    break;
+                }
+                if (record == null) {
+                    break;
+                }
+                if (!(record.size() == 1 && record.get(0).isBlank())) {
+                    try {
+                        batch.add(line, fromCsv(record, columns));
+                    } catch (IllegalArgumentException ex) {
+                        batch.reject(line, ex.getMessage());
+                    }
+                }
+                line = csv.line();
+            }
+            batch.flush();
+        } finally {
+            batch.recompute();
+        }
+        return batch.result();
+    }
+
+    public FeedbackImportResultDto importNdjson(InputStream body) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        Batch batch = new Batch();
+        try {
+            long line = 0;
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    batch.add(line, objectMapper.readValue(text, FeedbackImportDto.class));
+                } catch (JsonProcessingException ex) {
+                    batch.reject(line, "Malformed JSON");
+                }
+            }
+            batch.flush();
+        } finally {
+            batch.recompute();
+        }
+        return batch.result();
+    }
+
+    private FeedbackImportDto fromCsv(List<String> record, Map<String, Integer> columns) {
+        Function<String, String> field = name -> {
+            Integer index = columns.get(name);
+            if (index == null || index >= record.size() || record.get(index).isBlank()) {
+                return null;
+            }
+            return record.get(index).trim();
+        };
+        try {
+            String orderId = field.apply("orderid");
+            String rating = field.apply("rating");
+            String serviceId = field.apply("serviceid");
+            String userId = field.apply("userid");
+            String createdAt = field.apply("createdat");
+            return FeedbackImportDto.builder()
+                    .serviceId(serviceId != null ? Long.valueOf(serviceId) : null)
+                    .userId(userId != null ? Long.valueOf(userId) : null)
+                    .orderId(orderId != null ? Long.valueOf(orderId) : null)
+                    .rating(rating != null ? Integer.valueOf(rating) : null)
+                    .comment(columns.containsKey("comment") ? field.apply("comment") : null)
+                    .createdAt(createdAt != null ? Instant.parse(createdAt) : null)
+                    .build();
+        } catch (NumberFormatException | DateTimeParseException ex) {
+            throw new IllegalArgumentException("Malformed field: " + ex.getMessage());
+        }
+    }
+
+    private record Row(long line, FeedbackImportDto feedback) {}
+
+    private final class Batch {
+        private final List<Row> rows = new ArrayList<>();
+        private final Set<Long> touchedServiceIds = new HashSet<>();
+        private final List<String> errors = new ArrayList<>();
+        private final Instant now = Instant.now();
+        private long imported;
+        private long rejected;
+        private int servicesRecomputed;
+        private int providersRecomputed;
+
+        void add(long line, FeedbackImportDto feedback) {
+            String problem = checkFields(feedback);
+            if (problem != null) {
+                reject(line, problem);
+                return;
+            }
+            rows.add(new Row(line, feedback));
+            if (rows.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long line, String reason) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("line " + line + ": " + reason);
+            }
+        }
+
+        void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            Set<Long> users = existing(rows, FeedbackImportDto::getUserId, userRepository::findExistingIds);
+            Set<Long> services = existing(rows, FeedbackImportDto::getServiceId, serviceCatalogRepository::findExistingIds);
+            Set<Long> orders = existing(rows, FeedbackImportDto::getOrderId, orderRepository::findExistingIds);
+
+            List<FeedbackImportDto> valid = new ArrayList<>(rows.size());
+            for (Row row : rows) {
+                FeedbackImportDto feedback = row.feedback();
+                if (!services.contains(feedback.getServiceId())) {
+                    reject(row.line(), "Service " + feedback.getServiceId() + " not found");
+                } else if (!users.contains(feedback.getUserId())) {
+                    reject(row.line(), "User " + feedback.getUserId() + " not found");
+                } else if (feedback.getOrderId() != null && !orders.contains(feedback.getOrderId())) {
+                    reject(row.line(), "Order " + feedback.getOrderId() + " not found");
+                } else {
+                    valid.add(feedback);
+                }
+            }
+            rows.clear();
+            if (valid.isEmpty()) {
+                return;
+            }
+
+            // Left unapplied until the recompute below, so a crash mid-import is replayed on restart
+            Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+            tx.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, valid, valid.size(), (ps, f) -> {
+                ps.setLong(1, f.getServiceId());
+                ps.setLong(2, f.getUserId());
+                if (f.getOrderId() != null) {
+                    ps.setLong(3, f.getOrderId());
+                } else {
+                    ps.setNull(3, Types.BIGINT);
+                }
+                ps.setString(4, f.getComment());
+                ps.setInt(5, f.getRating());
+                ps.setTimestamp(6, Timestamp.from(f.getCreatedAt() != null ? f.getCreatedAt() : now), utc);
+                ps.setBoolean(7, false);
+            }));
+            imported += valid.size();
+            valid.forEach(f -> touchedServiceIds.add(f.getServiceId()));
+        }
+
+        // Provider aggregates span all of a provider's services, so those are recomputed together
+        void recompute() {
+            if (touchedServiceIds.isEmpty()) {
+                return;
+            }
+            ratingAggregator.exclusive(() -> tx.execute(status -> {
+                Set<Long> providerIds = new HashSet<>();
+                inChunks(touchedServiceIds, ids -> providerIds.addAll(serviceCatalogRepository.findProviderIdsOf(ids)));
+                Set<Long> serviceIds = new HashSet<>();
+                inChunks(providerIds, ids -> serviceIds.addAll(serviceCatalogRepository.findIdsByProviderIds(ids)));
+
+                long maxFeedbackId = feedbackRepository.findMaxFeedbackId();
+                inChunks(serviceIds, ids -> {
+                    feedbackRepository.markRatingsAppliedUpTo(maxFeedbackId, ids);
+                    serviceCatalogRepository.recomputeRatingsIn(ids, maxFeedbackId, now);
+                });
+                inChunks(providerIds, ids -> providerRepository.recomputeRatingsIn(ids, maxFeedbackId));
+
+                serviceIds.forEach(catalogCache::evictService);
+                providerIds.forEach(providerId -> {
+                    catalogCache.evictProvider(providerId);
+                    catalogIndexer.reindexProviderAfterCommit(providerId);
+                    geoIndex.reindexProviderAfterCommit(providerId);
+                });
+                servicesRecomputed = serviceIds.size();
+                providersRecomputed = providerIds.size();
+                return null;
+            }));
+            log.info("Feedback import added {} rows, rejected {}, recomputed {} services and {} providers",
+                    imported, rejected, servicesRecomputed, providersRecomputed);
+        }
+
+        FeedbackImportResultDto result() {
+            return FeedbackImportResultDto.builder()
+                    .imported(imported)
+                    .rejected(rejected)
+                    .errors(errors)
+                    .servicesRecomputed(servicesRecomputed)
+                    .providersRecomputed(providersRecomputed)
+                    .build();
+        }
+    }
+
+    private static String checkFields(FeedbackImportDto feedback) {
+        if (feedback.getServiceId() == null || feedback.getUserId() == null) {
+            return "serviceId and userId are required";
+        }
+        if (feedback.getRating() == null || feedback.getRating() < 1 || feedback.getRating() > 5) {
+            return "Rating must be between 1 and 5";
+        }
+        return null;
+    }
+
+    private static Set<Long> existing(List<Row> rows, Function<FeedbackImportDto, Long> id,
+                                      Function<Collection<Long>, List<Long>> lookup) {
+        Set<Long> ids = new HashSet<>();
+        for (Row row : rows) {
+            Long value = id.apply(row.feedback());
+            if (value != null) {
+                ids.add(value);
+            }
+        }
+        return ids.isEmpty() ? Set.of() : new HashSet<>(lookup.apply(ids));
+    }
+
+    private static void inChunks(Collection<Long> ids, Consumer<List<Long>> action) {
+        List<Long> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += IN_CLAUSE_SIZE) {
+            action.accept(all.subList(from, Math.min(all.size(), from + IN_CLAUSE_SIZE)));
+        }
+    }
+}
@@ -1,43 +1,58 @@
 package com.FindMyService.service;
 
+import com.FindMyService.cache.CatalogCache;
 import com.FindMyService.model.Feedback;
-import com.FindMyService.model.ServiceCatalog;
-import com.FindMyService.model.User;
+import com.FindMyService.model.dto.FeedbackPageDto;
+import com.FindMyService.model.dto.RatingSummaryDto;
+import com.FindMyService.model.dto.ServiceCatalogDto;
 import com.FindMyService.repository.FeedbackRepository;
-import com.FindMyService.repository.ProviderRepository;
 import com.FindMyService.repository.ServiceCatalogRepository;
 import com.FindMyService.repository.UserRepository;
+import com.FindMyService.utils.CursorCodec;
+import com.FindMyService.utils.DtoMapper;
 import com.FindMyService.utils.ResponseBuilder;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 public class FeedbackService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final FeedbackRepository feedbackRepository;
     private final UserRepository userRepository;
     private final ServiceCatalogRepository serviceCatalogRepository;
-    private final ProviderRepository providerRepository;
+    private final RatingAggregator ratingAggregator;
+    private final CatalogCache catalogCache;
 
     public FeedbackService(FeedbackRepository feedbackRepository,
                            UserRepository userRepository,
                            ServiceCatalogRepository serviceCatalogRepository,
-                           ProviderRepository providerRepository) {
+                           RatingAggregator ratingAggregator,
+                           CatalogCache catalogCache) {
         this.feedbackRepository = feedbackRepository;
         this.userRepository = userRepository;
         this.serviceCatalogRepository = serviceCatalogRepository;
-        this.providerRepository = providerRepository;
+        this.ratingAggregator = ratingAggregator;
+        this.catalogCache = catalogCache;
     }
 
     public List<Feedback> getAllFeedbacks() {
         return feedbackRepository.findAll();
     }
 
+    public Stream<Feedback> streamAllFeedbacks() {
+        return feedbackRepository.streamAll();
+    }
+
     @Transactional
     public ResponseEntity<?> createFeedback(Feedback feedback) {
         if (feedback.getRating() < 1 || feedback.getRating() > 5) {
@@ -46,78 +61,82 @@ public class FeedbackService {
                     .body(ResponseBuilder.build(HttpStatus.BAD_REQUEST, "Rating must be between 1 and 5"));
         }
 
-        Optional<User> user = userRepository.findById(feedback.getUserId().getUserId());
-        if (user.isEmpty()) {
+        if (!userRepository.existsById(feedback.getUserId().getUserId())) {
             return ResponseEntity
                     .status(HttpStatus.BAD_REQUEST)
                     .body(ResponseBuilder.build(HttpStatus.BAD_REQUEST, "User from payload not found"));
         }
 
-        Optional<ServiceCatalog> serviceCatalog = serviceCatalogRepository
-                .findById(feedback.getServiceId().getServiceId());
-        if (serviceCatalog.isEmpty()) {
+        if (!serviceCatalogRepository.existsById(feedback.getServiceId().getServiceId())) {
             return ResponseEntity
                     .status(HttpStatus.BAD_REQUEST)
                     .body(ResponseBuilder.build(HttpStatus.BAD_REQUEST, "Service catalog not found"));
         }
 
+        // Aggregates are folded in asynchronously; the unapplied flag makes this durable across restarts
+        feedback.setRatingApplied(false);
         Feedback saved = feedbackRepository.save(feedback);
-
-        try {
-            updateRatings(feedback);
-        } catch (RuntimeException e) {
-            return ResponseEntity
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ResponseBuilder.serverError(e.getMessage()));
-        }
+        ratingAggregator.enqueueAfterCommit(saved.getFeedbackId());
 
         return ResponseEntity.status(HttpStatus.CREATED).body(saved);
     }
 
-    @Transactional
-    public ResponseEntity<?> getAllFeedbacksForService(Long serviceId) {
-        Optional<ServiceCatalog> serviceCatalog = serviceCatalogRepository.findById(serviceId);
-        if (serviceCatalog.isEmpty()) {
-            return ResponseEntity
-                    .status(HttpStatus.NOT_FOUND)
-                    .body(ResponseBuilder.build(HttpStatus.NOT_FOUND, "Service not found"));
+    @Transactional(readOnly = true)
+    public Optional<FeedbackPageDto> getFeedbackPage(Long serviceId, String cursor, int size) {
+        Optional<ServiceCatalogDto> service = catalogCache.getService(serviceId,
+                id -> serviceCatalogRepository.findWithProviderByServiceId(id).map(DtoMapper::toDto));
+        if (service.isEmpty()) {
+            return Optional.empty();
         }
 
-        List<Feedback> feedbacks = feedbackRepository.findByServiceId(serviceCatalog.get());
-        return ResponseEntity.ok(feedbacks);
-    }
-
-    void updateRatings(Feedback feedback) {
-        ServiceCatalog serviceCatalog = serviceCatalogRepository.findById(feedback.getServiceId().getServiceId())
-                .orElseThrow(() -> new RuntimeException("Service not found"));
-        com.FindMyService.model.Provider provider = providerRepository.findById(serviceCatalog.getProviderId().getProviderId())
-                .orElseThrow(() -> new RuntimeException("Provider not found"));
-
-        int totalServiceReviews = serviceCatalog.getTotalRatings();
-        int totalProviderReviews = provider.getTotalRatings();
-
-        int newTotalServiceReviews = totalServiceReviews + 1;
-        int newTotalProviderReviews = totalProviderReviews + 1;
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Limit limit = Limit.of(pageSize + 1);
+        List<Feedback> rows;
+        if (cursor != null && !cursor.isBlank()) {
+            List<String> parts = CursorCodec.decode(cursor, 2);
+            rows = feedbackRepository.findPageBefore(serviceId, parseInstant(parts.get(0)), parseId(parts.get(1)), limit);
+        } else {
+            rows = feedbackRepository.findByServiceId_ServiceIdOrderByCreatedAtDescFeedbackIdDesc(serviceId, limit);
+        }
 
-        BigDecimal currentProviderRating = provider.getAvgRating() != null ? provider.getAvgRating() : BigDecimal.ZERO;
-        BigDecimal updatedProviderRating = currentProviderRating
-                .multiply(BigDecimal.valueOf(totalProviderReviews))
-                .add(BigDecimal.valueOf(feedback.getRating()))
-                .divide(BigDecimal.valueOf(newTotalProviderReviews), 1, java.math.RoundingMode.HALF_UP);
+        boolean hasMore = rows.size() > pageSize;
+        List<Feedback> page = hasMore ? rows.subList(0, pageSize) : rows;
 
-        BigDecimal currentServiceRating = serviceCatalog.getAvgRating() != null ? serviceCatalog.getAvgRating() : BigDecimal.ZERO;
-        BigDecimal updatedServiceRating = currentServiceRating
-                .multiply(BigDecimal.valueOf(totalServiceReviews))
-                .add(BigDecimal.valueOf(feedback.getRating()))
-                .divide(BigDecimal.valueOf(newTotalServiceReviews), 1, java.math.RoundingMode.HALF_UP);
+        String nextCursor = null;
+        if (hasMore) {
+            Feedback last = page.get(page.size() - 1);
+            nextCursor = CursorCodec.encode(last.getCreatedAt().toString(), last.getFeedbackId().toString());
+        }
 
-        provider.setAvgRating(updatedProviderRating);
-        provider.setTotalRatings(newTotalProviderReviews);
+        // Served from the stored aggregates, so it may trail the newest reviews by one flush
+        ServiceCatalogDto aggregates = service.get();
+        RatingSummaryDto summary = RatingSummaryDto.builder()
+                .count(aggregates.getTotalRatings() != null ? aggregates.getTotalRatings() : 0)
+                .average(aggregates.getAvgRating())
+                .histogram(aggregates.getRatingHistogram())
+                .build();
+
+        return Optional.of(FeedbackPageDto.builder()
+                .summary(summary)
+                .items(page.stream().map(DtoMapper::toDto).toList())
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build());
+    }
 
-        serviceCatalog.setAvgRating(updatedServiceRating);
-        serviceCatalog.setTotalRatings(newTotalServiceReviews);
+    private Instant parseInstant(String value) {
+        try {
+            return Instant.parse(value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+    }
 
-        providerRepository.save(provider);
-        serviceCatalogRepository.save(serviceCatalog);
+    private Long parseId(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
     }
 }
@@ -1,47 +1,83 @@
 package com.FindMyService.service;
 
 import com.FindMyService.model.Order;
+import com.FindMyService.model.PaymentAttempt;
 import com.FindMyService.model.Provider;
 import com.FindMyService.model.User;
+import com.FindMyService.model.dto.CursorPage;
+import com.FindMyService.model.dto.OrderHistoryDto;
+import com.FindMyService.model.dto.OrderLineItemDto;
 import com.FindMyService.model.enums.OrderStatus;
+import com.FindMyService.model.enums.PaymentAttemptStatus;
+import com.FindMyService.repository.OrderHistoryRow;
+import com.FindMyService.repository.OrderLineItemRow;
 import com.FindMyService.repository.OrderRepository;
+import com.FindMyService.repository.PaymentAttemptRepository;
 import com.FindMyService.repository.ProviderRepository;
 import com.FindMyService.repository.UserRepository;
+import com.FindMyService.utils.CursorCodec;
 import com.FindMyService.utils.ResponseBuilder;
-import com.stripe.model.PaymentIntent;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import static com.FindMyService.model.enums.OrderStatus.PAID;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
 import static com.FindMyService.model.enums.OrderStatus.REQUESTED;
 
 @Service
 public class OrderService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final Duration IDEMPOTENCY_KEY_TTL = Duration.ofHours(24);
+    private static final List<PaymentAttemptStatus> REPLAYABLE_ATTEMPTS =
+            List.of(PaymentAttemptStatus.PENDING, PaymentAttemptStatus.CREATED);
+    private static final Set<OrderStatus> UNPAYABLE_STATUSES =
+            EnumSet.of(OrderStatus.COMPLETED, OrderStatus.CANCELLED, OrderStatus.PAID);
+
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
     private final ProviderRepository providerRepository;
-    private final PaymentService paymentService;
+    private final PaymentAttemptRepository paymentAttemptRepository;
+    private final PaymentOutbox paymentOutbox;
+    private final TransactionTemplate tx;
 
     public OrderService(OrderRepository orderRepository,
                         UserRepository userRepository,
                         ProviderRepository providerRepository,
-                        PaymentService paymentService) {
+                        PaymentAttemptRepository paymentAttemptRepository,
+                        PaymentOutbox paymentOutbox,
+                        PlatformTransactionManager transactionManager) {
         this.orderRepository = orderRepository;
         this.userRepository = userRepository;
         this.providerRepository = providerRepository;
-        this.paymentService = paymentService;
+        this.paymentAttemptRepository = paymentAttemptRepository;
+        this.paymentOutbox = paymentOutbox;
+        this.tx = new TransactionTemplate(transactionManager);
     }
 
     public List<Order> getAllOrders() {
         return orderRepository.findAll();
     }
 
+    public Stream<Order> streamAllOrders() {
+        return orderRepository.streamAll();
+    }
+
     public Optional<Order> getOrderById(Long orderId) {
         return orderRepository.findById(orderId);
     }
@@ -63,6 +99,7 @@ public class OrderService {
         }
 
         order.setOrderStatus(REQUESTED);
+        order.attachLineItems();
 
         Order saved = orderRepository.save(order);
         return ResponseEntity.status(HttpStatus.CREATED).body(saved);
@@ -76,31 +113,87 @@ public class OrderService {
         }).orElse(false);
     }
 
-    public ResponseEntity<?> getOrdersByUser(Long userId) {
-        Optional<User> user = userRepository.findById(userId);
-        if (user.isEmpty()) {
-            return ResponseEntity
-                    .status(HttpStatus.NOT_FOUND)
-                    .body(ResponseBuilder.build(HttpStatus.NOT_FOUND, "User not found"));
+    public Optional<CursorPage<OrderHistoryDto>> getOrderHistoryByUser(Long userId, OrderStatus status,
+                                                                       String cursor, int size) {
+        int pageSize = pageSize(size);
+        List<OrderHistoryRow> rows = orderRepository.findHistoryByUser(
+                userId, status, beforeId(cursor), Limit.of(pageSize + 1));
+        // Only an empty page needs to tell "no orders" apart from "no such user"
+        if (rows.isEmpty() && !userRepository.existsById(userId)) {
+            return Optional.empty();
         }
+        return Optional.of(historyPage(rows, pageSize));
+    }
 
-        List<Order> orders = orderRepository.findByUserId(user.get());
-        return ResponseEntity.ok(orders);
+    public Optional<CursorPage<OrderHistoryDto>> getOrderHistoryByProvider(Long providerId, OrderStatus status,
+                                                                           String cursor, int size) {
+        int pageSize = pageSize(size);
+        List<OrderHistoryRow> rows = orderRepository.findHistoryByProvider(
+                providerId, status, beforeId(cursor), Limit.of(pageSize + 1));
+        if (rows.isEmpty() && !providerRepository.existsById(providerId)) {
+            return Optional.empty();
+        }
+        return Optional.of(historyPage(rows, pageSize));
     }
 
-    public ResponseEntity<?> getOrdersByProvider(Long providerId) {
-        Optional<Provider> provider = providerRepository.findById(providerId);
-        if (provider.isEmpty()) {
-            return ResponseEntity
-                    .status(HttpStatus.NOT_FOUND)
-                    .body(ResponseBuilder.build(HttpStatus.NOT_FOUND, "Provider not found"));
+    // Two statements per page whatever its size: the order rows and their line items
+    private CursorPage<OrderHistoryDto> historyPage(List<OrderHistoryRow> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<OrderHistoryRow> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        Map<Long, List<OrderLineItemDto>> lineItems = new HashMap<>();
+        if (!page.isEmpty()) {
+            List<Long> orderIds = page.stream().map(OrderHistoryRow::orderId).toList();
+            for (OrderLineItemRow row : orderRepository.findLineItemRows(orderIds)) {
+                lineItems.computeIfAbsent(row.orderId(), id -> new ArrayList<>()).add(OrderLineItemDto.builder()
+                        .lineItemId(row.lineItemId())
+                        .serviceName(row.serviceName())
+                        .cost(row.cost())
+                        .imageUrl(row.imageUrl())
+                        .quantityUnits(row.quantityUnits())
+                        .requestedDate(row.requestedDate())
+                        .scheduledDate(row.scheduledDate())
+                        .build());
+            }
         }
 
-        List<Order> orders = orderRepository.findByProviderId(provider.get());
-        return ResponseEntity.ok(orders);
+        List<OrderHistoryDto> items = page.stream().map(row -> OrderHistoryDto.builder()
+                .orderId(row.orderId())
+                .userId(row.userId())
+                .providerId(row.providerId())
+                .orderStatus(row.orderStatus())
+                .totalCost(row.totalCost())
+                .paymentMethod(row.paymentMethod())
+                .paymentDate(row.paymentDate())
+                .createdAt(row.createdAt())
+                .updatedAt(row.updatedAt())
+                .lineItems(lineItems.getOrDefault(row.orderId(), List.of()))
+                .build()).toList();
+
+        String nextCursor = hasMore ? CursorCodec.encode(page.get(page.size() - 1).orderId().toString()) : null;
+        return CursorPage.<OrderHistoryDto>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
     }
 
-    @Transactional
+    private static int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private static Long beforeId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Long.valueOf(CursorCodec.decode(cursor, 1).get(0));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+    }
+
+    // Not @Transactional: the Stripe call sits between short transactions so it never pins a pooled connection
     public ResponseEntity<?> initiatePayment(Long orderId) {
         Optional<Order> order = orderRepository.findById(orderId);
         if (order.isEmpty()) {
@@ -111,23 +204,18 @@ public class OrderService {
 
         Order existing = order.get();
 
-        if (existing.getOrderStatus() == OrderStatus.COMPLETED ||
-                existing.getOrderStatus() == OrderStatus.CANCELLED ||
-                existing.getOrderStatus() == OrderStatus.PAID) {
-            return ResponseEntity
-                    .status(HttpStatus.BAD_REQUEST)
-                    .body(ResponseBuilder.build(HttpStatus.BAD_REQUEST, "Cannot initiate payment for this order"));
-        }
-
         try {
             double priceInRupees = Math.round(existing.getTotalCost().doubleValue() * 100.0) / 100.0;
 
             Long amountInPaise = (long) (priceInRupees * 100);
 
-            Map<String, String> paymentIntent = paymentService.createPaymentIntent(amountInPaise, orderId);
-
-            existing.setStripePaymentIntentId(paymentIntent.get("paymentIntentId"));
-            orderRepository.save(existing);
+            PaymentAttempt attempt = tx.execute(status -> recordPaymentAttempt(orderId, amountInPaise));
+            if (attempt == null) {
+                return ResponseEntity
+                        .status(HttpStatus.BAD_REQUEST)
+                        .body(ResponseBuilder.build(HttpStatus.BAD_REQUEST, "Cannot initiate payment for this order"));
+            }
+            Map<String, String> paymentIntent = paymentOutbox.dispatch(attempt);
 
             return ResponseEntity.ok(Map.of(
                     "clientSecret", paymentIntent.get("clientSecret"),
@@ -142,9 +230,30 @@ public class OrderService {
         }
     }
 
-    @Transactional
+    // A retry for the same amount replays the earlier attempt's key, so Stripe hands back the same intent;
+    // null when the order can no longer be paid
+    private PaymentAttempt recordPaymentAttempt(Long orderId, Long amountInPaise) {
+        // Concurrent initiations would otherwise both miss the lookup and each insert an attempt
+        Optional<OrderStatus> orderStatus = orderRepository.lockForPayment(orderId);
+        if (orderStatus.isEmpty() || UNPAYABLE_STATUSES.contains(orderStatus.get())) {
+            return null;
+        }
+        Instant now = Instant.now();
+        return paymentAttemptRepository
+                .findFirstByOrderIdAndAmountInPaiseAndStatusInAndCreatedAtAfterOrderByPaymentAttemptIdDesc(
+                        orderId, amountInPaise, REPLAYABLE_ATTEMPTS, now.minus(IDEMPOTENCY_KEY_TTL))
+                .orElseGet(() -> paymentAttemptRepository.save(PaymentAttempt.builder()
+                        .orderId(orderId)
+                        .amountInPaise(amountInPaise)
+                        .idempotencyKey(UUID.randomUUID().toString())
+                        .status(PaymentAttemptStatus.PENDING)
+                        .updatedAt(now)
+                        .build()));
+    }
+
+    // Orders are settled from Stripe webhooks; this only reports whether that has happened yet
     public ResponseEntity<?> confirmPayment(Long orderId, String paymentIntentId) {
-        Optional<Order> order = orderRepository.findById(orderId);
+        Optional<Order> order = orderRepository.findDetailedById(orderId);
         if (order.isEmpty()) {
             return ResponseEntity
                     .status(HttpStatus.NOT_FOUND)
@@ -153,25 +262,19 @@ public class OrderService {
 
         Order existing = order.get();
 
-        try {
-            PaymentIntent paymentIntent = paymentService.confirmPayment(paymentIntentId);
-
-            if ("succeeded".equals(paymentIntent.getStatus())) {
-                existing.setOrderStatus(PAID);
-                existing.setPaymentDate(Instant.now());
-                Order updated = orderRepository.save(existing);
-                return ResponseEntity.ok(updated);
-            } else {
-                return ResponseEntity
-                        .status(HttpStatus.BAD_REQUEST)
-                        .body(ResponseBuilder.build(HttpStatus.BAD_REQUEST,
-                                "Payment not successful. Status: " + paymentIntent.getStatus()));
-            }
-        } catch (Exception e) {
+        if (paymentIntentId == null || !paymentIntentId.equals(existing.getStripePaymentIntentId())) {
             return ResponseEntity
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ResponseBuilder.serverError("Payment confirmation failed: " + e.getMessage()));
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(ResponseBuilder.build(HttpStatus.BAD_REQUEST, "Payment does not belong to this order"));
         }
+
+        if (existing.getPaymentDate() != null) {
+            return ResponseEntity.ok(existing);
+        }
+
+        return ResponseEntity
+                .status(HttpStatus.ACCEPTED)
+                .body(ResponseBuilder.build(HttpStatus.ACCEPTED, "Payment is being processed"));
     }
 
     @Transactional
@@ -0,0 +1,19 @@
+package com.FindMyService.service;
+
+import com.stripe.exception.StripeException;
+
+import java.util.Map;
+
+/**
+ * The payment provider as the rest of the app sees it. {@link PaymentService} talks
+ * to Stripe; tests plug in local stubs. Every method is a network call, so none may
+ * be invoked while holding a database transaction.
+ */
+public interface PaymentGateway {
+
+    // Returns "clientSecret" and "paymentIntentId"; replaying the same key returns the same intent
+    Map<String, String> createPaymentIntent(Long amount, Long orderId, String idempotencyKey) throws StripeException;
+
+    // The intent's Stripe status, e.g. "succeeded", "canceled" or "requires_payment_method"
+    String retrievePaymentIntentStatus(String paymentIntentId) throws StripeException;
+}
@@ -0,0 +1,171 @@
+package com.FindMyService.service;
+
+import com.FindMyService.metrics.MetricsSource;
+import com.FindMyService.model.PaymentAttempt;
+import com.FindMyService.model.enums.PaymentAttemptStatus;
+import com.FindMyService.repository.OrderRepository;
+import com.FindMyService.repository.PaymentAttemptRepository;
+import com.stripe.exception.StripeException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends recorded payment attempts to Stripe and records the outcome.
+ *
+ * The Stripe call runs with no transaction open, so a slow gateway ties up a
+ * request thread but never a pooled connection. Its result is written in a
+ * second short transaction. Attempts left PENDING by a crash or a failed call
+ * are replayed by a background relay under their original idempotency key.
+ */
+@Component
+@Slf4j
+public class PaymentOutbox implements MetricsSource {
+
+    private static final int MAX_ERROR_LENGTH = 512;
+
+    private final PaymentAttemptRepository paymentAttemptRepository;
+    private final OrderRepository orderRepository;
+    private final PaymentGateway paymentGateway;
+    private final TransactionTemplate tx;
+    private final long recoveryIntervalMs;
+    private final Duration staleAfter;
+    private final int maxTries;
+    private final int batchSize;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "payment-outbox");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong dispatched = new AtomicLong();
+    private final AtomicLong gatewayFailures = new AtomicLong();
+    private final AtomicLong recovered = new AtomicLong();
+    private final AtomicLong gatewayNanos = new AtomicLong();
+
+    public PaymentOutbox(PaymentAttemptRepository paymentAttemptRepository,
+                         OrderRepository orderRepository,
+                         PaymentGateway paymentGateway,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${payments.recovery.interval-ms:60000}") long recoveryIntervalMs,
+                         @Value("${payments.recovery.stale-after-ms:120000}") long staleAfterMs,
+                         @Value("${payments.recovery.max-tries:5}") int maxTries,
+                         @Value("${payments.recovery.batch-size:50}") int batchSize) {
+        this.paymentAttemptRepository = paymentAttemptRepository;
+        this.orderRepository = orderRepository;
+        this.paymentGateway = paymentGateway;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.recoveryIntervalMs = Math.max(1, recoveryIntervalMs);
+        this.staleAfter = Duration.ofMillis(Math.max(0, staleAfterMs));
+        this.maxTries = Math.max(1, maxTries);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::recoverQuietly, recoveryIntervalMs, recoveryIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdown();
+    }
+
+    /**
+     * Creates the Stripe intent for a committed attempt and records it on the attempt
+     * and the order. Must be called outside any transaction.
+     */
+    public Map<String, String> dispatch(PaymentAttempt attempt) throws StripeException {
+        Map<String, String> intent;
+        long started = System.nanoTime();
+        try {
+            intent = paymentGateway.createPaymentIntent(
+                    attempt.getAmountInPaise(), attempt.getOrderId(), attempt.getIdempotencyKey());
+        } catch (StripeException | RuntimeException e) {
+            gatewayFailures.incrementAndGet();
+            paymentAttemptRepository.recordFailure(attempt.getPaymentAttemptId(), truncate(e.getMessage()),
+                    maxTries, Instant.now());
+            throw e;
+        } finally {
+            gatewayNanos.addAndGet(System.nanoTime() - started);
+        }
+
+        String intentId = intent.get("paymentIntentId");
+        tx.executeWithoutResult(status -> {
+            Instant now = Instant.now();
+            paymentAttemptRepository.markCreated(attempt.getPaymentAttemptId(), intentId, now);
+            orderRepository.attachPaymentIntent(attempt.getOrderId(), intentId, now);
+        });
+        dispatched.incrementAndGet();
+        return intent;
+    }
+
+    // Replays attempts that have sat PENDING longer than any live request would take
+    public int recoverStale() {
+        List<PaymentAttempt> stale = paymentAttemptRepository.findByStatusAndUpdatedAtBeforeOrderByPaymentAttemptId(
+                PaymentAttemptStatus.PENDING, Instant.now().minus(staleAfter), Limit.of(batchSize));
+        int done = 0;
+        for (PaymentAttempt attempt : stale) {
+            try {
+                dispatch(attempt);
+                recovered.incrementAndGet();
+                done++;
+            } catch (StripeException | RuntimeException e) {
+                log.warn("Payment attempt {} for order {} still failing: {}",
+                        attempt.getPaymentAttemptId(), attempt.getOrderId(), e.getMessage());
+            }
+        }
+        return done;
+    }
+
+    private void recoverQuietly() {
+        try {
+            int done = recoverStale();
+            if (done > 0) {
+                log.info("Recovered {} pending payment attempts", done);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Payment recovery failed: {}", ex.getMessage());
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    @Override
+    public String metricsName() {
+        return "paymentOutbox";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        long calls = dispatched.get() + gatewayFailures.get();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("dispatched", dispatched.get());
+        metrics.put("gatewayFailures", gatewayFailures.get());
+        metrics.put("recovered", recovered.get());
+        metrics.put("avgGatewayMs", calls == 0 ? 0.0 : TimeUnit.NANOSECONDS.toMicros(gatewayNanos.get() / calls) / 1000.0);
+        return metrics;
+    }
+}
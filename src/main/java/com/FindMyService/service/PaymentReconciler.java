@@ -0,0 +1,343 @@
+package com.FindMyService.service;
+
+import com.FindMyService.metrics.MetricsSource;
+import com.FindMyService.model.ReconciliationCheckpoint;
+import com.FindMyService.repository.OrderRepository;
+import com.FindMyService.repository.PaymentAttemptRepository;
+import com.FindMyService.repository.ReconciliationCandidate;
+import com.FindMyService.repository.ReconciliationCheckpointRepository;
+import com.FindMyService.security.RateLimiter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Catches up on REQUESTED orders whose payment intent was never settled by a webhook
+ * (lost delivery, client gave up before confirming).
+ *
+ * A pass walks the candidates in order-id chunks. Each chunk's intents are looked
+ * up on a small worker pool, throttled to a fixed request rate; lookups still
+ * outstanding after lookup-timeout-ms count as gateway errors. The results are
+ * then applied in one transaction: one UPDATE for every order that was paid, one
+ * that releases canceled intents, the backoff of intents that are still open, and
+ * the checkpoint row. A pass that is cut short resumes after the last applied
+ * chunk; a completed pass resets the checkpoint.
+ *
+ * An open intent is looked at again after one interval, then after twice that and
+ * so on up to max-backoff-ms, and orders whose intent was attached more than
+ * max-age-ms ago are no longer candidates, so abandoned checkouts stop costing
+ * gateway requests.
+ *
+ * The checkpoint row also carries a lease, so with several instances only one runs
+ * a pass at a time. Every applied chunk extends it; a chunk whose holder has lost
+ * the lease is rolled back, and a crashed holder's lease simply runs out.
+ */
+@Component
+@Slf4j
+public class PaymentReconciler implements MetricsSource {
+
+    static final String JOB_NAME = "payment-intents";
+    private static final String SUCCEEDED = "succeeded";
+    private static final String CANCELED = "canceled";
+
+    private final OrderRepository orderRepository;
+    private final PaymentAttemptRepository paymentAttemptRepository;
+    private final ReconciliationCheckpointRepository checkpointRepository;
+    private final PaymentGateway paymentGateway;
+    private final TransactionTemplate tx;
+    private final long intervalMs;
+    private final Duration minAge;
+    private final Duration maxAge;
+    private final Duration maxBackoff;
+    private final Duration lookupTimeout;
+    private final int chunkSize;
+    private final Duration lease;
+    private final RateLimiter rateLimiter;
+    private final ExecutorService workers;
+
+    private final String owner = UUID.randomUUID().toString();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "payment-reconciler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean stopping;
+    private volatile boolean running;
+
+    private volatile long checkpoint;
+    private volatile Instant lastPassCompletedAt;
+    private volatile long lastPassMs;
+    private final AtomicLong passes = new AtomicLong();
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong queried = new AtomicLong();
+    private final AtomicLong gatewayErrors = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+    private final AtomicLong settled = new AtomicLong();
+    private final AtomicLong released = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong leaseBusy = new AtomicLong();
+
+    public PaymentReconciler(OrderRepository orderRepository,
+                             PaymentAttemptRepository paymentAttemptRepository,
+                             ReconciliationCheckpointRepository checkpointRepository,
+                             PaymentGateway paymentGateway,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${payments.reconciliation.interval-ms:300000}") long intervalMs,
+                             @Value("${payments.reconciliation.min-age-ms:600000}") long minAgeMs,
+                             @Value("${payments.reconciliation.max-age-ms:604800000}") long maxAgeMs,
+                             @Value("${payments.reconciliation.max-backoff-ms:86400000}") long maxBackoffMs,
+                             @Value("${payments.reconciliation.chunk-size:200}") int chunkSize,
+                             @Value("${payments.reconciliation.concurrency:8}") int concurrency,
+                             @Value("${payments.reconciliation.requests-per-second:20}") int requestsPerSecond,
+                             @Value("${payments.reconciliation.lease-ms:120000}") long leaseMs,
+                             @Value("${payments.reconciliation.lookup-timeout-ms:30000}") long lookupTimeoutMs) {
+        this.orderRepository = orderRepository;
+        this.paymentAttemptRepository = paymentAttemptRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.paymentGateway = paymentGateway;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.intervalMs = Math.max(1, intervalMs);
+        this.minAge = Duration.ofMillis(Math.max(0, minAgeMs));
+        this.maxAge = Duration.ofMillis(Math.max(this.minAge.toMillis() + 1, maxAgeMs));
+        this.maxBackoff = Duration.ofMillis(Math.max(this.intervalMs, maxBackoffMs));
+        this.chunkSize = Math.max(1, chunkSize);
+        this.lease = Duration.ofMillis(Math.max(1, leaseMs));
+        // A chunk's lookups must finish well inside the lease, or the chunk could not be applied
+        this.lookupTimeout = Duration.ofMillis(Math.max(1, Math.min(lookupTimeoutMs, this.lease.toMillis() / 2)));
+        int rate = Math.max(1, requestsPerSecond);
+        // One shared bucket: at most a second's worth of requests in a burst
+        this.rateLimiter = new RateLimiter(rate, rate * 60, 1, 1, System.nanoTime());
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, concurrency), runnable -> {
+            Thread thread = new Thread(runnable, "payment-reconciler-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::reconcileQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopping = true;
+        scheduler.shutdown();
+        workers.shutdownNow();
+    }
+
+    // Runs one pass from the stored checkpoint; returns the number of orders changed
+    public int reconcile() {
+        if (!acquireLease()) {
+            leaseBusy.incrementAndGet();
+            return 0;
+        }
+        running = true;
+        try {
+            long started = System.nanoTime();
+            Instant passStarted = Instant.now();
+            Instant updatedBefore = passStarted.minus(minAge);
+            Instant updatedAfter = passStarted.minus(maxAge);
+            long lastOrderId = checkpointRepository.findById(JOB_NAME)
+                    .map(ReconciliationCheckpoint::getLastOrderId)
+                    .orElse(0L);
+            checkpoint = lastOrderId;
+
+            int changed = 0;
+            while (!stopping) {
+                List<ReconciliationCandidate> chunk = orderRepository.findReconciliationCandidates(
+                        lastOrderId, updatedBefore, updatedAfter, passStarted, Limit.of(chunkSize));
+                if (chunk.isEmpty()) {
+                    saveCheckpoint(0L);
+                    passes.incrementAndGet();
+                    lastPassCompletedAt = Instant.now();
+                    lastPassMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                    break;
+                }
+                scanned.addAndGet(chunk.size());
+                lastOrderId = chunk.get(chunk.size() - 1).orderId();
+                changed += apply(chunk, lookUp(chunk), lastOrderId, passStarted);
+            }
+            return changed;
+        } finally {
+            running = false;
+            checkpointRepository.releaseLease(JOB_NAME, owner);
+        }
+    }
+
+    // Also refuses a second pass on this instance, since the lease is only taken when free
+    private boolean acquireLease() {
+        Instant now = Instant.now();
+        if (checkpointRepository.acquireLease(JOB_NAME, owner, now, now.plus(lease)) == 1) {
+            return true;
+        }
+        if (checkpointRepository.existsById(JOB_NAME)) {
+            return false;
+        }
+        try {
+            checkpointRepository.insert(JOB_NAME, now);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created the row first; the lease goes to whoever updates it first
+        }
+        return checkpointRepository.acquireLease(JOB_NAME, owner, now, now.plus(lease)) == 1;
+    }
+
+    // Looks every intent of the chunk up on the worker pool; intents that fail are left for the next pass
+    private Map<String, String> lookUp(List<ReconciliationCandidate> chunk) {
+        List<Future<String>> lookups = new ArrayList<>(chunk.size());
+        for (ReconciliationCandidate ref : chunk) {
+            lookups.add(workers.submit(() -> {
+                awaitPermit();
+                return paymentGateway.retrievePaymentIntentStatus(ref.paymentIntentId());
+            }));
+        }
+
+        Map<String, String> statuses = new HashMap<>();
+        long deadline = System.nanoTime() + lookupTimeout.toNanos();
+        for (int i = 0; i < chunk.size(); i++) {
+            try {
+                String status = lookups.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                statuses.put(chunk.get(i).paymentIntentId(), status);
+                queried.incrementAndGet();
+            } catch (ExecutionException e) {
+                gatewayErrors.incrementAndGet();
+                log.debug("Could not look up payment intent {}: {}",
+                        chunk.get(i).paymentIntentId(), e.getCause().getMessage());
+            } catch (TimeoutException e) {
+                lookups.get(i).cancel(true);
+                gatewayErrors.incrementAndGet();
+                timedOut.incrementAndGet();
+                log.debug("Lookup of payment intent {} timed out", chunk.get(i).paymentIntentId());
+            } catch (InterruptedException e) {
+                lookups.forEach(lookup -> lookup.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Reconciliation interrupted", e);
+            }
+        }
+        return statuses;
+    }
+
+    private void awaitPermit() throws InterruptedException {
+        long waitNanos;
+        while ((waitNanos = rateLimiter.tryAcquire(JOB_NAME, System.nanoTime())) > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private int apply(List<ReconciliationCandidate> chunk, Map<String, String> statuses, long chunkEnd,
+                      Instant passStarted) {
+        List<String> paid = new ArrayList<>();
+        List<String> canceled = new ArrayList<>();
+        // Still-open orders grouped by when they are due again; failed lookups are not deferred
+        Map<Instant, List<Long>> open = new HashMap<>();
+        for (ReconciliationCandidate candidate : chunk) {
+            String status = statuses.get(candidate.paymentIntentId());
+            if (status == null) {
+                continue;
+            }
+            if (SUCCEEDED.equals(status)) {
+                paid.add(candidate.paymentIntentId());
+            } else if (CANCELED.equals(status)) {
+                canceled.add(candidate.paymentIntentId());
+            } else {
+                open.computeIfAbsent(passStarted.plus(backoff(candidate.checks())), after -> new ArrayList<>())
+                        .add(candidate.orderId());
+            }
+        }
+
+        int[] counts = tx.execute(status -> {
+            Instant now = Instant.now();
+            int paidOrders = paid.isEmpty() ? 0 : orderRepository.settlePaid(paid, now);
+            int releasedOrders = 0;
+            if (!canceled.isEmpty()) {
+                paymentAttemptRepository.failByPaymentIntent(canceled, "Payment intent canceled", now);
+                releasedOrders = orderRepository.releasePaymentIntents(canceled, now);
+            }
+            open.forEach((after, orderIds) -> deferred.addAndGet(orderRepository.deferReconciliation(orderIds, after)));
+            saveCheckpoint(chunkEnd);
+            return new int[]{paidOrders, releasedOrders};
+        });
+        settled.addAndGet(counts[0]);
+        released.addAndGet(counts[1]);
+        return counts[0] + counts[1];
+    }
+
+    // One interval after the first open lookup, doubling with each one after that
+    private Duration backoff(int checks) {
+        long intervals = 1L << Math.min(checks, 20);
+        return Duration.ofMillis(Math.min(intervalMs * intervals, maxBackoff.toMillis()));
+    }
+
+    private void saveCheckpoint(long lastOrderId) {
+        Instant now = Instant.now();
+        if (checkpointRepository.advance(JOB_NAME, owner, lastOrderId, now, now.plus(lease)) == 0) {
+            throw new IllegalStateException("Reconciliation lease was taken over by another instance");
+        }
+        checkpoint = lastOrderId;
+    }
+
+    private void reconcileQuietly() {
+        try {
+            int changed = reconcile();
+            if (changed > 0) {
+                log.info("Payment reconciliation updated {} orders", changed);
+            }
+        } catch (RuntimeException ex) {
+            failures.incrementAndGet();
+            log.warn("Payment reconciliation stopped at order {}, resuming next run: {}", checkpoint, ex.getMessage());
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "paymentReconciler";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("running", running);
+        metrics.put("checkpoint", checkpoint);
+        metrics.put("passes", passes.get());
+        metrics.put("lastPassCompletedAt", lastPassCompletedAt);
+        metrics.put("lastPassMs", lastPassMs);
+        metrics.put("scanned", scanned.get());
+        metrics.put("queried", queried.get());
+        metrics.put("gatewayErrors", gatewayErrors.get());
+        metrics.put("timedOut", timedOut.get());
+        metrics.put("deferred", deferred.get());
+        metrics.put("throttled", rateLimiter.rejected());
+        metrics.put("settled", settled.get());
+        metrics.put("released", released.get());
+        metrics.put("failures", failures.get());
+        metrics.put("leaseBusy", leaseBusy.get());
+        return metrics;
+    }
+}
@@ -2,6 +2,7 @@ package com.FindMyService.service;
 
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
+import com.stripe.net.RequestOptions;
 import com.stripe.param.PaymentIntentCreateParams;
 import org.springframework.stereotype.Service;
 
@@ -9,9 +10,10 @@ import java.util.HashMap;
 import java.util.Map;
 
 @Service
-public class PaymentService {
+public class PaymentService implements PaymentGateway {
 
-    public Map<String, String> createPaymentIntent(Long amount, Long orderId) throws StripeException {
+    @Override
+    public Map<String, String> createPaymentIntent(Long amount, Long orderId, String idempotencyKey) throws StripeException {
         PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
                 .setAmount(amount) // Amount in paise (smallest currency unit for INR)
                 .setCurrency("inr")
@@ -23,7 +25,9 @@ public class PaymentService {
                 )
                 .build();
 
-        PaymentIntent paymentIntent = PaymentIntent.create(params);
+        // Replaying the same key returns the intent created the first time
+        PaymentIntent paymentIntent = PaymentIntent.create(params,
+                RequestOptions.builder().setIdempotencyKey(idempotencyKey).build());
 
         Map<String, String> response = new HashMap<>();
         response.put("clientSecret", paymentIntent.getClientSecret());
@@ -31,8 +35,8 @@ public class PaymentService {
         return response;
     }
 
-    public PaymentIntent confirmPayment(String paymentIntentId) throws StripeException {
-        PaymentIntent paymentIntent = PaymentIntent.retrieve(paymentIntentId);
-        return paymentIntent;
+    @Override
+    public String retrievePaymentIntentStatus(String paymentIntentId) throws StripeException {
+        return PaymentIntent.retrieve(paymentIntentId).getStatus();
     }
 }
@@ -0,0 +1,301 @@
+package com.FindMyService.service;
+
+import com.FindMyService.metrics.MetricsSource;
+import com.FindMyService.model.StripeWebhookEvent;
+import com.FindMyService.repository.OrderRepository;
+import com.FindMyService.repository.PaymentAttemptRepository;
+import com.FindMyService.repository.PaymentIntentRef;
+import com.FindMyService.repository.StripeWebhookEventRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Applies recorded Stripe webhook events to orders off the request path.
+ *
+ * Events wait in a bounded in-memory queue and are drained in batches. Each succeeded
+ * intent is resolved to its order through the orderId in the intent's metadata, the
+ * payment attempt that created it, or the order still holding it; one UPDATE then
+ * marks those orders PAID in the same transaction that marks the events settled.
+ * Both updates are conditional, so an event applied twice changes nothing. A
+ * succeeded event that resolves to no order stays unsettled and its miss is counted
+ * on the row; after max-match-attempts misses it is marked unmatched and no longer
+ * replayed, leaving the order (if one ever shows up) to the reconciliation pass.
+ * Events that never made it through the queue (it was full, the batch failed, the
+ * node stopped) are still unsettled in the table and are replayed from there.
+ */
+@Component
+@Slf4j
+public class PaymentSettlementQueue implements MetricsSource {
+
+    public static final String PAYMENT_SUCCEEDED = "payment_intent.succeeded";
+
+    public record Settlement(String eventId, String eventType, String paymentIntentId, Long orderId) {
+    }
+
+    private final StripeWebhookEventRepository webhookEventRepository;
+    private final OrderRepository orderRepository;
+    private final PaymentAttemptRepository paymentAttemptRepository;
+    private final TransactionTemplate tx;
+    private final BlockingQueue<Settlement> queue;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final Duration replayAfter;
+    private final int maxMatchAttempts;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "payment-settlement");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong overflowed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong eventsSettled = new AtomicLong();
+    private final AtomicLong ordersPaid = new AtomicLong();
+    private final AtomicLong unmatched = new AtomicLong();
+    private final AtomicLong parked = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public PaymentSettlementQueue(StripeWebhookEventRepository webhookEventRepository,
+                                  OrderRepository orderRepository,
+                                  PaymentAttemptRepository paymentAttemptRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${payments.settlement.capacity:10000}") int capacity,
+                                  @Value("${payments.settlement.batch-size:500}") int batchSize,
+                                  @Value("${payments.settlement.flush-interval-ms:200}") long flushIntervalMs,
+                                  @Value("${payments.settlement.replay-after-ms:30000}") long replayAfterMs,
+                                  @Value("${payments.settlement.max-match-attempts:10}") int maxMatchAttempts) {
+        this.webhookEventRepository = webhookEventRepository;
+        this.orderRepository = orderRepository;
+        this.paymentAttemptRepository = paymentAttemptRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.capacity = Math.max(1, capacity);
+        this.queue = new ArrayBlockingQueue<>(this.capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.replayAfter = Duration.ofMillis(Math.max(1, replayAfterMs));
+        this.maxMatchAttempts = Math.max(1, maxMatchAttempts);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // Anything unsettled at startup was left behind by the previous run
+        int queued = replay(Instant.now());
+        if (queued > 0) {
+            log.info("Replaying {} unsettled payment webhook events", queued);
+        }
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        long replayMs = replayAfter.toMillis();
+        scheduler.scheduleWithFixedDelay(this::replayQuietly, replayMs, replayMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdown();
+        flushQuietly();
+    }
+
+    // False when the queue is full; the event stays unsettled and is replayed later
+    public boolean submit(Settlement settlement) {
+        if (queue.offer(settlement)) {
+            accepted.incrementAndGet();
+            return true;
+        }
+        overflowed.incrementAndGet();
+        return false;
+    }
+
+    // Drains the queue; returns the number of orders marked PAID
+    public int flush() {
+        flushLock.lock();
+        try {
+            int total = 0;
+            List<Settlement> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                total += apply(batch);
+                batch.clear();
+            }
+            return total;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Re-queues unsettled events received before the cutoff, walking the table by event id
+    int replay(Instant receivedBefore) {
+        int queued = 0;
+        String lastEventId = "";
+        while (true) {
+            List<StripeWebhookEvent> events = webhookEventRepository.findUnsettled(
+                    receivedBefore, lastEventId, Limit.of(batchSize));
+            if (events.isEmpty()) {
+                return queued;
+            }
+            for (StripeWebhookEvent event : events) {
+                if (!queue.offer(new Settlement(event.getEventId(), event.getEventType(),
+                        event.getPaymentIntentId(), event.getOrderId()))) {
+                    // Still in the table; the next replay picks up where this one stopped
+                    return queued;
+                }
+                replayed.incrementAndGet();
+                queued++;
+            }
+            lastEventId = events.get(events.size() - 1).getEventId();
+        }
+    }
+
+    public int pendingCount() {
+        return queue.size();
+    }
+
+    private int apply(List<Settlement> batch) {
+        Map<String, Settlement> byEvent = new LinkedHashMap<>();
+        batch.forEach(settlement -> byEvent.putIfAbsent(settlement.eventId(), settlement));
+
+        Integer paid = tx.execute(status -> {
+            Map<String, Long> orderByIntent = resolveOrders(byEvent.values());
+            List<String> settledEventIds = new ArrayList<>(byEvent.size());
+            List<String> missedEventIds = new ArrayList<>();
+            for (Settlement settlement : byEvent.values()) {
+                if (!PAYMENT_SUCCEEDED.equals(settlement.eventType())
+                        || orderByIntent.containsKey(settlement.paymentIntentId())) {
+                    settledEventIds.add(settlement.eventId());
+                } else {
+                    missedEventIds.add(settlement.eventId());
+                    log.debug("Payment intent {} of event {} matches no order, left unsettled",
+                            settlement.paymentIntentId(), settlement.eventId());
+                }
+            }
+
+            Instant now = Instant.now();
+            Set<Long> orderIds = new TreeSet<>(orderByIntent.values());
+            int updated = orderIds.isEmpty() ? 0 : orderRepository.settlePaidOrders(orderIds, now);
+            if (!settledEventIds.isEmpty()) {
+                eventsSettled.addAndGet(webhookEventRepository.markSettled(settledEventIds, now));
+            }
+            if (!missedEventIds.isEmpty()) {
+                unmatched.addAndGet(webhookEventRepository.recordMatchMiss(missedEventIds));
+                int givenUp = webhookEventRepository.markUnmatched(missedEventIds, maxMatchAttempts, now);
+                if (givenUp > 0) {
+                    parked.addAndGet(givenUp);
+                    log.warn("{} payment webhook events matched no order after {} attempts and were marked unmatched",
+                            givenUp, maxMatchAttempts);
+                }
+            }
+            return updated;
+        });
+        batches.incrementAndGet();
+        ordersPaid.addAndGet(paid);
+        return paid;
+    }
+
+    // Succeeded intents mapped to their orders; an intent that resolves to none is left out
+    private Map<String, Long> resolveOrders(Collection<Settlement> settlements) {
+        Map<String, Long> fromMetadata = new HashMap<>();
+        Set<String> lookups = new HashSet<>();
+        for (Settlement settlement : settlements) {
+            if (!PAYMENT_SUCCEEDED.equals(settlement.eventType())) {
+                continue;
+            }
+            if (settlement.orderId() != null) {
+                fromMetadata.put(settlement.paymentIntentId(), settlement.orderId());
+            } else {
+                lookups.add(settlement.paymentIntentId());
+            }
+        }
+
+        Map<String, Long> resolved = new HashMap<>();
+        if (!fromMetadata.isEmpty()) {
+            Set<Long> existing = new HashSet<>(orderRepository.findExistingIds(new HashSet<>(fromMetadata.values())));
+            fromMetadata.forEach((intentId, orderId) -> {
+                if (existing.contains(orderId)) {
+                    resolved.put(intentId, orderId);
+                } else {
+                    lookups.add(intentId);
+                }
+            });
+        }
+        if (!lookups.isEmpty()) {
+            for (PaymentIntentRef ref : paymentAttemptRepository.findPaymentIntentRefs(lookups)) {
+                resolved.putIfAbsent(ref.paymentIntentId(), ref.orderId());
+            }
+            lookups.removeAll(resolved.keySet());
+        }
+        // Intents created before attempts were recorded are only known to their order
+        if (!lookups.isEmpty()) {
+            for (PaymentIntentRef ref : orderRepository.findPaymentIntentRefs(lookups)) {
+                resolved.putIfAbsent(ref.paymentIntentId(), ref.orderId());
+            }
+        }
+        return resolved;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            failures.incrementAndGet();
+            log.warn("Payment settlement failed, events will be replayed: {}", ex.getMessage());
+        }
+    }
+
+    private void replayQuietly() {
+        try {
+            replay(Instant.now().minus(replayAfter));
+        } catch (RuntimeException ex) {
+            log.warn("Payment settlement replay failed: {}", ex.getMessage());
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "paymentSettlement";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("queued", queue.size());
+        metrics.put("capacity", capacity);
+        metrics.put("accepted", accepted.get());
+        metrics.put("overflowed", overflowed.get());
+        metrics.put("replayed", replayed.get());
+        metrics.put("batches", batches.get());
+        metrics.put("eventsSettled", eventsSettled.get());
+        metrics.put("ordersPaid", ordersPaid.get());
+        metrics.put("unmatched", unmatched.get());
+        metrics.put("parked", parked.get());
+        metrics.put("failures", failures.get());
+        return metrics;
+    }
+}
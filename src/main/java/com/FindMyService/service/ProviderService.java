@@ -1,40 +1,97 @@
 package com.FindMyService.service;
 
+import com.FindMyService.cache.CatalogCache;
+import com.FindMyService.geo.GeoPoint;
+import com.FindMyService.geo.ZipCentroids;
+import com.FindMyService.index.CatalogIndexer;
+import com.FindMyService.index.GeoHit;
+import com.FindMyService.index.GeoIndex;
 import com.FindMyService.model.Provider;
+import com.FindMyService.model.dto.NearbyProviderDto;
 import com.FindMyService.model.dto.ProviderDto;
 import com.FindMyService.repository.ProviderRepository;
+import com.FindMyService.security.PasswordHashingRejectedException;
+import com.FindMyService.security.PasswordHasher;
 import com.FindMyService.utils.DtoMapper;
 import com.FindMyService.utils.ResponseBuilder;
 import com.FindMyService.utils.OwnerCheck;
+import com.FindMyService.utils.Ratings;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ProviderService {
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
     private final ProviderRepository providerRepository;
+    private final CatalogIndexer catalogIndexer;
+    private final CatalogCache catalogCache;
+    private final GeoIndex geoIndex;
+    private final ZipCentroids zipCentroids;
 
-    public ProviderService(ProviderRepository providerRepository, OwnerCheck ownerCheck) {
+    public ProviderService(ProviderRepository providerRepository, OwnerCheck ownerCheck,
+                           CatalogIndexer catalogIndexer, CatalogCache catalogCache,
+                           GeoIndex geoIndex, ZipCentroids zipCentroids) {
         this.providerRepository = providerRepository;
+        this.catalogIndexer = catalogIndexer;
+        this.catalogCache = catalogCache;
+        this.geoIndex = geoIndex;
+        this.zipCentroids = zipCentroids;
     }
 
     public List<Provider> getAllProviders() {
         return providerRepository.findAll();
     }
 
-    public Optional<Provider> getProviderById(Long providerId) {
-        return providerRepository.findById(providerId);
+    public Stream<Provider> streamAllProviders() {
+        return providerRepository.streamAll();
     }
 
-    @Transactional
+    public Optional<ProviderDto> getProviderById(Long providerId) {
+        return catalogCache.getProvider(providerId, id -> providerRepository.findById(id).map(DtoMapper::toDto));
+    }
+
+    public List<NearbyProviderDto> nearby(Double latitude, Double longitude, String zipCode, Double radiusKm,
+                                          int limit, double ratingWeight) {
+        GeoPoint origin = zipCentroids.origin(latitude, longitude, zipCode);
+        List<GeoHit> hits = geoIndex.nearbyProviders(origin, radiusKm, Math.max(1, Math.min(limit, 100)), ratingWeight);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Provider> providers = providerRepository.findAllById(hits.stream().map(GeoHit::id).toList())
+                .stream()
+                .collect(Collectors.toMap(Provider::getProviderId, Function.identity()));
+        return hits.stream()
+                .filter(hit -> providers.containsKey(hit.id()))
+                .map(hit -> {
+                    Provider provider = providers.get(hit.id());
+                    return NearbyProviderDto.builder()
+                            .providerId(provider.getProviderId())
+                            .providerName(provider.getProviderName())
+                            .city(provider.getCity())
+                            .state(provider.getState())
+                            .latitude(provider.getLatitude())
+                            .longitude(provider.getLongitude())
+                            .avgRating(Ratings.average(provider.getRatingSum(), provider.getTotalRatings()))
+                            .totalRatings(provider.getTotalRatings())
+                            .distanceKm(hit.distanceKm())
+                            .build();
+                })
+                .toList();
+    }
+
+    // Not transactional: no connection is held while the password is hashed
     public ResponseEntity<?> createProvider(Provider provider) {
         if (provider.getEmail() == null || provider.getEmail().isEmpty()) {
             return ResponseEntity
@@ -49,9 +106,15 @@ public class ProviderService {
         }
 
         try {
-            provider.setPassword(passwordEncoder.encode(provider.getPassword()));
+            provider.setPassword(passwordHasher.hashNow(provider.getPassword()));
             Provider created = providerRepository.save(provider);
+            catalogCache.evictProvider(created.getProviderId());
+            geoIndex.indexProviderAfterCommit(created);
             return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        } catch (PasswordHashingRejectedException e) {
+            return ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(ResponseBuilder.build(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity
                     .status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -63,6 +126,7 @@ public class ProviderService {
     public ProviderDto updateProvider(Long providerId, ProviderDto providerDto) {
         Provider existingProvider = providerRepository.findById(providerId)
                 .orElseThrow(() -> new IllegalArgumentException("Provider not found with id: " + providerId));
+        String previousName = existingProvider.getProviderName();
 
         updateIfNotNull(providerDto.getProviderName(), existingProvider::setProviderName);
         updateIfNotNull(providerDto.getEmail(), existingProvider::setEmail);
@@ -72,12 +136,21 @@ public class ProviderService {
         updateIfNotNull(providerDto.getCity(), existingProvider::setCity);
         updateIfNotNull(providerDto.getState(), existingProvider::setState);
         updateIfNotNull(providerDto.getZipCode(), existingProvider::setZipCode);
+        updateIfNotNull(providerDto.getLatitude(), existingProvider::setLatitude);
+        updateIfNotNull(providerDto.getLongitude(), existingProvider::setLongitude);
 
         if (providerDto.getPassword() != null && !providerDto.getPassword().isEmpty()) {
-            existingProvider.setPassword(passwordEncoder.encode(providerDto.getPassword()));
+            existingProvider.setPassword(passwordHasher.hashNow(providerDto.getPassword()));
         }
 
         Provider updated = providerRepository.save(existingProvider);
+        catalogCache.evictProvider(providerId);
+        geoIndex.indexProviderAfterCommit(updated);
+        if (!java.util.Objects.equals(previousName, updated.getProviderName())) {
+            // Provider name is part of every service's searchable text and cached DTO
+            catalogCache.evictServicesOfProvider(providerId);
+            catalogIndexer.reindexProviderAfterCommit(providerId);
+        }
         return DtoMapper.toDto(updated);
     }
 
@@ -86,6 +159,9 @@ public class ProviderService {
         Provider provider = providerRepository.findById(providerId)
                 .orElseThrow(() -> new IllegalArgumentException("Provider not found with id: " + providerId));
         providerRepository.delete(provider);
+        catalogCache.evictProvider(providerId);
+        catalogCache.evictServicesOfProvider(providerId);
+        geoIndex.removeProviderAfterCommit(providerId);
     }
 
     private <T> void updateIfNotNull(T value, java.util.function.Consumer<T> setter) {
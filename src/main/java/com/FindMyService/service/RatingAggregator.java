@@ -0,0 +1,262 @@
+package com.FindMyService.service;
+
+import com.FindMyService.cache.CatalogCache;
+import com.FindMyService.index.CatalogIndexer;
+import com.FindMyService.index.GeoIndex;
+import com.FindMyService.metrics.MetricsSource;
+import com.FindMyService.repository.FeedbackRepository;
+import com.FindMyService.repository.PendingRating;
+import com.FindMyService.repository.ProviderRepository;
+import com.FindMyService.repository.ServiceCatalogRepository;
+import com.FindMyService.utils.AfterCommit;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Folds feedback ratings into the service and provider aggregates off the request path.
+ *
+ * Committed feedback ids are queued and flushed every few hundred milliseconds: the
+ * still-unapplied rows are read back, coalesced per service and per provider, and
+ * written with one UPDATE per row touched in the same transaction that marks the
+ * feedbacks applied. A flush first locks the unapplied rows it will fold and skips
+ * rows another flush already holds, so two instances draining the same ids never
+ * count a rating twice. The flag makes a flush idempotent, so ids can be queued
+ * twice and anything still unapplied after a restart is simply replayed.
+ */
+@Component
+@Slf4j
+public class RatingAggregator implements MetricsSource {
+
+    private final FeedbackRepository feedbackRepository;
+    private final ServiceCatalogRepository serviceCatalogRepository;
+    private final ProviderRepository providerRepository;
+    private final CatalogCache catalogCache;
+    private final CatalogIndexer catalogIndexer;
+    private final GeoIndex geoIndex;
+    private final TransactionTemplate tx;
+    private final long flushIntervalMs;
+    private final int batchSize;
+
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rating-aggregator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong rowUpdates = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public RatingAggregator(FeedbackRepository feedbackRepository,
+                            ServiceCatalogRepository serviceCatalogRepository,
+                            ProviderRepository providerRepository,
+                            CatalogCache catalogCache,
+                            CatalogIndexer catalogIndexer,
+                            GeoIndex geoIndex,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${ratings.flush-interval-ms:250}") long flushIntervalMs,
+                            @Value("${ratings.flush-batch-size:1000}") int batchSize) {
+        this.feedbackRepository = feedbackRepository;
+        this.serviceCatalogRepository = serviceCatalogRepository;
+        this.providerRepository = providerRepository;
+        this.catalogCache = catalogCache;
+        this.catalogIndexer = catalogIndexer;
+        this.geoIndex = geoIndex;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        int replayed = replay();
+        if (replayed > 0) {
+            log.info("Replaying {} unapplied feedback ratings", replayed);
+        }
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdown();
+        flushQuietly();
+    }
+
+    // Queues the feedback once the surrounding transaction commits
+    public void enqueueAfterCommit(Long feedbackId) {
+        AfterCommit.run(() -> pending.add(feedbackId));
+    }
+
+    int replay() {
+        int queued = 0;
+        Long lastId = 0L;
+        while (true) {
+            List<Long> ids = feedbackRepository.findUnappliedIds(lastId, Limit.of(batchSize));
+            if (ids.isEmpty()) {
+                return queued;
+            }
+            pending.addAll(ids);
+            queued += ids.size();
+            lastId = ids.get(ids.size() - 1);
+        }
+    }
+
+    // Drains the queue; returns the number of feedbacks applied
+    public int flush() {
+        flushLock.lock();
+        try {
+            int total = 0;
+            List<Long> batch;
+            while (!(batch = drain()).isEmpty()) {
+                try {
+                    total += apply(batch);
+                } catch (RuntimeException ex) {
+                    pending.addAll(batch);
+                    throw ex;
+                }
+            }
+            return total;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Runs work that rewrites the aggregates wholesale without a flush interleaving
+    public <T> T exclusive(Supplier<T> work) {
+        flushLock.lock();
+        try {
+            return work.get();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            failures.incrementAndGet();
+            log.warn("Rating flush failed, {} feedbacks will be retried: {}", pending.size(), ex.getMessage());
+        }
+    }
+
+    private List<Long> drain() {
+        List<Long> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+        Iterator<Long> it = pending.iterator();
+        while (it.hasNext() && batch.size() < batchSize) {
+            batch.add(it.next());
+            it.remove();
+        }
+        return batch;
+    }
+
+    private int apply(List<Long> feedbackIds) {
+        Integer count = tx.execute(status -> {
+            List<Long> claimed = feedbackRepository.claimUnapplied(feedbackIds);
+            if (claimed.isEmpty()) {
+                return 0;
+            }
+            List<PendingRating> ratings = feedbackRepository.findPendingRatings(claimed);
+            if (ratings.isEmpty()) {
+                return 0;
+            }
+
+            // Sorted so concurrent writers always lock rows in the same order
+            Map<Long, Delta> byService = new TreeMap<>();
+            Map<Long, Delta> byProvider = new TreeMap<>();
+            List<Long> appliedIds = new ArrayList<>(ratings.size());
+            for (PendingRating rating : ratings) {
+                appliedIds.add(rating.feedbackId());
+                if (rating.rating() == null || rating.rating() < 1 || rating.rating() > 5) {
+                    continue;
+                }
+                byService.computeIfAbsent(rating.serviceId(), id -> new Delta()).add(rating.rating());
+                byProvider.computeIfAbsent(rating.providerId(), id -> new Delta()).add(rating.rating());
+            }
+
+            Instant now = Instant.now();
+            byService.forEach((serviceId, d) -> serviceCatalogRepository.addRatings(serviceId, d.count, d.sum,
+                    d.stars[0], d.stars[1], d.stars[2], d.stars[3], d.stars[4], now));
+            byProvider.forEach((providerId, d) -> providerRepository.addRatings(providerId, d.count, d.sum,
+                    d.stars[0], d.stars[1], d.stars[2], d.stars[3], d.stars[4]));
+            if (feedbackRepository.markRatingsApplied(appliedIds) != appliedIds.size()) {
+                throw new IllegalStateException("Feedback ratings were applied by another flush");
+            }
+
+            byService.keySet().forEach(serviceId -> {
+                catalogCache.evictService(serviceId);
+                catalogIndexer.reindexAfterCommit(serviceId);
+            });
+            byProvider.keySet().forEach(providerId -> {
+                catalogCache.evictProvider(providerId);
+                geoIndex.reindexProviderAfterCommit(providerId);
+            });
+
+            rowUpdates.addAndGet(byService.size() + byProvider.size());
+            return ratings.size();
+        });
+
+        int done = count == null ? 0 : count;
+        flushes.incrementAndGet();
+        applied.addAndGet(done);
+        return done;
+    }
+
+    @Override
+    public String metricsName() {
+        return "ratingAggregator";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("pending", pending.size());
+        metrics.put("flushes", flushes.get());
+        metrics.put("applied", applied.get());
+        metrics.put("rowUpdates", rowUpdates.get());
+        metrics.put("failures", failures.get());
+        return metrics;
+    }
+
+    private static final class Delta {
+        private int count;
+        private long sum;
+        private final int[] stars = new int[5];
+
+        void add(int rating) {
+            count++;
+            sum += rating;
+            stars[rating - 1]++;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.FindMyService.service;
+
+import com.FindMyService.cache.CatalogCache;
+import com.FindMyService.index.CatalogIndexer;
+import com.FindMyService.index.GeoIndex;
+import com.FindMyService.repository.FeedbackRepository;
+import com.FindMyService.repository.ProviderRepository;
+import com.FindMyService.repository.ServiceCatalogRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Recomputes the stored rating columns of services and providers from feedbacks.
+ *
+ * Each id range is one UPDATE in its own short transaction, so chunks run in
+ * parallel and no lock is held across the whole table. Runs with the rating
+ * aggregator paused: feedbacks up to a watermark are counted here and marked
+ * applied in the same transaction as their service's chunk, later ones are left
+ * for the aggregator. A run that dies part way leaves the feedbacks of unfinished
+ * chunks unapplied, so the aggregator still folds them in.
+ */
+@Service
+@Slf4j
+public class RatingBackfillService {
+
+    @FunctionalInterface
+    private interface RangeUpdate {
+        int apply(long fromId, long toId);
+    }
+
+    private final ServiceCatalogRepository serviceCatalogRepository;
+    private final ProviderRepository providerRepository;
+    private final FeedbackRepository feedbackRepository;
+    private final RatingAggregator ratingAggregator;
+    private final TransactionTemplate tx;
+    private final CatalogIndexer catalogIndexer;
+    private final GeoIndex geoIndex;
+    private final CatalogCache catalogCache;
+    private final int chunkSize;
+    private final int threads;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public RatingBackfillService(ServiceCatalogRepository serviceCatalogRepository,
+                                 ProviderRepository providerRepository,
+                                 FeedbackRepository feedbackRepository,
+                                 RatingAggregator ratingAggregator,
+                                 PlatformTransactionManager transactionManager,
+                                 CatalogIndexer catalogIndexer,
+                                 GeoIndex geoIndex,
+                                 CatalogCache catalogCache,
+                                 @Value("${ratings.backfill.chunk-size:1000}") int chunkSize,
+                                 @Value("${ratings.backfill.threads:4}") int threads) {
+        this.serviceCatalogRepository = serviceCatalogRepository;
+        this.providerRepository = providerRepository;
+        this.feedbackRepository = feedbackRepository;
+        this.ratingAggregator = ratingAggregator;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.catalogIndexer = catalogIndexer;
+        this.geoIndex = geoIndex;
+        this.catalogCache = catalogCache;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.threads = Math.max(1, threads);
+    }
+
+    public Map<String, Object> backfill() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A rating backfill is already running");
+        }
+        try {
+            return ratingAggregator.exclusive(this::run);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Map<String, Object> run() {
+        long started = System.currentTimeMillis();
+        Instant now = Instant.now();
+        long maxFeedbackId = feedbackRepository.findMaxFeedbackId();
+
+        int services = recompute(serviceCatalogRepository.findMaxServiceId(), (fromId, toId) -> {
+            feedbackRepository.markRatingsAppliedInRange(maxFeedbackId, fromId, toId);
+            return serviceCatalogRepository.recomputeRatings(fromId, toId, maxFeedbackId, now);
+        });
+        int providers = recompute(providerRepository.findMaxProviderId(),
+                (fromId, toId) -> providerRepository.recomputeRatings(fromId, toId, maxFeedbackId));
+
+        catalogCache.evictAll();
+        catalogIndexer.loadAll();
+        geoIndex.loadProviders();
+
+        long elapsed = System.currentTimeMillis() - started;
+        log.info("Rating backfill updated {} services and {} providers in {} ms", services, providers, elapsed);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("services", services);
+        summary.put("providers", providers);
+        summary.put("feedbackWatermark", maxFeedbackId);
+        summary.put("elapsedMs", elapsed);
+        return summary;
+    }
+
+    private int recompute(long maxId, RangeUpdate update) {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> chunks = new ArrayList<>();
+            for (long fromId = 1; fromId <= maxId; fromId += chunkSize) {
+                long from = fromId;
+                long to = Math.min(maxId, fromId + chunkSize - 1);
+                chunks.add(pool.submit(() -> tx.execute(status -> update.apply(from, to))));
+            }
+
+            int updated = 0;
+            for (Future<Integer> chunk : chunks) {
+                updated += chunk.get();
+            }
+            return updated;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Rating backfill interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new RuntimeException("Rating backfill failed", ex.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
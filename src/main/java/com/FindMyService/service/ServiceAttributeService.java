@@ -0,0 +1,100 @@
+package com.FindMyService.service;
+
+import com.FindMyService.index.AttributeIndex;
+import com.FindMyService.model.ServiceAttribute;
+import com.FindMyService.model.ServiceCatalog;
+import com.FindMyService.model.dto.ServiceAttributeDto;
+import com.FindMyService.model.enums.AttributeValueType;
+import com.FindMyService.repository.ServiceAttributeRepository;
+import com.FindMyService.repository.ServiceCatalogRepository;
+import com.FindMyService.utils.DtoMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Locale;
+
+@Service
+public class ServiceAttributeService {
+
+    private final ServiceAttributeRepository serviceAttributeRepository;
+    private final ServiceCatalogRepository serviceCatalogRepository;
+    private final AttributeIndex attributeIndex;
+
+    public ServiceAttributeService(ServiceAttributeRepository serviceAttributeRepository,
+                                   ServiceCatalogRepository serviceCatalogRepository,
+                                   AttributeIndex attributeIndex) {
+        this.serviceAttributeRepository = serviceAttributeRepository;
+        this.serviceCatalogRepository = serviceCatalogRepository;
+        this.attributeIndex = attributeIndex;
+    }
+
+    public List<ServiceAttributeDto> getAttributes(Long serviceId) {
+        if (!serviceCatalogRepository.existsById(serviceId)) {
+            throw new IllegalArgumentException("Service not found with id: " + serviceId);
+        }
+        return serviceAttributeRepository.findByServiceId_ServiceIdOrderByAttributeIdAsc(serviceId)
+                .stream()
+                .map(DtoMapper::toDto)
+                .toList();
+    }
+
+    @Transactional
+    public ServiceAttributeDto addAttribute(Long serviceId, ServiceAttributeDto attributeDto) {
+        ServiceCatalog service = serviceCatalogRepository.findById(serviceId)
+                .orElseThrow(() -> new IllegalArgumentException("Service not found with id: " + serviceId));
+
+        ServiceAttribute attribute = ServiceAttribute.builder().serviceId(service).build();
+        apply(attribute, attributeDto);
+        ServiceAttribute saved = serviceAttributeRepository.save(attribute);
+        attributeIndex.indexAfterCommit(saved);
+        return DtoMapper.toDto(saved);
+    }
+
+    @Transactional
+    public ServiceAttributeDto updateAttribute(Long serviceId, Long attributeId, ServiceAttributeDto attributeDto) {
+        ServiceAttribute attribute = findOwned(serviceId, attributeId);
+
+        ServiceAttributeDto merged = ServiceAttributeDto.builder()
+                .attributeName(attributeDto.getAttributeName() != null ? attributeDto.getAttributeName() : attribute.getAttributeName())
+                .attributeValue(attributeDto.getAttributeValue() != null ? attributeDto.getAttributeValue() : attribute.getAttributeValue())
+                .valueType(attributeDto.getValueType() != null ? attributeDto.getValueType() : attribute.getValueType())
+                .build();
+        apply(attribute, merged);
+        ServiceAttribute saved = serviceAttributeRepository.save(attribute);
+        attributeIndex.indexAfterCommit(saved);
+        return DtoMapper.toDto(saved);
+    }
+
+    @Transactional
+    public void deleteAttribute(Long serviceId, Long attributeId) {
+        ServiceAttribute attribute = findOwned(serviceId, attributeId);
+        serviceAttributeRepository.delete(attribute);
+        attributeIndex.removeAfterCommit(attributeId);
+    }
+
+    private ServiceAttribute findOwned(Long serviceId, Long attributeId) {
+        ServiceAttribute attribute = serviceAttributeRepository.findById(attributeId)
+                .orElseThrow(() -> new IllegalArgumentException("Attribute not found with id: " + attributeId));
+        if (!attribute.getServiceId().getServiceId().equals(serviceId)) {
+            throw new IllegalArgumentException("Attribute not found with id: " + attributeId);
+        }
+        return attribute;
+    }
+
+    // Rejects values that do not parse as their declared type, so the index never sees them
+    private void apply(ServiceAttribute attribute, ServiceAttributeDto attributeDto) {
+        if (attributeDto.getAttributeName() == null || attributeDto.getAttributeName().isBlank()) {
+            throw new IllegalArgumentException("attributeName is required");
+        }
+        if (attributeDto.getAttributeValue() == null || attributeDto.getAttributeValue().isBlank()) {
+            throw new IllegalArgumentException("attributeValue is required");
+        }
+        AttributeValueType type = AttributeValueType.fromValue(attributeDto.getValueType());
+        type.normalize(attributeDto.getAttributeValue());
+
+        attribute.setAttributeName(attributeDto.getAttributeName().trim());
+        attribute.setAttributeValue(attributeDto.getAttributeValue().trim());
+        attribute.setValueType(type.name().toLowerCase(Locale.ROOT));
+    }
+}
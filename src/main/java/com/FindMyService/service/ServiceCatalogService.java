@@ -1,44 +1,302 @@
 package com.FindMyService.service;
 
+import com.FindMyService.cache.CatalogCache;
+import com.FindMyService.geo.GeoPoint;
+import com.FindMyService.geo.ZipCentroids;
+import com.FindMyService.index.AttributeIndex;
+import com.FindMyService.index.AttributePredicate;
+import com.FindMyService.index.AttributeResult;
+import com.FindMyService.index.CatalogIndexer;
+import com.FindMyService.index.FacetIndex;
+import com.FindMyService.index.FacetQuery;
+import com.FindMyService.index.FacetResult;
+import com.FindMyService.index.GeoHit;
+import com.FindMyService.index.GeoIndex;
+import com.FindMyService.index.LeaderboardIndex;
+import com.FindMyService.index.SearchHit;
+import com.FindMyService.index.SearchIndex;
 import com.FindMyService.model.Provider;
 import com.FindMyService.model.ServiceCatalog;
+import com.FindMyService.model.dto.CursorPage;
+import com.FindMyService.model.dto.NearbyServiceDto;
 import com.FindMyService.model.dto.ServiceCatalogDto;
+import com.FindMyService.model.dto.ServiceFacetResponseDto;
+import com.FindMyService.model.dto.ServiceSearchResultDto;
+import com.FindMyService.model.dto.TopRatedServiceDto;
+import com.FindMyService.model.enums.Availability;
+import com.FindMyService.model.enums.ServiceSortField;
 import com.FindMyService.repository.ProviderRepository;
+import com.FindMyService.repository.ServiceAttributeRepository;
 import com.FindMyService.repository.ServiceCatalogRepository;
+import com.FindMyService.repository.ServiceCatalogSpecifications;
+import com.FindMyService.utils.CursorCodec;
 import com.FindMyService.utils.DtoMapper;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ServiceCatalogService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final ServiceCatalogRepository serviceCatalogRepository;
     private final ProviderRepository providerRepository;
+    private final CatalogIndexer catalogIndexer;
+    private final SearchIndex searchIndex;
+    private final FacetIndex facetIndex;
+    private final GeoIndex geoIndex;
+    private final ZipCentroids zipCentroids;
+    private final AttributeIndex attributeIndex;
+    private final LeaderboardIndex leaderboardIndex;
+    private final ServiceAttributeRepository serviceAttributeRepository;
+    private final CatalogCache catalogCache;
 
     public ServiceCatalogService(ServiceCatalogRepository serviceCatalogRepository,
-                                 ProviderRepository providerRepository) {
+                                 ProviderRepository providerRepository,
+                                 CatalogIndexer catalogIndexer,
+                                 SearchIndex searchIndex,
+                                 FacetIndex facetIndex,
+                                 GeoIndex geoIndex,
+                                 ZipCentroids zipCentroids,
+                                 AttributeIndex attributeIndex,
+                                 LeaderboardIndex leaderboardIndex,
+                                 ServiceAttributeRepository serviceAttributeRepository,
+                                 CatalogCache catalogCache) {
         this.serviceCatalogRepository = serviceCatalogRepository;
         this.providerRepository = providerRepository;
+        this.catalogIndexer = catalogIndexer;
+        this.searchIndex = searchIndex;
+        this.facetIndex = facetIndex;
+        this.geoIndex = geoIndex;
+        this.zipCentroids = zipCentroids;
+        this.attributeIndex = attributeIndex;
+        this.leaderboardIndex = leaderboardIndex;
+        this.serviceAttributeRepository = serviceAttributeRepository;
+        this.catalogCache = catalogCache;
+    }
+
+    public CursorPage<ServiceCatalogDto> getServicesPage(ServiceSortField sortField, Sort.Direction direction,
+                                                         String cursor, int size) {
+        return findPage(null, sortField, direction, cursor, size);
     }
 
-    public List<ServiceCatalog> getAllServices() {
-        return serviceCatalogRepository.findAll();
+    public Optional<ServiceCatalogDto> getServiceDtoById(Long serviceId) {
+        return catalogCache.getService(serviceId, id -> serviceCatalogRepository.findWithProviderByServiceId(id)
+                .map(DtoMapper::toDto));
     }
 
-    public Optional<ServiceCatalog> getServiceById(Long serviceId) {
-        return serviceCatalogRepository.findById(serviceId);
+    public CursorPage<ServiceCatalogDto> getServicesByProvider(Long providerId, ServiceSortField sortField,
+                                                               Sort.Direction direction, String cursor, int size) {
+        if (providerId == null || providerId <= 0 || !providerRepository.existsById(providerId)) {
+            return CursorPage.<ServiceCatalogDto>builder().items(List.of()).hasMore(false).build();
+        }
+        return findPage(providerId, sortField, direction, cursor, size);
     }
 
-    public List<ServiceCatalog> getServicesByProvider(Long providerId) {
-        if (providerId == null || providerId <= 0) {
+    public List<ServiceSearchResultDto> search(String query, int limit) {
+        List<SearchHit> hits = searchIndex.search(query, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        if (hits.isEmpty()) {
             return List.of();
         }
-        if (!providerRepository.existsById(providerId)) {
+
+        Map<Long, ServiceCatalog> services = serviceCatalogRepository
+                .findWithProviderByServiceIdIn(hits.stream().map(SearchHit::serviceId).toList())
+                .stream()
+                .collect(Collectors.toMap(ServiceCatalog::getServiceId, Function.identity()));
+
+        // Keep index ranking; skip hits deleted between the index lookup and the fetch
+        return hits.stream()
+                .filter(hit -> services.containsKey(hit.serviceId()))
+                .map(hit -> ServiceSearchResultDto.builder()
+                        .service(DtoMapper.toDto(services.get(hit.serviceId())))
+                        .score(hit.score())
+                        .build())
+                .toList();
+    }
+
+    public ServiceFacetResponseDto filterServices(FacetQuery query, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Long beforeServiceId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            beforeServiceId = parseId(CursorCodec.decode(cursor, 1).get(0));
+        }
+
+        FacetResult result = facetIndex.query(query, beforeServiceId, pageSize);
+        List<ServiceCatalogDto> items = hydrate(result.serviceIds());
+
+        String nextCursor = result.hasMore() && !result.serviceIds().isEmpty()
+                ? CursorCodec.encode(result.serviceIds().get(result.serviceIds().size() - 1).toString())
+                : null;
+
+        return ServiceFacetResponseDto.builder()
+                .total(result.total())
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(result.hasMore())
+                .facets(Map.of(
+                        "availability", result.availability(),
+                        "price", result.priceBuckets(),
+                        "location", result.locations()))
+                .build();
+    }
+
+    public CursorPage<ServiceCatalogDto> filterByAttributes(List<AttributePredicate> predicates, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Long beforeServiceId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            beforeServiceId = parseId(CursorCodec.decode(cursor, 1).get(0));
+        }
+
+        AttributeResult result = attributeIndex.query(predicates, beforeServiceId, pageSize);
+        String nextCursor = result.hasMore() && !result.serviceIds().isEmpty()
+                ? CursorCodec.encode(result.serviceIds().get(result.serviceIds().size() - 1).toString())
+                : null;
+
+        return CursorPage.<ServiceCatalogDto>builder()
+                .items(hydrate(result.serviceIds()))
+                .nextCursor(nextCursor)
+                .hasMore(result.hasMore())
+                .build();
+    }
+
+    // Served from the leaderboard and the DTO cache; only cold entries reach the database, in one query
+    public List<TopRatedServiceDto> topRated(String location, Availability availability, int limit) {
+        List<LeaderboardIndex.Ranked> ranked = leaderboardIndex.top(location, availability,
+                Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        if (ranked.isEmpty()) {
             return List.of();
         }
-        return serviceCatalogRepository.findByProviderId_ProviderId(providerId);
+
+        Map<Long, ServiceCatalogDto> services = catalogCache.getServices(
+                ranked.stream().map(LeaderboardIndex.Ranked::serviceId).toList(),
+                ids -> serviceCatalogRepository.findWithProviderByServiceIdIn(ids)
+                        .stream()
+                        .collect(Collectors.toMap(ServiceCatalog::getServiceId, DtoMapper::toDto)));
+        return ranked.stream()
+                .filter(entry -> services.containsKey(entry.serviceId()))
+                .map(entry -> TopRatedServiceDto.builder()
+                        .service(services.get(entry.serviceId()))
+                        .score(entry.score())
+                        .build())
+                .toList();
+    }
+
+    public List<NearbyServiceDto> nearby(Double latitude, Double longitude, String zipCode, Double radiusKm,
+                                         int limit, double ratingWeight) {
+        GeoPoint origin = zipCentroids.origin(latitude, longitude, zipCode);
+        List<GeoHit> hits = geoIndex.nearbyServices(origin, radiusKm, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)), ratingWeight);
+
+        Map<Long, ServiceCatalogDto> services = hydrate(hits.stream().map(GeoHit::id).toList())
+                .stream()
+                .collect(Collectors.toMap(ServiceCatalogDto::getServiceId, Function.identity()));
+        return hits.stream()
+                .filter(hit -> services.containsKey(hit.id()))
+                .map(hit -> NearbyServiceDto.builder()
+                        .service(services.get(hit.id()))
+                        .distanceKm(hit.distanceKm())
+                        .build())
+                .toList();
+    }
+
+    private List<ServiceCatalogDto> hydrate(List<Long> serviceIds) {
+        if (serviceIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ServiceCatalog> services = serviceCatalogRepository
+                .findWithProviderByServiceIdIn(serviceIds)
+                .stream()
+                .collect(Collectors.toMap(ServiceCatalog::getServiceId, Function.identity()));
+        return serviceIds.stream()
+                .filter(services::containsKey)
+                .map(id -> DtoMapper.toDto(services.get(id)))
+                .toList();
+    }
+
+    private CursorPage<ServiceCatalogDto> findPage(Long providerId, ServiceSortField sortField,
+                                                   Sort.Direction direction, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        String lastValue = null;
+        Long lastId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            List<String> parts = CursorCodec.decode(cursor, 4);
+            if (!sortField.name().equals(parts.get(0)) || !direction.name().equals(parts.get(1))) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort");
+            }
+            lastValue = parts.get(2);
+            lastId = parseId(parts.get(3));
+        }
+
+        Specification<ServiceCatalog> spec = ServiceCatalogSpecifications.ownedBy(providerId)
+                .and(seekAfter(sortField, direction, lastValue, lastId));
+        Sort sort = Sort.by(direction, sortField.getProperty()).and(Sort.by(direction, "serviceId"));
+
+        // Fetch one extra row to learn whether another page exists without a COUNT query.
+        // The provider is joined in so DtoMapper does not trigger one lazy load per row.
+        List<ServiceCatalog> rows = serviceCatalogRepository.findBy(spec, q -> q
+                .project("providerId")
+                .sortBy(sort)
+                .limit(pageSize + 1)
+                .all());
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ServiceCatalog> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            ServiceCatalog last = page.get(page.size() - 1);
+            nextCursor = CursorCodec.encode(
+                    sortField.name(),
+                    direction.name(),
+                    sortValue(last, sortField),
+                    last.getServiceId().toString());
+        }
+
+        return CursorPage.<ServiceCatalogDto>builder()
+                .items(page.stream().map(DtoMapper::toDto).toList())
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private Specification<ServiceCatalog> seekAfter(ServiceSortField sortField, Sort.Direction direction,
+                                                    String lastValue, Long lastId) {
+        try {
+            return switch (sortField) {
+                case CREATED_AT -> ServiceCatalogSpecifications.after(sortField.getProperty(), direction,
+                        lastValue != null ? Instant.parse(lastValue) : null, lastId);
+                case COST, AVG_RATING -> ServiceCatalogSpecifications.after(sortField.getProperty(), direction,
+                        lastValue != null ? new BigDecimal(lastValue) : null, lastId);
+            };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+    }
+
+    private String sortValue(ServiceCatalog service, ServiceSortField sortField) {
+        return switch (sortField) {
+            case CREATED_AT -> service.getCreatedAt() != null ? service.getCreatedAt().toString() : null;
+            case COST -> service.getCost() != null ? service.getCost().toPlainString() : null;
+            case AVG_RATING -> service.getAvgRating() != null ? service.getAvgRating().toPlainString() : null;
+        };
+    }
+
+    private Long parseId(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
     }
 
     @Transactional
@@ -47,7 +305,10 @@ public class ServiceCatalogService {
                 .orElseThrow(() -> new IllegalArgumentException("Provider from payload not found"));
 
         ServiceCatalog serviceEntity = DtoMapper.toEntity(serviceDto, provider);
-        ServiceCatalog saved = serviceCatalogRepository.save(serviceEntity);
+        // Flush so the generated timestamps are in the snapshot the indexes receive
+        ServiceCatalog saved = serviceCatalogRepository.saveAndFlush(serviceEntity);
+        catalogCache.evictService(saved.getServiceId());
+        catalogIndexer.indexAfterCommit(saved);
         return DtoMapper.toDto(saved);
     }
 
@@ -66,12 +327,16 @@ public class ServiceCatalogService {
         updateIfNotNull(serviceDto.getDescription(), existingService::setDescription);
         updateIfNotNull(serviceDto.getCost(), existingService::setCost);
         updateIfNotNull(serviceDto.getLocation(), existingService::setLocation);
+        updateIfNotNull(serviceDto.getLatitude(), existingService::setLatitude);
+        updateIfNotNull(serviceDto.getLongitude(), existingService::setLongitude);
         updateIfNotNull(serviceDto.getAvailability(), existingService::setAvailability);
         updateIfNotNull(serviceDto.getWarrantyPeriodMonths(), existingService::setWarrantyPeriodMonths);
         updateIfNotNull(serviceDto.getImageUrl(), existingService::setImageUrl);
         updateIfNotNull(serviceDto.getActive(), existingService::setActive);
 
-        ServiceCatalog updatedService = serviceCatalogRepository.save(existingService);
+        ServiceCatalog updatedService = serviceCatalogRepository.saveAndFlush(existingService);
+        catalogCache.evictService(serviceId);
+        catalogIndexer.indexAfterCommit(updatedService);
         return DtoMapper.toDto(updatedService);
     }
 
@@ -79,7 +344,10 @@ public class ServiceCatalogService {
     public void deleteService(Long serviceId) {
         ServiceCatalog service = serviceCatalogRepository.findById(serviceId)
                 .orElseThrow(() -> new IllegalArgumentException("Service not found with id: " + serviceId));
+        serviceAttributeRepository.deleteAllOfService(serviceId);
         serviceCatalogRepository.delete(service);
+        catalogCache.evictService(serviceId);
+        catalogIndexer.removeAfterCommit(serviceId);
     }
 
     private <T> void updateIfNotNull(T value, java.util.function.Consumer<T> setter) {
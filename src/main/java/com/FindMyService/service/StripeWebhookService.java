@@ -0,0 +1,123 @@
+package com.FindMyService.service;
+
+import com.FindMyService.metrics.MetricsSource;
+import com.FindMyService.repository.StripeWebhookEventRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stripe.exception.SignatureVerificationException;
+import com.stripe.net.Webhook;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Verifies and records Stripe webhook deliveries. The event id is inserted into
+ * stripe_webhook_events before anything else, so a redelivery fails the insert and
+ * is acknowledged without being applied again; recorded events are handed to the
+ * settlement queue and the request returns without touching orders.
+ */
+@Service
+@Slf4j
+public class StripeWebhookService implements MetricsSource {
+
+    private static final String PAYMENT_INTENT_EVENT_PREFIX = "payment_intent.";
+
+    private final StripeWebhookEventRepository webhookEventRepository;
+    private final PaymentSettlementQueue settlementQueue;
+    private final ObjectMapper objectMapper;
+    private final String webhookSecret;
+    private final long toleranceSeconds;
+
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong ignored = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public StripeWebhookService(StripeWebhookEventRepository webhookEventRepository,
+                                PaymentSettlementQueue settlementQueue,
+                                ObjectMapper objectMapper,
+                                @Value("${stripe.webhook.secret}") String webhookSecret,
+                                @Value("${stripe.webhook.tolerance-seconds:300}") long toleranceSeconds) {
+        this.webhookEventRepository = webhookEventRepository;
+        this.settlementQueue = settlementQueue;
+        this.objectMapper = objectMapper;
+        this.webhookSecret = webhookSecret;
+        this.toleranceSeconds = toleranceSeconds;
+    }
+
+    // True when the event is new and queued for settlement; false for redeliveries and other event types
+    public boolean receive(String payload, String signature) throws SignatureVerificationException {
+        if (signature == null || signature.isBlank()) {
+            rejected.incrementAndGet();
+            throw new SignatureVerificationException("Missing Stripe-Signature header", signature);
+        }
+        try {
+            Webhook.Signature.verifyHeader(payload, signature, webhookSecret, toleranceSeconds);
+        } catch (SignatureVerificationException e) {
+            rejected.incrementAndGet();
+            throw e;
+        }
+
+        JsonNode event;
+        try {
+            event = objectMapper.readTree(payload);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed event payload");
+        }
+        String eventId = event.path("id").asText("");
+        String eventType = event.path("type").asText("");
+        JsonNode object = event.path("data").path("object");
+        String paymentIntentId = object.path("id").asText("");
+        Long orderId = orderId(object.path("metadata").path("orderId").asText(""));
+        if (eventId.isEmpty() || eventType.isEmpty()) {
+            throw new IllegalArgumentException("Event id and type are required");
+        }
+        if (!eventType.startsWith(PAYMENT_INTENT_EVENT_PREFIX) || paymentIntentId.isEmpty()) {
+            ignored.incrementAndGet();
+            return false;
+        }
+
+        try {
+            webhookEventRepository.insert(eventId, eventType, paymentIntentId, orderId, Instant.now());
+        } catch (DataIntegrityViolationException e) {
+            duplicates.incrementAndGet();
+            return false;
+        }
+        recorded.incrementAndGet();
+        if (!settlementQueue.submit(new PaymentSettlementQueue.Settlement(eventId, eventType, paymentIntentId, orderId))) {
+            log.warn("Settlement queue full, event {} left for replay", eventId);
+        }
+        return true;
+    }
+
+    // The orderId metadata set when the intent was created; absent on intents made elsewhere
+    private static Long orderId(String metadata) {
+        try {
+            return metadata.isEmpty() ? null : Long.valueOf(metadata);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "stripeWebhooks";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("recorded", recorded.get());
+        metrics.put("duplicates", duplicates.get());
+        metrics.put("ignored", ignored.get());
+        metrics.put("rejected", rejected.get());
+        return metrics;
+    }
+}
@@ -3,23 +3,25 @@ package com.FindMyService.service;
 import com.FindMyService.model.User;
 import com.FindMyService.model.dto.UserDto;
 import com.FindMyService.repository.UserRepository;
+import com.FindMyService.security.PasswordHashingRejectedException;
+import com.FindMyService.security.PasswordHasher;
 import com.FindMyService.utils.DtoMapper;
 import com.FindMyService.utils.ResponseBuilder;
 import com.FindMyService.utils.OwnerCheck;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 public class UserService {
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
     private final UserRepository userRepository;
 
@@ -31,11 +33,15 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    public Stream<User> streamAllUsers() {
+        return userRepository.streamAll();
+    }
+
     public Optional<User> getUserById(Long userId) {
         return userRepository.findById(userId);
     }
 
-    @Transactional
+    // Not transactional: no connection is held while the password is hashed
     public ResponseEntity<?> createUser(User user) {
         if (user.getEmail() == null || user.getEmail().isEmpty()) {
             return ResponseEntity
@@ -50,9 +56,13 @@ public class UserService {
         }
 
         try {
-            user.setPassword(passwordEncoder.encode(user.getPassword()));
+            user.setPassword(passwordHasher.hashNow(user.getPassword()));
             User created = userRepository.save(user);
             return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        } catch (PasswordHashingRejectedException e) {
+            return ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(ResponseBuilder.build(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity
                     .status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -77,7 +87,7 @@ public class UserService {
         updateIfNotNull(userDto.getProfilePictureUrl(), existingUser::setProfilePictureUrl);
 
         if (userDto.getPassword() != null && !userDto.getPassword().isEmpty()) {
-            existingUser.setPassword(passwordEncoder.encode(userDto.getPassword()));
+            existingUser.setPassword(passwordHasher.hashNow(userDto.getPassword()));
         }
 
         User updated = userRepository.save(existingUser);
@@ -0,0 +1,81 @@
+package com.FindMyService.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 reader: comma separated, double-quoted fields may contain
+ * commas, line breaks and doubled quotes. Reads one record at a time so large
+ * uploads are never held in memory.
+ */
+public final class CsvRecordReader {
+
+    private final Reader reader;
+    private int peeked = -2;
+    private long line = 1;
+
+    public CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    // Line on which the next record starts
+    public long line() {
+        return line;
+    }
+
+    // Returns null at end of input
+    public List<String> next() throws IOException {
+        if (peek() == -1) {
+            return null;
+        }
+
+        long start = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            int c = read();
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Unterminated quoted field starting on line " + start);
+                } else if (c == '"' && peek() == '"') {
+                    read();
+                    field.append('"');
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    if (c == '\n') line++;
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' && peek() == '\n') {
+                // consumed with the following \n
+            } else if (c == '\n' || c == -1) {
+                if (c == '\n') line++;
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    private int peek() throws IOException {
+        if (peeked == -2) {
+            peeked = reader.read();
+        }
+        return peeked;
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        peeked = -2;
+        return c;
+    }
+}
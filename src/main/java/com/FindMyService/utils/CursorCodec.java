@@ -0,0 +1,53 @@
+package com.FindMyService.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Encodes keyset positions as opaque, URL-safe cursor strings. A cursor is a
+ * list of string parts; {@code null} parts are preserved so nullable sort keys
+ * round-trip.
+ */
+public final class CursorCodec {
+
+    private static final char SEPARATOR = '\u001F';
+    private static final String NULL_MARKER = "\u0000";
+
+    private CursorCodec() {}
+
+    public static String encode(String... parts) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) sb.append(SEPARATOR);
+            sb.append(parts[i] == null ? NULL_MARKER : parts[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static List<String> decode(String cursor, int expectedParts) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+
+        List<String> parts = new ArrayList<>(expectedParts);
+        int start = 0;
+        for (int i = 0; i <= raw.length(); i++) {
+            if (i == raw.length() || raw.charAt(i) == SEPARATOR) {
+                String part = raw.substring(start, i);
+                parts.add(NULL_MARKER.equals(part) ? null : part);
+                start = i + 1;
+            }
+        }
+
+        if (parts.size() != expectedParts) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        return parts;
+    }
+}
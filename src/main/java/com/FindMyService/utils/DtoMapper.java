@@ -1,13 +1,22 @@
 package com.FindMyService.utils;
 
+import com.FindMyService.model.Feedback;
+import com.FindMyService.model.Order;
+import com.FindMyService.model.ServiceAttribute;
 import com.FindMyService.model.ServiceCatalog;
 import com.FindMyService.model.User;
 import com.FindMyService.model.Provider;
+import com.FindMyService.model.RatingHistogram;
+import com.FindMyService.model.dto.FeedbackDto;
+import com.FindMyService.model.dto.OrderDto;
 import com.FindMyService.model.dto.ProviderDto;
+import com.FindMyService.model.dto.ServiceAttributeDto;
 import com.FindMyService.model.dto.ServiceCatalogDto;
 import com.FindMyService.model.dto.UserDto;
 import com.FindMyService.model.enums.Role;
 
+import java.util.Map;
+
 public final class DtoMapper {
 
     private DtoMapper() {}
@@ -43,8 +52,12 @@ public final class DtoMapper {
                 .state(provider.getState())
                 .city(provider.getCity())
                 .zipCode(provider.getZipCode())
+                .latitude(provider.getLatitude())
+                .longitude(provider.getLongitude())
                 .createdAt(provider.getCreatedAt())
-                .avgRating(provider.getAvgRating())
+                .avgRating(Ratings.average(provider.getRatingSum(), provider.getTotalRatings()))
+                .totalRatings(provider.getTotalRatings())
+                .ratingHistogram(histogram(provider.getRatingHistogram()))
                 .build();
     }
 
@@ -58,14 +71,60 @@ public final class DtoMapper {
                 .description(service.getDescription())
                 .cost(service.getCost())
                 .location(service.getLocation())
+                .latitude(service.getLatitude())
+                .longitude(service.getLongitude())
                 .availability(service.getAvailability())
                 .warrantyPeriodMonths(service.getWarrantyPeriodMonths())
                 .imageUrl(service.getImageUrl())
                 .createdAt(service.getCreatedAt())
                 .updatedAt(service.getUpdatedAt())
                 .active(service.isActive())
-                .avgRating(service.getAvgRating())
+                .avgRating(Ratings.average(service.getRatingSum(), service.getTotalRatings()))
                 .totalRatings(service.getTotalRatings())
+                .ratingHistogram(histogram(service.getRatingHistogram()))
+                .build();
+    }
+
+    // Associations are mapped to their ids, which lazy proxies expose without a query
+    public static OrderDto toDto(Order order) {
+        if (order == null) return null;
+        return OrderDto.builder()
+                .orderId(order.getOrderId())
+                .userId(order.getUserId() != null ? order.getUserId().getUserId() : null)
+                .providerId(order.getProviderId() != null ? order.getProviderId().getProviderId() : null)
+                .orderStatus(order.getOrderStatus())
+                .totalCost(order.getTotalCost())
+                .transactionId(order.getTransactionId())
+                .paymentMethod(order.getPaymentMethod())
+                .stripePaymentIntentId(order.getStripePaymentIntentId())
+                .paymentDate(order.getPaymentDate())
+                .createdAt(order.getCreatedAt())
+                .updatedAt(order.getUpdatedAt())
+                .build();
+    }
+
+    public static FeedbackDto toDto(Feedback feedback) {
+        if (feedback == null) return null;
+        return FeedbackDto.builder()
+                .feedbackId(feedback.getFeedbackId())
+                .serviceId(feedback.getServiceId() != null ? feedback.getServiceId().getServiceId() : null)
+                .userId(feedback.getUserId() != null ? feedback.getUserId().getUserId() : null)
+                .orderId(feedback.getOrderId() != null ? feedback.getOrderId().getOrderId() : null)
+                .comment(feedback.getComment())
+                .rating(feedback.getRating())
+                .createdAt(feedback.getCreatedAt())
+                .build();
+    }
+
+    public static ServiceAttributeDto toDto(ServiceAttribute attribute) {
+        if (attribute == null) return null;
+        return ServiceAttributeDto.builder()
+                .attributeId(attribute.getAttributeId())
+                .serviceId(attribute.getServiceId() != null ? attribute.getServiceId().getServiceId() : null)
+                .attributeName(attribute.getAttributeName())
+                .attributeValue(attribute.getAttributeValue())
+                .valueType(attribute.getValueType())
+                .createdAt(attribute.getCreatedAt())
                 .build();
     }
 
@@ -76,10 +135,16 @@ public final class DtoMapper {
                 .description(dto.getDescription())
                 .cost(dto.getCost())
                 .location(dto.getLocation())
+                .latitude(dto.getLatitude())
+                .longitude(dto.getLongitude())
                 .availability(dto.getAvailability())
                 .warrantyPeriodMonths(dto.getWarrantyPeriodMonths())
                 .imageUrl(dto.getImageUrl())
                 .active(dto.getActive() != null ? dto.getActive() : true)
                 .build();
     }
+
+    private static Map<Integer, Integer> histogram(RatingHistogram histogram) {
+        return (histogram != null ? histogram : new RatingHistogram()).toMap();
+    }
 }
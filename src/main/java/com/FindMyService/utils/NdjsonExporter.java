@@ -0,0 +1,93 @@
+package com.FindMyService.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes a repository stream as newline-delimited JSON, one row per line.
+ *
+ * Rows are read inside a read-only transaction through a forward-only cursor and
+ * detached once written, so neither the persistence context nor the response
+ * buffer grows with the table size. The export's async timeout is raised on the
+ * current request only; other async endpoints keep the default.
+ */
+@Component
+public class NdjsonExporter {
+
+    private static final int FLUSH_EVERY = 500;
+    private static final byte NEWLINE = '\n';
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTx;
+    private final ObjectMapper objectMapper;
+    private final long timeoutMs;
+
+    public NdjsonExporter(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                          ObjectMapper objectMapper,
+                          @Value("${exports.ndjson.timeout-ms:1800000}") long timeoutMs) {
+        this.entityManager = entityManager;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.timeoutMs = Math.max(1, timeoutMs);
+    }
+
+    public <E> ResponseEntity<StreamingResponseBody> export(Supplier<Stream<E>> rows, Function<E, ?> mapper) {
+        extendAsyncTimeout();
+        StreamingResponseBody body = out -> readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<E> stream = rows.get()) {
+                write(stream.iterator(), mapper, out);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // The handler adapter has already set up the async request with the default timeout; the
+    // streaming body starts async processing without one of its own, so this value applies
+    private void extendAsyncTimeout() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            AsyncWebRequest asyncRequest = WebAsyncUtils.getAsyncManager(attributes.getRequest()).getAsyncWebRequest();
+            if (asyncRequest != null) {
+                asyncRequest.setTimeout(timeoutMs);
+            }
+        }
+    }
+
+    private <E> void write(Iterator<E> rows, Function<E, ?> mapper, OutputStream out) throws IOException {
+        int pending = 0;
+        while (rows.hasNext()) {
+            E row = rows.next();
+            out.write(objectMapper.writeValueAsBytes(mapper.apply(row)));
+            out.write(NEWLINE);
+            entityManager.detach(row);
+            if (++pending == FLUSH_EVERY) {
+                out.flush();
+                pending = 0;
+            }
+        }
+        out.flush();
+    }
+}
@@ -1,21 +1,23 @@
 package com.FindMyService.utils;
 
-import com.FindMyService.security.JwtTokenUtil;
-import jakarta.servlet.http.HttpServletRequest;
+import com.FindMyService.model.enums.Role;
+import com.FindMyService.repository.OrderRepository;
+import com.FindMyService.repository.ServiceCatalogRepository;
+import com.FindMyService.security.JwtPrincipal;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
 
 @Component
 public class OwnerCheck {
 
-    private final JwtTokenUtil jwtTokenUtil;
+    private final ServiceCatalogRepository serviceCatalogRepository;
+    private final OrderRepository orderRepository;
 
-    public OwnerCheck(JwtTokenUtil jwtTokenUtil) {
-        this.jwtTokenUtil = jwtTokenUtil;
+    public OwnerCheck(ServiceCatalogRepository serviceCatalogRepository, OrderRepository orderRepository) {
+        this.serviceCatalogRepository = serviceCatalogRepository;
+        this.orderRepository = orderRepository;
     }
 
     public void verifyOwner(Long resourceId) {
@@ -30,22 +32,36 @@ public class OwnerCheck {
             return;
         }
 
-        String token = extractTokenFromRequest();
-        Long tokenId = Long.valueOf(jwtTokenUtil.extractUserId(token)
-                .orElseThrow(() -> new AccessDeniedException("Invalid token")));
+        if (!(auth.getPrincipal() instanceof JwtPrincipal principal) || principal.userId() == null) {
+            throw new AccessDeniedException("Invalid token");
+        }
 
-        if (!tokenId.equals(resourceId)) {
+        if (!principal.userId().equals(resourceId)) {
             throw new AccessDeniedException("Forbidden: You can only access your own resources");
         }
     }
 
-    private String extractTokenFromRequest() {
-        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder
-                .currentRequestAttributes()).getRequest();
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            return authHeader.substring(7);
+    /**
+     * For {@code @PreAuthorize("... or @ownerCheck.ownsService(#serviceId)")}: true when the
+     * caller is the provider of the service. Answered by one indexed existence query, so
+     * the service method that follows is the only place the entity gets loaded.
+     */
+    public boolean ownsService(Long serviceId) {
+        Long providerId = currentProviderId();
+        return providerId != null && serviceId != null && serviceCatalogRepository.isOwnedBy(serviceId, providerId);
+    }
+
+    // Same as ownsService, for orders placed with the calling provider
+    public boolean ownsOrder(Long orderId) {
+        Long providerId = currentProviderId();
+        return providerId != null && orderId != null && orderRepository.isOwnedByProvider(orderId, providerId);
+    }
+
+    private static Long currentProviderId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof JwtPrincipal principal && principal.role() == Role.PROVIDER) {
+            return principal.userId();
         }
-        throw new AccessDeniedException("No token found");
+        return null;
     }
 }
@@ -0,0 +1,17 @@
+package com.FindMyService.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+public final class Ratings {
+
+    private Ratings() {}
+
+    // Derived from the exact sum and count on every read, so it cannot drift
+    public static BigDecimal average(long ratingSum, int totalRatings) {
+        if (totalRatings <= 0) {
+            return null;
+        }
+        return BigDecimal.valueOf(ratingSum).divide(BigDecimal.valueOf(totalRatings), 1, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,9 @@
+-- Composite indexes backing keyset pagination on GET /api/v1/services and
+-- GET /api/v1/services/provider/{providerId}. Each index ends in the primary
+-- key so (sort key, service_id) seeks are a single range scan.
+CREATE INDEX idx_services_created_at ON services (created_at, service_id);
+CREATE INDEX idx_services_cost ON services (cost, service_id);
+CREATE INDEX idx_services_avg_rating ON services (avg_rating, service_id);
+CREATE INDEX idx_services_provider_created_at ON services (provider_id, created_at, service_id);
+CREATE INDEX idx_services_provider_cost ON services (provider_id, cost, service_id);
+CREATE INDEX idx_services_provider_avg_rating ON services (provider_id, avg_rating, service_id);
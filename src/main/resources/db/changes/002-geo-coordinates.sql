@@ -0,0 +1,4 @@
+-- Optional coordinates for proximity search. Providers without them are placed
+-- at their postal-code centroid; services without them follow their provider.
+ALTER TABLE providers ADD COLUMN latitude DOUBLE NULL, ADD COLUMN longitude DOUBLE NULL;
+ALTER TABLE services ADD COLUMN latitude DOUBLE NULL, ADD COLUMN longitude DOUBLE NULL;
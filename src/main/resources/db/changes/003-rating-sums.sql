@@ -0,0 +1,20 @@
+-- Exact rating sums next to the counts, so feedback can be aggregated with
+-- atomic increments instead of read-modify-write. Backfilled from feedbacks.
+ALTER TABLE services ADD COLUMN rating_sum BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE providers ADD COLUMN rating_sum BIGINT NOT NULL DEFAULT 0;
+
+UPDATE services s
+LEFT JOIN (SELECT service_id, COUNT(*) AS cnt, SUM(rating) AS total FROM feedbacks GROUP BY service_id) f
+    ON f.service_id = s.service_id
+SET s.avg_rating = CASE WHEN f.cnt IS NULL THEN NULL ELSE ROUND(f.total / f.cnt, 1) END,
+    s.rating_sum = COALESCE(f.total, 0),
+    s.total_ratings = COALESCE(f.cnt, 0);
+
+UPDATE providers p
+LEFT JOIN (SELECT sc.provider_id, COUNT(*) AS cnt, SUM(fb.rating) AS total
+           FROM feedbacks fb JOIN services sc ON sc.service_id = fb.service_id
+           GROUP BY sc.provider_id) f
+    ON f.provider_id = p.provider_id
+SET p.avg_rating = CASE WHEN f.cnt IS NULL THEN NULL ELSE ROUND(f.total / f.cnt, 1) END,
+    p.rating_sum = COALESCE(f.total, 0),
+    p.total_ratings = COALESCE(f.cnt, 0);
@@ -0,0 +1,16 @@
+-- Per-star feedback counts. avg_rating is now derived from rating_sum and
+-- total_ratings when read and is kept only as the keyset sort column.
+-- Backfill with POST /api/v1/admin/ratings/backfill once deployed.
+ALTER TABLE services
+    ADD COLUMN stars1 INT NOT NULL DEFAULT 0,
+    ADD COLUMN stars2 INT NOT NULL DEFAULT 0,
+    ADD COLUMN stars3 INT NOT NULL DEFAULT 0,
+    ADD COLUMN stars4 INT NOT NULL DEFAULT 0,
+    ADD COLUMN stars5 INT NOT NULL DEFAULT 0;
+
+ALTER TABLE providers
+    ADD COLUMN stars1 INT NOT NULL DEFAULT 0,
+    ADD COLUMN stars2 INT NOT NULL DEFAULT 0,
+    ADD COLUMN stars3 INT NOT NULL DEFAULT 0,
+    ADD COLUMN stars4 INT NOT NULL DEFAULT 0,
+    ADD COLUMN stars5 INT NOT NULL DEFAULT 0;
@@ -0,0 +1,6 @@
+-- Ratings are aggregated asynchronously; this flag records which feedbacks have
+-- been folded into the service and provider rating columns so unapplied ones can
+-- be replayed after a restart. Existing rows were aggregated synchronously.
+ALTER TABLE feedbacks ADD COLUMN rating_applied BOOLEAN NOT NULL DEFAULT TRUE;
+
+CREATE INDEX idx_feedbacks_rating_applied ON feedbacks (rating_applied, feedback_id);
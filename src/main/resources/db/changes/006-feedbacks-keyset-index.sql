@@ -0,0 +1,2 @@
+-- Backs keyset pagination on GET /api/v1/feedbacks/{serviceId}, newest first.
+CREATE INDEX idx_feedbacks_service_created_at ON feedbacks (service_id, created_at, feedback_id);
@@ -0,0 +1,11 @@
+-- Denylist of revoked access and refresh tokens by jti. Rows are only needed until
+-- the token would have expired anyway; each node loads the live ones into memory
+-- at startup and deletes expired rows periodically.
+CREATE TABLE revoked_tokens (
+    jti        VARCHAR(64) NOT NULL PRIMARY KEY,
+    expires_at DATETIME(6) NOT NULL,
+    revoked_at DATETIME(6) NOT NULL
+);
+
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
+CREATE INDEX idx_revoked_tokens_revoked_at ON revoked_tokens (revoked_at);
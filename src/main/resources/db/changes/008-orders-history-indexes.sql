@@ -0,0 +1,4 @@
+-- Keyset order history, optionally filtered by status. The plain foreign-key
+-- indexes already end in order_id, so unfiltered pages use those.
+CREATE INDEX idx_orders_user_status_id ON orders (ordered_by_user_id, order_status, order_id);
+CREATE INDEX idx_orders_provider_status_id ON orders (provider_id, order_status, order_id);
@@ -0,0 +1,26 @@
+-- Line items belong to exactly one order: replace the order_line_items join
+-- table with an order_id foreign key on line_item.
+ALTER TABLE line_item ADD COLUMN order_id BIGINT NULL;
+
+UPDATE line_item li
+JOIN (SELECT line_item_id, MIN(order_id) AS order_id FROM order_line_items GROUP BY line_item_id) o
+    ON o.line_item_id = li.line_item_id
+SET li.order_id = o.order_id;
+
+-- A line item that was linked to several orders is copied once per extra order
+INSERT INTO line_item (order_id, service_name, cost, image_url, quantity_units, requested_date, scheduled_date)
+SELECT oli.order_id, li.service_name, li.cost, li.image_url, li.quantity_units, li.requested_date, li.scheduled_date
+FROM order_line_items oli
+JOIN line_item li ON li.line_item_id = oli.line_item_id
+WHERE oli.order_id <> li.order_id;
+
+-- Items never attached to an order were unreachable
+DELETE FROM line_item WHERE order_id IS NULL;
+
+ALTER TABLE line_item MODIFY order_id BIGINT NOT NULL;
+-- Created before the constraint so it doubles as the foreign-key index
+CREATE INDEX idx_line_item_order ON line_item (order_id, line_item_id);
+ALTER TABLE line_item
+    ADD CONSTRAINT fk_line_item_order FOREIGN KEY (order_id) REFERENCES orders (order_id) ON DELETE CASCADE;
+
+DROP TABLE order_line_items;
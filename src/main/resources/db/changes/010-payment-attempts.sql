@@ -0,0 +1,20 @@
+-- Outbox for Stripe payment intents: a row is committed before Stripe is called
+-- and completed in a second short transaction, so no connection is held across
+-- the network call and a crash in between leaves a PENDING row to replay.
+CREATE TABLE payment_attempts (
+    payment_attempt_id       BIGINT AUTO_INCREMENT PRIMARY KEY,
+    order_id                 BIGINT       NOT NULL,
+    amount_in_paise          BIGINT       NOT NULL,
+    idempotency_key          VARCHAR(64)  NOT NULL,
+    status                   VARCHAR(20)  NOT NULL,
+    stripe_payment_intent_id VARCHAR(255) NULL,
+    tries                    INT          NOT NULL DEFAULT 0,
+    last_error               VARCHAR(512) NULL,
+    created_at               DATETIME(6)  NULL,
+    updated_at               DATETIME(6)  NOT NULL,
+    CONSTRAINT uk_payment_attempts_idempotency_key UNIQUE (idempotency_key),
+    CONSTRAINT fk_payment_attempts_order FOREIGN KEY (order_id) REFERENCES orders (order_id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_payment_attempts_order ON payment_attempts (order_id, payment_attempt_id);
+CREATE INDEX idx_payment_attempts_status_updated ON payment_attempts (status, updated_at);
@@ -0,0 +1,13 @@
+-- Stripe webhook events seen so far, keyed by event id so redeliveries are dropped.
+-- settled_at stays null until the settlement queue has applied the event, so
+-- anything lost from the in-memory queue (overflow, crash) is replayed from here.
+CREATE TABLE stripe_webhook_events (
+    event_id          VARCHAR(255) NOT NULL PRIMARY KEY,
+    event_type        VARCHAR(64)  NOT NULL,
+    payment_intent_id VARCHAR(255) NOT NULL,
+    received_at       DATETIME(6)  NOT NULL,
+    settled_at        DATETIME(6)  NULL
+);
+
+CREATE INDEX idx_stripe_webhook_events_unsettled ON stripe_webhook_events (settled_at, received_at);
+CREATE INDEX idx_orders_payment_intent ON orders (stripe_payment_intent_id);
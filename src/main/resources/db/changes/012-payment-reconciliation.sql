@@ -0,0 +1,11 @@
+-- Resumable position of the payment reconciliation pass: the last order id whose
+-- payment intent was checked and applied. Reset to 0 when a pass completes.
+CREATE TABLE reconciliation_checkpoints (
+    job_name      VARCHAR(64) NOT NULL PRIMARY KEY,
+    last_order_id BIGINT      NOT NULL,
+    updated_at    DATETIME(6) NOT NULL
+);
+
+-- Keyset scan of REQUESTED orders in id order
+CREATE INDEX idx_orders_status_id ON orders (order_status, order_id);
+CREATE INDEX idx_payment_attempts_intent ON payment_attempts (stripe_payment_intent_id);
@@ -0,0 +1,3 @@
+-- Order id Stripe echoes back from the payment intent's metadata, when present.
+-- Lets settlement find the order even if its current intent has since changed.
+ALTER TABLE stripe_webhook_events ADD COLUMN order_id BIGINT NULL;
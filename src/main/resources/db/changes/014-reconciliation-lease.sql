@@ -0,0 +1,4 @@
+-- Lease on a reconciliation job: only the instance named in lease_owner runs a pass,
+-- until lease_until. Each applied chunk extends it; a crashed holder's lease lapses.
+ALTER TABLE reconciliation_checkpoints ADD COLUMN lease_owner VARCHAR(64) NULL;
+ALTER TABLE reconciliation_checkpoints ADD COLUMN lease_until DATETIME(6) NULL;
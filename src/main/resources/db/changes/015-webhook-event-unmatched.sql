@@ -0,0 +1,9 @@
+-- A succeeded event whose intent resolves to no order is retried from the table a
+-- bounded number of times. match_attempts counts the misses; once the limit is hit
+-- unmatched_at is set and replay stops picking the event up. Parked events are
+-- found with unmatched_at IS NOT NULL.
+ALTER TABLE stripe_webhook_events ADD COLUMN match_attempts INT NOT NULL DEFAULT 0;
+ALTER TABLE stripe_webhook_events ADD COLUMN unmatched_at DATETIME(6) NULL;
+
+DROP INDEX idx_stripe_webhook_events_unsettled ON stripe_webhook_events;
+CREATE INDEX idx_stripe_webhook_events_unsettled ON stripe_webhook_events (settled_at, unmatched_at, received_at);
@@ -0,0 +1,6 @@
+-- Backoff for the payment reconciliation pass. Each time an order's intent is found
+-- still open, reconcile_checks goes up and reconcile_after is pushed out (doubling,
+-- capped); the pass skips the order until then. Attaching or releasing an intent
+-- resets both.
+ALTER TABLE orders ADD COLUMN reconcile_checks INT NOT NULL DEFAULT 0;
+ALTER TABLE orders ADD COLUMN reconcile_after DATETIME(6) NULL;
@@ -0,0 +1,117 @@
+package com.FindMyService.cache;
+
+import com.FindMyService.model.dto.ServiceCatalogDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.InstanceOfAssertFactories.MAP;
+
+class CatalogCacheTest {
+
+    private static final int THREADS = 16;
+
+    private CatalogCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CatalogCache(100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void concurrentMissesForOneKeyShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Optional<ServiceCatalogDto>> results = new CopyOnWriteArrayList<>();
+
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Thread reader = new Thread(() -> results.add(cache.getService(1L, id -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Optional.of(service(id, 10L));
+            })));
+            readers.add(reader);
+            reader.start();
+        }
+
+        // Hold the first load open until every other reader is parked behind it
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (readers.stream().anyMatch(t -> t.getState() == Thread.State.RUNNABLE)
+                && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        for (Thread reader : readers) {
+            reader.join(TimeUnit.SECONDS.toMillis(5));
+        }
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(results).hasSize(THREADS)
+                .allSatisfy(result -> assertThat(result).containsSame(results.get(0).orElseThrow()));
+        assertThat(cache.metrics()).extractingByKey("services").asInstanceOf(MAP).containsEntry("loads", 1L);
+    }
+
+    @Test
+    void batchReadLoadsOnlyMissesAndRemembersAbsentIds() {
+        cache.getService(1L, id -> Optional.of(service(id, 10L)));
+        List<Set<Long>> requested = new ArrayList<>();
+
+        Map<Long, ServiceCatalogDto> first = cache.getServices(List.of(1L, 2L, 3L), ids -> {
+            requested.add(ids);
+            Map<Long, ServiceCatalogDto> found = new HashMap<>();
+            found.put(2L, service(2L, 10L));
+            return found;
+        });
+        Map<Long, ServiceCatalogDto> second = cache.getServices(List.of(1L, 2L, 3L), ids -> {
+            requested.add(ids);
+            return Map.of();
+        });
+
+        assertThat(requested).containsExactly(Set.of(2L, 3L));
+        assertThat(first).containsOnlyKeys(1L, 2L);
+        assertThat(second).containsOnlyKeys(1L, 2L);
+    }
+
+    @Test
+    void providerEvictionDropsOnlyThatProvidersServices() {
+        cache.getService(1L, id -> Optional.of(service(id, 10L)));
+        cache.getService(2L, id -> Optional.of(service(id, 20L)));
+        cache.getService(3L, id -> Optional.empty());
+
+        cache.evictServicesOfProvider(10L);
+
+        AtomicInteger loads = new AtomicInteger();
+        for (long id = 1; id <= 3; id++) {
+            cache.getService(id, missing -> {
+                loads.incrementAndGet();
+                return Optional.of(service(missing, 10L));
+            });
+        }
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    private static ServiceCatalogDto service(Long serviceId, Long providerId) {
+        return ServiceCatalogDto.builder().serviceId(serviceId).providerId(providerId)
+                .serviceName("Service " + serviceId).build();
+    }
+}
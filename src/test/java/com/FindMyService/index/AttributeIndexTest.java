@@ -0,0 +1,103 @@
+package com.FindMyService.index;
+
+import com.FindMyService.model.ServiceAttribute;
+import com.FindMyService.model.ServiceCatalog;
+import com.FindMyService.model.enums.Availability;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AttributeIndexTest {
+
+    private AttributeIndex index;
+    private long nextAttributeId = 1;
+
+    @BeforeEach
+    void setUp() {
+        index = new AttributeIndex(null, null, null);
+        for (long id = 1; id <= 4; id++) {
+            index.upsert(service(id, true));
+        }
+        attribute(1L, "voltage", "220", "integer");
+        attribute(1L, "brand", "Bosch", "string");
+        attribute(2L, "voltage", "110", "integer");
+        attribute(2L, "brand", "Bosch", "string");
+        attribute(3L, "voltage", "240.5", "float");
+        attribute(3L, "brand", "Makita", "string");
+        attribute(4L, "installed", "2024-03-01", "date");
+    }
+
+    @Test
+    void combinesRangeAndEqualityPredicates() {
+        assertThat(ids("voltage>=220", "brand=bosch")).containsExactly(1L);
+        assertThat(ids("voltage>100")).containsExactly(3L, 2L, 1L);
+        assertThat(ids("voltage<220")).containsExactly(2L);
+        assertThat(ids("voltage=220.0")).containsExactly(1L);
+        assertThat(ids("brand!=Bosch")).containsExactly(3L);
+        assertThat(ids("installed<=2024-06-30")).containsExactly(4L);
+        assertThat(ids("colour=red")).isEmpty();
+    }
+
+    @Test
+    void inactiveAndRemovedServicesDropOut() {
+        index.upsert(service(1L, false));
+        index.remove(2L);
+
+        assertThat(ids("brand=Bosch")).isEmpty();
+        assertThat(ids("voltage>0")).containsExactly(3L);
+    }
+
+    @Test
+    void removedAttributeIsNoLongerMatched() {
+        long attributeId = attribute(3L, "warranty", "12", "integer");
+        assertThat(ids("warranty>=12")).containsExactly(3L);
+
+        index.removeAfterCommit(attributeId);
+        assertThat(ids("warranty>=12")).isEmpty();
+    }
+
+    @Test
+    void pagesInDescendingServiceIdOrder() {
+        AttributeResult first = index.query(List.of(AttributePredicate.parse("voltage>0")), null, 2);
+        AttributeResult second = index.query(List.of(AttributePredicate.parse("voltage>0")), 2L, 2);
+
+        assertThat(first.serviceIds()).containsExactly(3L, 2L);
+        assertThat(first.hasMore()).isTrue();
+        assertThat(first.total()).isEqualTo(3);
+        assertThat(second.serviceIds()).containsExactly(1L);
+        assertThat(second.hasMore()).isFalse();
+    }
+
+    @Test
+    void rejectsMalformedFilters() {
+        assertThatThrownBy(() -> AttributePredicate.parse("voltage")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ids("brand>Bosch")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<Long> ids(String... filters) {
+        List<AttributePredicate> predicates = java.util.Arrays.stream(filters).map(AttributePredicate::parse).toList();
+        return index.query(predicates, null, 10).serviceIds();
+    }
+
+    private long attribute(Long serviceId, String name, String value, String type) {
+        long attributeId = nextAttributeId++;
+        index.indexAfterCommit(ServiceAttribute.builder()
+                .attributeId(attributeId)
+                .serviceId(ServiceCatalog.builder().serviceId(serviceId).build())
+                .attributeName(name)
+                .attributeValue(value)
+                .valueType(type)
+                .build());
+        return attributeId;
+    }
+
+    private static IndexedService service(Long id, boolean active) {
+        return new IndexedService(id, 10L, "Acme", "Service " + id, null, "Pune", null, null,
+                BigDecimal.TEN, Availability.AVAILABLE, active, null, 0, null);
+    }
+}
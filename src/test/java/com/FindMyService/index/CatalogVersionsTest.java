@@ -0,0 +1,115 @@
+package com.FindMyService.index;
+
+import com.FindMyService.controller.ServiceCatalogController;
+import com.FindMyService.model.dto.ServiceCatalogDto;
+import com.FindMyService.model.enums.Availability;
+import com.FindMyService.service.ServiceCatalogService;
+import com.FindMyService.utils.OwnerCheck;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CatalogVersionsTest {
+
+    private static final Instant CREATED = Instant.parse("2025-01-01T10:00:00.123456Z");
+
+    private CatalogVersions versions;
+
+    @BeforeEach
+    void setUp() {
+        versions = new CatalogVersions();
+        versions.upsert(service(1L, "Acme", CREATED));
+        versions.upsert(service(2L, "Acme", CREATED));
+    }
+
+    @Test
+    void serviceEtagChangesOnUpdateAndProviderRename() {
+        String original = etag(1L);
+        versions.upsert(service(1L, "Acme", CREATED));
+        assertThat(etag(1L)).isEqualTo(original);
+
+        versions.upsert(service(1L, "Acme", CREATED.plusNanos(1_000)));
+        String updated = etag(1L);
+        assertThat(updated).isNotEqualTo(original);
+        assertThat(versions.forService(1L).orElseThrow().lastModified()).isEqualTo(CREATED.plusNanos(1_000));
+
+        // A rename leaves updatedAt alone but changes the embedded provider name
+        versions.upsert(service(1L, "Acme Plumbing", CREATED.plusNanos(1_000)));
+        assertThat(etag(1L)).isNotEqualTo(updated);
+
+        versions.remove(1L);
+        assertThat(versions.forService(1L)).isEmpty();
+    }
+
+    @Test
+    void catalogEtagChangesOnEveryWriteAndPerVariant() {
+        CatalogVersions.Validator before = versions.forCatalog("/api/v1/services?size=10");
+        assertThat(versions.forCatalog("/api/v1/services?size=10")).isEqualTo(before);
+        assertThat(versions.forCatalog("/api/v1/services?size=20").etag()).isNotEqualTo(before.etag());
+
+        versions.upsert(service(3L, "Acme", CREATED.plusSeconds(60)));
+        CatalogVersions.Validator afterInsert = versions.forCatalog("/api/v1/services?size=10");
+        assertThat(afterInsert.etag()).isNotEqualTo(before.etag());
+        assertThat(afterInsert.lastModified()).isEqualTo(CREATED.plusSeconds(60));
+
+        versions.remove(3L);
+        assertThat(versions.forCatalog("/api/v1/services?size=10").etag()).isNotEqualTo(afterInsert.etag());
+    }
+
+    @Test
+    void matchingIfNoneMatchIsAnswered304WithoutLoadingTheService() {
+        ServiceCatalogService catalogService = mock(ServiceCatalogService.class);
+        when(catalogService.getServiceDtoById(1L)).thenReturn(Optional.of(ServiceCatalogDto.builder().serviceId(1L).build()));
+        ServiceCatalogController controller = new ServiceCatalogController(catalogService, mock(OwnerCheck.class), versions);
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        assertThat(controller.getService(1L, new ServletWebRequest(new MockHttpServletRequest("GET", "/api/v1/services/1"), first))
+                .getStatusCode()).isEqualTo(HttpStatus.OK);
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertThat(etag).contains(etag(1L));
+
+        MockHttpServletResponse revalidated = new MockHttpServletResponse();
+        assertThat(controller.getService(1L, new ServletWebRequest(conditional(etag), revalidated))).isNull();
+        assertThat(revalidated.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+        verify(catalogService, times(1)).getServiceDtoById(1L);
+
+        // Once the provider is renamed the old validator no longer matches
+        versions.upsert(service(1L, "Acme Plumbing", CREATED));
+        MockHttpServletResponse stale = new MockHttpServletResponse();
+        assertThat(controller.getService(1L, new ServletWebRequest(conditional(etag), stale)).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        assertThat(stale.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+        verify(catalogService, times(2)).getServiceDtoById(1L);
+        verify(catalogService, never()).getServiceDtoById(2L);
+    }
+
+    private String etag(Long serviceId) {
+        return versions.forService(serviceId).orElseThrow().etag();
+    }
+
+    private static MockHttpServletRequest conditional(String etag) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/services/1");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        return request;
+    }
+
+    private static IndexedService service(Long id, String providerName, Instant updatedAt) {
+        return new IndexedService(id, 10L, providerName, "Service " + id, null, "Pune", null, null,
+                BigDecimal.valueOf(500), Availability.AVAILABLE, true, null, 0, updatedAt);
+    }
+}
@@ -0,0 +1,102 @@
+package com.FindMyService.index;
+
+import com.FindMyService.model.enums.Availability;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FacetIndexTest {
+
+    private FacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FacetIndex(new long[]{500, 1000, 2500, 5000}, 20);
+        index.upsert(service(1L, "Pune", 400, Availability.AVAILABLE, true, "4.00"));
+        index.upsert(service(2L, "Pune", 1000, Availability.AVAILABLE, true, "3.95"));
+        index.upsert(service(3L, "Mumbai", 2500, Availability.UNAVAILABLE, true, "4.50"));
+        index.upsert(service(4L, " mumbai ", 6000, Availability.AVAILABLE, true, "4.01"));
+        index.upsert(service(5L, "Delhi", 999, Availability.AVAILABLE, false, null));
+    }
+
+    @Test
+    void minimumRatingIsNeverRoundedUp() {
+        assertThat(ids(new FacetQuery(null, null, null, new BigDecimal("4.0"), null, null)))
+                .containsExactly(4L, 3L, 1L);
+        assertThat(ids(new FacetQuery(null, null, null, new BigDecimal("3.95"), null, null)))
+                .containsExactly(4L, 3L, 2L, 1L);
+        assertThat(ids(new FacetQuery(null, null, null, new BigDecimal("4.005"), null, null)))
+                .containsExactly(4L, 3L);
+        assertThat(ids(new FacetQuery(null, null, null, new BigDecimal("4.02"), null, null)))
+                .containsExactly(3L);
+        assertThat(ids(new FacetQuery(null, null, null, BigDecimal.ZERO, null, null)))
+                .containsExactly(5L, 4L, 3L, 2L, 1L);
+    }
+
+    @Test
+    void costRangeIncludesBothEnds() {
+        assertThat(ids(new FacetQuery(BigDecimal.valueOf(1000), BigDecimal.valueOf(2500), null, null, null, null)))
+                .containsExactly(3L, 2L);
+        assertThat(ids(new FacetQuery(BigDecimal.valueOf(401), BigDecimal.valueOf(999), null, null, null, null)))
+                .containsExactly(5L);
+        assertThat(ids(new FacetQuery(BigDecimal.valueOf(5000), null, null, null, null, null)))
+                .containsExactly(4L);
+    }
+
+    @Test
+    void eachFacetIsCountedWithoutItsOwnFilter() {
+        FacetResult result = index.query(
+                new FacetQuery(null, null, Availability.AVAILABLE, null, "PUNE", true), null, 10);
+
+        assertThat(result.total()).isEqualTo(2);
+        assertThat(result.serviceIds()).containsExactly(2L, 1L);
+        assertThat(result.availability()).containsEntry("AVAILABLE", 2L).containsEntry("UNAVAILABLE", 0L);
+        assertThat(result.priceBuckets()).containsEntry("0-500", 1L).containsEntry("1000-2500", 1L)
+                .containsEntry("500-1000", 0L).containsEntry("5000+", 0L);
+        assertThat(result.locations()).containsExactly(
+                Map.entry("Pune", 2L), Map.entry("Mumbai", 1L));
+    }
+
+    @Test
+    void pagesInDescendingServiceIdOrder() {
+        FacetQuery all = new FacetQuery(null, null, null, null, null, true);
+
+        FacetResult first = index.query(all, null, 2);
+        FacetResult second = index.query(all, 3L, 2);
+
+        assertThat(first.serviceIds()).containsExactly(4L, 3L);
+        assertThat(first.hasMore()).isTrue();
+        assertThat(first.total()).isEqualTo(4);
+        assertThat(second.serviceIds()).containsExactly(2L, 1L);
+        assertThat(second.hasMore()).isFalse();
+    }
+
+    @Test
+    void updatedAndRemovedServicesLeaveTheirOldFacets() {
+        index.upsert(service(3L, "Pune", 300, Availability.AVAILABLE, true, "3.00"));
+        index.remove(4L);
+
+        FacetResult result = index.query(new FacetQuery(null, null, null, null, null, true), null, 10);
+
+        assertThat(result.serviceIds()).containsExactly(3L, 2L, 1L);
+        assertThat(result.locations()).containsOnlyKeys("Pune");
+        assertThat(result.availability()).containsEntry("UNAVAILABLE", 0L);
+        assertThat(ids(new FacetQuery(null, null, null, new BigDecimal("4.5"), null, null))).isEmpty();
+    }
+
+    private List<Long> ids(FacetQuery query) {
+        return index.query(query, null, 10).serviceIds();
+    }
+
+    private static IndexedService service(Long id, String location, long cost, Availability availability,
+                                          boolean active, String avgRating) {
+        return new IndexedService(id, 10L, "Acme", "Service " + id, null, location, null, null,
+                BigDecimal.valueOf(cost), availability, active,
+                avgRating == null ? null : new BigDecimal(avgRating), avgRating == null ? 0 : 3, null);
+    }
+}
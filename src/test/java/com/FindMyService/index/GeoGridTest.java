@@ -0,0 +1,58 @@
+package com.FindMyService.index;
+
+import com.FindMyService.geo.GeoPoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeoGridTest {
+
+    private static final GeoPoint CONNAUGHT_PLACE = new GeoPoint(28.6315, 77.2167);
+
+    private final GeoGrid grid = new GeoGrid(0.1);
+
+    @Test
+    void radiusQueryFiltersAndOrdersByDistance() {
+        grid.put(1L, new GeoPoint(28.6139, 77.2090), 0);  // ~2 km
+        grid.put(2L, new GeoPoint(28.4595, 77.0266), 0);  // Gurugram, ~27 km
+        grid.put(3L, new GeoPoint(28.6517, 77.2219), 0);  // ~2.3 km
+        grid.put(4L, new GeoPoint(19.0760, 72.8777), 0);  // Mumbai
+
+        List<GeoHit> hits = grid.within(CONNAUGHT_PLACE, 10, 10, 0);
+
+        assertThat(hits).extracting(GeoHit::id).containsExactly(1L, 3L);
+        assertThat(hits.get(0).distanceKm()).isBetween(1.5, 2.5);
+    }
+
+    @Test
+    void ratingWeightCanPromoteAFartherEntry() {
+        grid.put(1L, new GeoPoint(28.6139, 77.2090), 1);
+        grid.put(2L, new GeoPoint(28.6517, 77.2219), 5);
+
+        assertThat(grid.within(CONNAUGHT_PLACE, 10, 10, 0)).extracting(GeoHit::id).containsExactly(1L, 2L);
+        assertThat(grid.within(CONNAUGHT_PLACE, 10, 10, 1)).extracting(GeoHit::id).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void nearestWidensUntilEnoughEntries() {
+        grid.put(1L, new GeoPoint(28.4595, 77.0266), 0);
+        grid.put(2L, new GeoPoint(28.4089, 77.3178), 0);
+        grid.put(3L, new GeoPoint(19.0760, 72.8777), 0);
+
+        assertThat(grid.nearest(CONNAUGHT_PLACE, 2, 100, 0)).extracting(GeoHit::id).containsExactly(2L, 1L);
+        assertThat(grid.nearest(CONNAUGHT_PLACE, 5, 100, 0)).hasSize(2);
+    }
+
+    @Test
+    void movedAndRemovedEntriesLeaveTheirOldCell() {
+        grid.put(1L, new GeoPoint(28.6139, 77.2090), 0);
+        grid.put(1L, new GeoPoint(19.0760, 72.8777), 0);
+        grid.put(2L, new GeoPoint(28.6517, 77.2219), 0);
+        grid.remove(2L);
+
+        assertThat(grid.within(CONNAUGHT_PLACE, 10, 10, 0)).isEmpty();
+        assertThat(grid.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,88 @@
+package com.FindMyService.index;
+
+import com.FindMyService.model.enums.Availability;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LeaderboardIndexTest {
+
+    private LeaderboardIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new LeaderboardIndex(3.5, 5);
+    }
+
+    @Test
+    void fewPerfectReviewsRankBelowManyGoodOnes() {
+        index.upsert(service(1L, "Pune", Availability.AVAILABLE, "5.0", 1));
+        index.upsert(service(2L, "Pune", Availability.AVAILABLE, "4.6", 200));
+        index.upsert(service(3L, "Pune", Availability.AVAILABLE, "5.0", 3));
+        index.upsert(service(4L, "Pune", Availability.AVAILABLE, null, 0));
+
+        List<LeaderboardIndex.Ranked> top = index.top(null, null, 10);
+
+        assertThat(top).extracting(LeaderboardIndex.Ranked::serviceId).containsExactly(2L, 3L, 1L, 4L);
+        assertThat(top.get(0).score()).isCloseTo((5 * 3.5 + 4.6 * 200) / 205, within(1e-9));
+        assertThat(top.get(2).score()).isCloseTo(3.75, within(1e-9));
+        // No reviews at all scores exactly the prior
+        assertThat(top.get(3).score()).isCloseTo(3.5, within(1e-9));
+    }
+
+    @Test
+    void equalScoresAreOrderedByServiceId() {
+        index.upsert(service(9L, "Pune", Availability.AVAILABLE, "4.2", 20));
+        index.upsert(service(3L, "Pune", Availability.AVAILABLE, "4.2", 20));
+        index.upsert(service(6L, "Pune", Availability.AVAILABLE, "4.2", 20));
+        index.upsert(service(7L, "Pune", Availability.AVAILABLE, "4.9", 20));
+
+        assertThat(ids(null, null, 10)).containsExactly(7L, 3L, 6L, 9L);
+        assertThat(ids(null, null, 2)).containsExactly(7L, 3L);
+    }
+
+    @Test
+    void boardsAreKeptPerLocationAndAvailability() {
+        index.upsert(service(1L, "Pune", Availability.AVAILABLE, "4.0", 10));
+        index.upsert(service(2L, " pune ", Availability.UNAVAILABLE, "4.5", 10));
+        index.upsert(service(3L, "Mumbai", Availability.AVAILABLE, "4.8", 10));
+        index.upsert(service(4L, null, Availability.AVAILABLE, "3.0", 10));
+
+        assertThat(ids("PUNE", null, 10)).containsExactly(2L, 1L);
+        assertThat(ids("Pune", Availability.AVAILABLE, 10)).containsExactly(1L);
+        assertThat(ids(null, Availability.AVAILABLE, 10)).containsExactly(3L, 1L, 4L);
+        assertThat(ids("Delhi", null, 10)).isEmpty();
+    }
+
+    @Test
+    void updatesMoveAndInactiveOrRemovedServicesDropOut() {
+        index.upsert(service(1L, "Pune", Availability.AVAILABLE, "4.0", 10));
+        index.upsert(service(2L, "Pune", Availability.AVAILABLE, "4.5", 10));
+        index.upsert(service(3L, "Mumbai", Availability.AVAILABLE, "4.8", 10));
+
+        index.upsert(service(1L, "Mumbai", Availability.AVAILABLE, "5.0", 50));
+        index.upsert(new IndexedService(2L, 10L, "Acme", "Service 2", null, "Pune", null, null,
+                BigDecimal.valueOf(500), Availability.AVAILABLE, false, new BigDecimal("4.5"), 10, null));
+        index.remove(3L);
+
+        assertThat(ids(null, null, 10)).containsExactly(1L);
+        assertThat(ids("Pune", null, 10)).isEmpty();
+        assertThat(ids("Mumbai", Availability.AVAILABLE, 10)).containsExactly(1L);
+    }
+
+    private List<Long> ids(String location, Availability availability, int limit) {
+        return index.top(location, availability, limit).stream().map(LeaderboardIndex.Ranked::serviceId).toList();
+    }
+
+    private static IndexedService service(Long id, String location, Availability availability,
+                                          String avgRating, int totalRatings) {
+        return new IndexedService(id, 10L, "Acme", "Service " + id, null, location, null, null,
+                BigDecimal.valueOf(500), availability, true,
+                avgRating == null ? null : new BigDecimal(avgRating), totalRatings, null);
+    }
+}
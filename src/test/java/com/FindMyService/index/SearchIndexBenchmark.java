@@ -0,0 +1,101 @@
+package com.FindMyService.index;
+
+import com.FindMyService.model.enums.Availability;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Two-term queries and single-service re-indexing against a SearchIndex filled with
+ * synthetic services: one of 20 trades as the name, one of 50 cities, and a
+ * 20-word description drawn from a skewed 10,000-word vocabulary so a few words
+ * appear in most documents. Queries are sampled, so the output carries p50/p99;
+ * the upsert replaces an existing service's description the way an edit does. Run
+ * with {@code java -cp <test classpath> org.openjdk.jmh.Main SearchIndexBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 3, jvmArgsAppend = "-Xmx3g")
+public class SearchIndexBenchmark {
+
+    private static final String[] TRADES = {
+            "plumber", "electrician", "carpenter", "painter", "roofer", "gardener", "cleaner", "mason",
+            "welder", "locksmith", "mechanic", "tutor", "tailor", "caterer", "photographer", "movers",
+            "pest", "glazier", "tiler", "decorator"};
+    private static final int CITIES = 50;
+    private static final int VOCABULARY = 10_000;
+    private static final int DESCRIPTION_WORDS = 20;
+    private static final int QUERIES = 1_024;
+
+    @Param({"200000"})
+    public int services;
+
+    private SearchIndex index;
+    private String[] queries;
+    private Random random;
+    private int nextQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        random = new Random(42);
+        index = new SearchIndex(0.3);
+        for (long id = 1; id <= services; id++) {
+            index.upsert(service(id));
+        }
+
+        queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = switch (i % 3) {
+                case 0 -> TRADES[random.nextInt(TRADES.length)] + " city" + random.nextInt(CITIES);
+                case 1 -> TRADES[random.nextInt(TRADES.length)] + " " + word();
+                default -> word() + " " + word();
+            };
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public List<SearchHit> searchTwoTerms() {
+        return index.search(queries[nextQuery++ & (QUERIES - 1)], 20);
+    }
+
+    @Benchmark
+    public int upsertExisting() {
+        index.upsert(service(1 + random.nextInt(services)));
+        return index.size();
+    }
+
+    private IndexedService service(long id) {
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < DESCRIPTION_WORDS; i++) {
+            description.append(word()).append(' ');
+        }
+        return new IndexedService(id, id % 1_000, "Provider " + id % 1_000,
+                TRADES[random.nextInt(TRADES.length)], description.toString(), "city" + random.nextInt(CITIES),
+                null, null, BigDecimal.TEN, Availability.AVAILABLE, true,
+                BigDecimal.valueOf(random.nextInt(50) / 10.0), 1, null);
+    }
+
+    // Cubing the uniform draw skews picks towards the low-numbered words
+    private String word() {
+        double r = random.nextDouble();
+        return "w" + (int) (VOCABULARY * r * r * r);
+    }
+}
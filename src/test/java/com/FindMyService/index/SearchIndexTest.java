@@ -0,0 +1,92 @@
+package com.FindMyService.index;
+
+import com.FindMyService.model.enums.Availability;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchIndexTest {
+
+    private final SearchIndex index = new SearchIndex(0.3);
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        index.upsert(service(1L, "Pipe repair", "Fixes leaking taps", "Kolkata", "4.0"));
+        index.upsert(service(2L, "Electrician", "Also handles pipe fittings", "Kolkata", "4.0"));
+
+        List<SearchHit> hits = index.search("pipe", 10);
+
+        assertThat(hits).extracting(SearchHit::serviceId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void ratingBreaksTiesBetweenEqualTextMatches() {
+        index.upsert(service(1L, "Plumber", null, "Pune", "2.0"));
+        index.upsert(service(2L, "Plumber", null, "Pune", "4.8"));
+
+        assertThat(index.search("plumber pune", 10))
+                .extracting(SearchHit::serviceId)
+                .containsExactly(2L, 1L);
+    }
+
+    @Test
+    void updatesAndRemovalsAreReflectedIncrementally() {
+        index.upsert(service(1L, "Carpenter", null, "Delhi", null));
+        index.upsert(service(2L, "Painter", null, "Delhi", null));
+
+        index.upsert(service(1L, "Roofer", null, "Delhi", null));
+        index.remove(2L);
+
+        assertThat(index.search("carpenter", 10)).isEmpty();
+        assertThat(index.search("painter", 10)).isEmpty();
+        assertThat(index.search("roofer delhi", 10)).extracting(SearchHit::serviceId).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void removalsFromSharedPostingListsKeepOtherDocumentsIndexed() {
+        for (long id = 1; id <= 6; id++) {
+            index.upsert(service(id, "Plumber " + id, "Pipes and drains", "Pune", null));
+        }
+
+        // Each removal moves another document into the freed slot of every shared term
+        index.remove(2L);
+        index.upsert(service(4L, "Plumber", "Boilers only", "Mumbai", null));
+        index.remove(1L);
+        index.upsert(service(7L, "Plumber", "Pipes", "Pune", null));
+        index.remove(6L);
+
+        assertThat(index.search("plumber", 10)).extracting(SearchHit::serviceId)
+                .containsExactlyInAnyOrder(3L, 4L, 5L, 7L);
+        assertThat(index.search("drains", 10)).extracting(SearchHit::serviceId)
+                .containsExactlyInAnyOrder(3L, 5L);
+        assertThat(index.search("pune", 10)).extracting(SearchHit::serviceId)
+                .containsExactlyInAnyOrder(3L, 5L, 7L);
+        assertThat(index.search("boilers mumbai", 10)).extracting(SearchHit::serviceId).containsExactly(4L);
+
+        index.remove(3L);
+        index.remove(5L);
+        index.remove(7L);
+        index.remove(4L);
+        assertThat(index.search("plumber pipes pune", 10)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void inactiveServicesAreNotSearchable() {
+        IndexedService inactive = new IndexedService(1L, 10L, "Acme", "Gardener", null, "Goa", null, null,
+                BigDecimal.TEN, Availability.AVAILABLE, false, null, 0, null);
+        index.upsert(inactive);
+
+        assertThat(index.search("gardener", 10)).isEmpty();
+    }
+
+    private static IndexedService service(Long id, String name, String description, String location, String rating) {
+        return new IndexedService(id, 10L, "Acme Services", name, description, location, null, null,
+                BigDecimal.TEN, Availability.AVAILABLE, true,
+                rating != null ? new BigDecimal(rating) : null, 1, null);
+    }
+}
@@ -0,0 +1,207 @@
+package com.FindMyService.security;
+
+import com.FindMyService.model.enums.Role;
+import com.FindMyService.utils.OwnerCheck;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of JWT authentication: the filter, then the owner check a
+ * controller makes with the authenticated user.
+ *
+ * The legacy* classes below are the filter and owner check as they were before the
+ * token was verified once per request: three parses in the filter and one in the
+ * owner check, each with a freshly built parser. Every benchmark goes through the
+ * same request, filter plumbing and authentication setup, so the scores differ only
+ * in how the token is verified. Run with
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main JwtAuthFilterBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class JwtAuthFilterBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-0123456789";
+    private static final FilterChain NO_OP = (request, response) -> { };
+
+    private SecretKey key;
+    private String token;
+    private JwtAuthFilter uncachedFilter;
+    private JwtAuthFilter cachedFilter;
+    private LegacyJwtAuthFilter legacyFilter;
+    private LegacyTokenUtil legacyTokenUtil;
+    private OwnerCheck ownerCheck;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        JwtTokenUtil uncached = new JwtTokenUtil(SECRET, 3_600_000, 3_600_000, 0);
+        JwtTokenUtil cached = new JwtTokenUtil(SECRET, 3_600_000, 3_600_000, 10_000);
+        token = cached.generateToken("42", "bench@example.com", Role.USER);
+        // Never started, so the repository is not touched; lookups still go through the Bloom filter
+        TokenDenylist denylist = new TokenDenylist(null, 100_000, 0.01, 30_000);
+        uncachedFilter = new JwtAuthFilter(uncached, denylist);
+        cachedFilter = new JwtAuthFilter(cached, denylist);
+        legacyTokenUtil = new LegacyTokenUtil(key);
+        legacyFilter = new LegacyJwtAuthFilter(legacyTokenUtil, key);
+        ownerCheck = new OwnerCheck(null, null);
+        request = new MockHttpServletRequest("GET", "/api/v1/services");
+        request.addHeader("Authorization", "Bearer " + token);
+    }
+
+    @Benchmark
+    public Object legacyFilterFourParses() throws Exception {
+        Object authentication = runFilter(legacyFilter);
+        legacyVerifyOwner(42L);
+        return authentication;
+    }
+
+    @Benchmark
+    public Object filterSingleParse() throws Exception {
+        Object authentication = runFilter(uncachedFilter);
+        ownerCheck.verifyOwner(42L);
+        return authentication;
+    }
+
+    @Benchmark
+    public Object filterCachedClaims() throws Exception {
+        Object authentication = runFilter(cachedFilter);
+        ownerCheck.verifyOwner(42L);
+        return authentication;
+    }
+
+    private Object runFilter(OncePerRequestFilter filter) throws Exception {
+        SecurityContextHolder.clearContext();
+        request.removeAttribute(filter.getClass().getName() + ".FILTERED");
+        filter.doFilter(request, new MockHttpServletResponse(), NO_OP);
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            throw new IllegalStateException("Token was not accepted");
+        }
+        return authentication;
+    }
+
+    // The old OwnerCheck.verifyOwner: the user id came from parsing the bearer token again
+    private void legacyVerifyOwner(Long resourceId) {
+        String authHeader = request.getHeader("Authorization");
+        Long tokenId = Long.valueOf(legacyTokenUtil.extractUserId(authHeader.substring(7))
+                .orElseThrow(() -> new AccessDeniedException("Invalid token")));
+        if (!tokenId.equals(resourceId)) {
+            throw new AccessDeniedException("Forbidden: You can only access your own resources");
+        }
+    }
+
+    // The old JwtTokenUtil parsing: a new parser for every call
+    static class LegacyTokenUtil {
+
+        private final SecretKey secretKey;
+
+        LegacyTokenUtil(SecretKey secretKey) {
+            this.secretKey = secretKey;
+        }
+
+        Optional<String> extractEmail(String token) {
+            return parseClaims(token).map(Claims::getSubject);
+        }
+
+        Optional<String> extractUserId(String token) {
+            return parseClaims(token).map(claims -> claims.get("userId", String.class));
+        }
+
+        boolean validateToken(String token, String expectedEmail) {
+            return parseClaims(token)
+                    .map(claims -> claims.getSubject() != null
+                            && claims.getExpiration().after(new Date())
+                            && claims.getSubject().equals(expectedEmail))
+                    .orElse(false);
+        }
+
+        private Optional<Claims> parseClaims(String token) {
+            try {
+                return Optional.of(Jwts.parserBuilder().setSigningKey(secretKey).build().parseClaimsJws(token).getBody());
+            } catch (JwtException e) {
+                return Optional.empty();
+            }
+        }
+    }
+
+    // The old JwtAuthFilter.doFilterInternal: extract the email, parse for the role, then validate
+    static class LegacyJwtAuthFilter extends OncePerRequestFilter {
+
+        private final LegacyTokenUtil jwtUtil;
+        private final SecretKey secretKey;
+        private final WebAuthenticationDetailsSource detailsSource = new WebAuthenticationDetailsSource();
+
+        LegacyJwtAuthFilter(LegacyTokenUtil jwtUtil, SecretKey secretKey) {
+            this.jwtUtil = jwtUtil;
+            this.secretKey = secretKey;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                        FilterChain filterChain) throws ServletException, IOException {
+            String authHeader = request.getHeader("Authorization");
+            String jwt = authHeader.substring(7);
+            String email = jwtUtil.extractEmail(jwt).orElse(null);
+            if (email == null) {
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                return;
+            }
+
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                Claims claims = Jwts.parserBuilder().setSigningKey(secretKey).build().parseClaimsJws(jwt).getBody();
+                String role = claims.get("role", String.class);
+                UserDetails userDetails = User.builder()
+                        .username(email)
+                        .password("")
+                        .authorities(Collections.singletonList(new SimpleGrantedAuthority(role)))
+                        .build();
+                if (jwtUtil.validateToken(jwt, email)) {
+                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities());
+                    authToken.setDetails(detailsSource.buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                }
+            }
+            filterChain.doFilter(request, response);
+        }
+    }
+}
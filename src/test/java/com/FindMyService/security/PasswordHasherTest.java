@@ -0,0 +1,105 @@
+package com.FindMyService.security;
+
+import com.FindMyService.controller.AuthController;
+import com.FindMyService.model.Provider;
+import com.FindMyService.model.dto.LoginRequestDto;
+import com.FindMyService.model.enums.Role;
+import com.FindMyService.repository.ProviderRepository;
+import com.FindMyService.repository.UserRepository;
+import com.FindMyService.service.AuthService;
+import com.FindMyService.service.ProviderService;
+import com.FindMyService.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PasswordHasherTest {
+
+    @Test
+    void onlyHashesBelowTheCurrentCostNeedRehashing() {
+        PasswordHasher hasher = new PasswordHasher(1, 4, 6, 4, 250);
+
+        assertThat(hasher.needsRehash(new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+        assertThat(hasher.needsRehash(new BCryptPasswordEncoder(6).encode("secret"))).isFalse();
+        assertThat(hasher.needsRehash(new BCryptPasswordEncoder(8).encode("secret"))).isFalse();
+        assertThat(hasher.needsRehash(null)).isFalse();
+        assertThat(hasher.needsRehash("plain-text")).isFalse();
+        hasher.shutdown();
+    }
+
+    @Test
+    void costNeverDropsBelowTheFloor() {
+        PasswordHasher pinned = new PasswordHasher(1, 4, 4, 6, 250);
+        assertThat(pinned.cost()).isEqualTo(6);
+        pinned.shutdown();
+
+        PasswordHasher calibrated = new PasswordHasher(1, 4, 0, 6, 0);
+        assertThat(calibrated.cost()).isEqualTo(6);
+        calibrated.shutdown();
+    }
+
+    @Test
+    void calibrationStaysWithinItsBounds() {
+        assertThat(PasswordHasher.calibrate(0, 5)).isEqualTo(5);
+        assertThat(PasswordHasher.calibrate(Long.MAX_VALUE, 5)).isEqualTo(PasswordHasher.MAX_COST);
+    }
+
+    @Test
+    void rehashSavesTheNewHashOffTheHashingPool() throws Exception {
+        PasswordHasher hasher = new PasswordHasher(1, 4, 5, 4, 250);
+        AtomicReference<String> savedOn = new AtomicReference<>();
+        AtomicReference<String> saved = new AtomicReference<>();
+
+        hasher.rehash("secret", hash -> {
+            savedOn.set(Thread.currentThread().getName());
+            saved.set(hash);
+        }).get(5, TimeUnit.SECONDS);
+
+        assertThat(savedOn.get()).isEqualTo("password-rehash");
+        assertThat(new BCryptPasswordEncoder().matches("secret", saved.get())).isTrue();
+        assertThat(hasher.needsRehash(saved.get())).isFalse();
+        hasher.shutdown();
+    }
+
+    @Test
+    void fullQueueIsRefusedAndLoginAnswers503() {
+        PasswordHasher hasher = new PasswordHasher(1, 1, 13, 4, 250);
+        ProviderRepository providerRepository = mock(ProviderRepository.class);
+        when(providerRepository.findByEmail("busy@example.com")).thenReturn(Optional.of(Provider.builder()
+                .providerId(1L).email("busy@example.com").password("$2a$13$stored").build()));
+        AuthService authService = new AuthService(mock(UserRepository.class), mock(UserService.class),
+                providerRepository, mock(ProviderService.class), hasher, mock(JwtTokenUtil.class),
+                mock(TokenDenylist.class));
+        LoginRequestDto login = new LoginRequestDto();
+        login.setEmail("busy@example.com");
+        login.setPassword("secret");
+        login.setRole(Role.PROVIDER);
+
+        // One thread busy, one queued: anything more has nowhere to go
+        CompletableFuture<String> running = hasher.hash("first");
+        CompletableFuture<String> queued = hasher.hash("second");
+        assertThatThrownBy(() -> hasher.hash("third")).isInstanceOf(PasswordHashingRejectedException.class);
+        assertThat(hasher.metrics()).containsEntry("rejected", 1L);
+
+        ResponseEntity<Map<String, Object>> response = new AuthController(authService).login(login).join();
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+
+        running.join();
+        queued.join();
+        hasher.shutdown();
+    }
+}
@@ -0,0 +1,69 @@
+package com.FindMyService.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsBurstThenRefillsAtTheConfiguredRate() {
+        RateLimiter limiter = new RateLimiter(3, 60, 4, 1000, 0);
+
+        assertThat(limiter.tryAcquire("a", 0)).isZero();
+        assertThat(limiter.tryAcquire("a", 0)).isZero();
+        assertThat(limiter.tryAcquire("a", 0)).isZero();
+        assertThat(limiter.tryAcquire("a", 0)).isEqualTo(SECOND);
+        assertThat(limiter.tryAcquire("b", 0)).as("keys are independent").isZero();
+
+        assertThat(limiter.tryAcquire("a", SECOND)).isZero();
+        assertThat(limiter.tryAcquire("a", SECOND)).isPositive();
+        assertThat(limiter.rejected()).isEqualTo(2);
+    }
+
+    @Test
+    void idleBucketsAreEvicted() {
+        RateLimiter limiter = new RateLimiter(2, 60, 1, 1000, 0);
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire("ip-" + i, 0);
+        }
+        assertThat(limiter.size()).isEqualTo(100);
+
+        limiter.tryAcquire("late", 10 * SECOND);
+
+        assertThat(limiter.size()).isEqualTo(1);
+        assertThat(limiter.evicted()).isEqualTo(100);
+    }
+
+    @Test
+    void concurrentCallersNeverExceedCapacity() throws Exception {
+        RateLimiter limiter = new RateLimiter(50, 1, 8, 1000, 0);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 1000; i++) {
+                    if (limiter.tryAcquire("shared", 0) == 0) {
+                        granted.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(granted.get()).isEqualTo(50);
+    }
+}
@@ -0,0 +1,91 @@
+package com.FindMyService.security;
+
+import com.FindMyService.model.RevokedToken;
+import com.FindMyService.model.enums.Role;
+import com.FindMyService.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenDenylistTest {
+
+    private final RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+    private final TokenDenylist denylist = new TokenDenylist(repository, 1000, 0.01, 30_000);
+
+    @Test
+    void revokedTokensAreDeniedAndOthersPass() {
+        assertThat(denylist.revoke("a", Instant.now().plusSeconds(60))).isTrue();
+
+        assertThat(denylist.isRevoked("a")).isTrue();
+        assertThat(denylist.isRevoked("b")).isFalse();
+        assertThat(denylist.isRevoked(null)).isFalse();
+    }
+
+    @Test
+    void secondRevocationOfTheSameTokenReportsFalse() {
+        Instant expiresAt = Instant.now().plusSeconds(60);
+        when(repository.insert(eq("a"), any(), any()))
+                .thenReturn(1)
+                .thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        assertThat(denylist.revoke("a", expiresAt)).isTrue();
+        assertThat(denylist.revoke("a", expiresAt)).isFalse();
+        assertThat(denylist.isRevoked("a")).isTrue();
+    }
+
+    @Test
+    void startupLoadAndPollPickUpPersistedRevocations() {
+        when(repository.findByExpiresAtAfter(any())).thenReturn(List.of(row("loaded", 60)));
+        when(repository.findByRevokedAtGreaterThanEqualAndExpiresAtAfter(any(), any())).thenReturn(List.of(row("polled", 60)));
+
+        denylist.start();
+        assertThat(denylist.isRevoked("loaded")).isTrue();
+        assertThat(denylist.isRevoked("polled")).isFalse();
+
+        denylist.refresh();
+        assertThat(denylist.isRevoked("polled")).isTrue();
+        denylist.stop();
+    }
+
+    @Test
+    void expiredEntriesAreDroppedAndTheFilterRebuilt() throws Exception {
+        when(repository.findByRevokedAtGreaterThanEqualAndExpiresAtAfter(any(), any())).thenReturn(List.of());
+        denylist.revoke("short", Instant.now().plusMillis(50));
+        denylist.revoke("long", Instant.now().plusSeconds(60));
+        Thread.sleep(100);
+
+        denylist.refresh();
+
+        assertThat(denylist.isRevoked("short")).isFalse();
+        assertThat(denylist.isRevoked("long")).isTrue();
+        assertThat(denylist.metrics()).containsEntry("revoked", 1).containsEntry("rebuilds", 1L);
+    }
+
+    @Test
+    void refreshTokensAreNotAcceptedAsAccessTokens() {
+        JwtTokenUtil jwt = new JwtTokenUtil("denylist-test-secret-denylist-test-secret-0123", 60_000, 120_000, 100);
+        String access = jwt.generateToken("7", "a@example.com", Role.USER);
+        String refresh = jwt.generateRefreshToken("7", "a@example.com", Role.USER);
+
+        assertThat(jwt.authenticate(access)).get().extracting(JwtPrincipal::tokenId).isNotNull();
+        assertThat(jwt.authenticate(refresh)).isEmpty();
+        assertThat(jwt.authenticateRefreshToken(access)).isEmpty();
+        assertThat(jwt.authenticateRefreshToken(refresh)).get().extracting(JwtPrincipal::userId).isEqualTo(7L);
+    }
+
+    private static RevokedToken row(String jti, long ttlSeconds) {
+        return RevokedToken.builder()
+                .jti(jti)
+                .expiresAt(Instant.now().plusSeconds(ttlSeconds))
+                .revokedAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,155 @@
+package com.FindMyService.service;
+
+import com.FindMyService.cache.CatalogCache;
+import com.FindMyService.geo.ZipCentroids;
+import com.FindMyService.index.CatalogIndexer;
+import com.FindMyService.index.GeoIndex;
+import com.FindMyService.model.Provider;
+import com.FindMyService.model.ServiceCatalog;
+import com.FindMyService.model.User;
+import com.FindMyService.model.dto.FeedbackImportResultDto;
+import com.FindMyService.model.enums.Availability;
+import com.FindMyService.model.enums.Role;
+import com.FindMyService.repository.FeedbackRepository;
+import com.FindMyService.repository.ProviderRepository;
+import com.FindMyService.repository.ServiceCatalogRepository;
+import com.FindMyService.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "ratings.flush-interval-ms=3600000",
+        "feedback.import.batch-size=2"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({FeedbackImportService.class, RatingAggregator.class, CatalogIndexer.class, CatalogCache.class,
+        GeoIndex.class, ZipCentroids.class})
+class FeedbackImportServiceTest {
+
+    @Autowired
+    private FeedbackImportService importService;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private ServiceCatalogRepository serviceCatalogRepository;
+
+    private Long userId;
+    private Long serviceId;
+
+    @BeforeEach
+    void setUp() {
+        feedbackRepository.deleteAllInBatch();
+        serviceCatalogRepository.deleteAllInBatch();
+        providerRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+
+        userId = userRepository.save(User.builder()
+                .name("Reviewer").email("reviewer@example.com").password("secret").role(Role.USER).build()).getUserId();
+        Provider provider = providerRepository.save(Provider.builder()
+                .providerName("Painters").email("painters@example.com").password("secret").build());
+        serviceId = serviceCatalogRepository.save(ServiceCatalog.builder()
+                .providerId(provider)
+                .serviceName("Painting")
+                .cost(BigDecimal.valueOf(300))
+                .availability(Availability.AVAILABLE)
+                .active(true)
+                .build()).getServiceId();
+    }
+
+    @Test
+    void csvRowsAreImportedAndBadOnesReportedByLine() throws IOException {
+        String csv = "serviceId,userId,rating,comment\r\n"
+                + serviceId + "," + userId + ",5,\"Neat, quick\"\r\n"
+                + serviceId + "," + userId + ",4,\"Said \"\"call me\"\"\r\nand did\"\r\n"
+                + serviceId + "," + userId + ",9,too high\r\n"
+                + "\r\n"
+                + "999999," + userId + ",3,unknown service\r\n"
+                + serviceId + ",abc,3,bad id\r\n"
+                + serviceId + "," + userId + ",3,last\r\n";
+
+        FeedbackImportResultDto result = importService.importCsv(stream(csv));
+
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getRejected()).isEqualTo(3);
+        assertThat(result.getErrors()).containsExactly(
+                "line 5: Rating must be between 1 and 5",
+                "line 8: Malformed field: For input string: \"abc\"",
+                "line 7: Service 999999 not found");
+        assertThat(feedbackRepository.findAll()).extracting("comment")
+                .containsExactlyInAnyOrder("Neat, quick", "Said \"call me\"\r\nand did", "last");
+
+        ServiceCatalog service = serviceCatalogRepository.findById(serviceId).orElseThrow();
+        assertThat(service.getTotalRatings()).isEqualTo(3);
+        assertThat(service.getRatingSum()).isEqualTo(12);
+        assertThat(result.getServicesRecomputed()).isEqualTo(1);
+        assertThat(result.getProvidersRecomputed()).isEqualTo(1);
+    }
+
+    @Test
+    void unterminatedQuoteRejectsItsLineAndKeepsEverythingBefore() throws IOException {
+        String csv = "serviceId,userId,rating,comment\n"
+                + serviceId + "," + userId + ",5,fine\n"
+                + serviceId + "," + userId + ",4,\"also fine\"\n"
+                + serviceId + "," + userId + ",3,\"never closed\n"
+                + serviceId + "," + userId + ",2,swallowed\n";
+
+        FeedbackImportResultDto result = importService.importCsv(stream(csv));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getRejected()).isEqualTo(1);
+        assertThat(result.getErrors()).containsExactly("line 4: Unterminated quoted field");
+        assertThat(serviceCatalogRepository.findById(serviceId).orElseThrow().getTotalRatings()).isEqualTo(2);
+    }
+
+    @Test
+    void csvWithoutRequiredColumnsIsRefused() {
+        assertThatThrownBy(() -> importService.importCsv(stream("serviceId,comment\n1,hi\n")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> importService.importCsv(stream("")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void ndjsonSkipsBlankLinesAndReportsMalformedOnes() throws IOException {
+        String ndjson = "{\"serviceId\":" + serviceId + ",\"userId\":" + userId + ",\"rating\":4}\n"
+                + "\n"
+                + "{not json}\n"
+                + "{\"serviceId\":" + serviceId + ",\"userId\":" + userId + ",\"rating\":2}\n";
+
+        FeedbackImportResultDto result = importService.importNdjson(stream(ndjson));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getErrors()).containsExactly("line 3: Malformed JSON");
+        assertThat(serviceCatalogRepository.findById(serviceId).orElseThrow().getRatingSum()).isEqualTo(6);
+    }
+
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
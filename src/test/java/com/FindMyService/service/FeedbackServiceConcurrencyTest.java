@@ -0,0 +1,327 @@
+package com.FindMyService.service;
+
+import com.FindMyService.cache.CatalogCache;
+import com.FindMyService.geo.ZipCentroids;
+import com.FindMyService.index.CatalogIndexer;
+import com.FindMyService.index.GeoIndex;
+import com.FindMyService.model.Feedback;
+import com.FindMyService.model.Provider;
+import com.FindMyService.model.RatingHistogram;
+import com.FindMyService.model.ServiceCatalog;
+import com.FindMyService.model.User;
+import com.FindMyService.model.dto.FeedbackDto;
+import com.FindMyService.model.dto.FeedbackPageDto;
+import com.FindMyService.model.enums.Availability;
+import com.FindMyService.model.enums.Role;
+import com.FindMyService.repository.FeedbackRepository;
+import com.FindMyService.repository.ProviderRepository;
+import com.FindMyService.repository.ServiceCatalogRepository;
+import com.FindMyService.repository.UserRepository;
+import com.FindMyService.utils.CursorCodec;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.datasource.hikari.maximum-pool-size=16",
+        "ratings.flush-interval-ms=3600000"
+})
+@Import({FeedbackService.class, RatingAggregator.class, RatingBackfillService.class, CatalogIndexer.class, CatalogCache.class, GeoIndex.class, ZipCentroids.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FeedbackServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int FEEDBACKS = 2000;
+
+    @Autowired
+    private FeedbackService feedbackService;
+
+    @Autowired
+    private RatingAggregator ratingAggregator;
+
+    @Autowired
+    private RatingBackfillService ratingBackfillService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private ServiceCatalogRepository serviceCatalogRepository;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private CatalogIndexer catalogIndexer;
+
+    @Autowired
+    private GeoIndex geoIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User user;
+    private Provider provider;
+
+    @BeforeEach
+    void setUp() {
+        feedbackRepository.deleteAllInBatch();
+        serviceCatalogRepository.deleteAllInBatch();
+        providerRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+
+        user = userRepository.save(User.builder()
+                .name("Reviewer").email("reviewer@example.com").password("secret").role(Role.USER).build());
+        provider = providerRepository.save(Provider.builder()
+                .providerName("Busy Provider").email("busy@example.com").password("secret").build());
+    }
+
+    @Test
+    void parallelFeedbackIsFoldedIntoRatingsExactlyOnce() throws Exception {
+        List<ServiceCatalog> services = List.of(service(provider, "Plumbing"), service(provider, "Wiring"));
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<ResponseEntity<?>>> results = new ArrayList<>();
+        for (int i = 0; i < FEEDBACKS; i++) {
+            ServiceCatalog target = services.get(i % services.size());
+            int rating = ThreadLocalRandom.current().nextInt(1, 6);
+            results.add(pool.submit(() -> feedbackService.createFeedback(Feedback.builder()
+                    .serviceId(ServiceCatalog.builder().serviceId(target.getServiceId()).build())
+                    .userId(user)
+                    .rating(rating)
+                    .build())));
+        }
+        for (Future<ResponseEntity<?>> result : results) {
+            assertThat(result.get().getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        }
+        pool.shutdown();
+        ratingAggregator.flush();
+        assertThat(ratingAggregator.pendingCount()).isZero();
+
+        long providerCount = 0;
+        long providerSum = 0;
+        for (ServiceCatalog service : services) {
+            Object[] expected = (Object[]) entityManager.createQuery(
+                            "select count(f), coalesce(sum(f.rating), 0) from Feedback f where f.serviceId.serviceId = :id")
+                    .setParameter("id", service.getServiceId())
+                    .getSingleResult();
+            ServiceCatalog stored = serviceCatalogRepository.findById(service.getServiceId()).orElseThrow();
+
+            assertThat((long) stored.getTotalRatings()).isEqualTo((Long) expected[0]);
+            assertThat(stored.getRatingSum()).isEqualTo((Long) expected[1]);
+            assertThat(stored.getAvgRating()).isEqualByComparingTo(average((Long) expected[1], (Long) expected[0]));
+            assertThat(histogramTotal(stored.getRatingHistogram())).isEqualTo((Long) expected[0]);
+            providerCount += (Long) expected[0];
+            providerSum += (Long) expected[1];
+        }
+
+        Provider storedProvider = providerRepository.findById(provider.getProviderId()).orElseThrow();
+        assertThat(providerCount).isEqualTo(FEEDBACKS);
+        assertThat((long) storedProvider.getTotalRatings()).isEqualTo(providerCount);
+        assertThat(storedProvider.getRatingSum()).isEqualTo(providerSum);
+        assertThat(storedProvider.getAvgRating()).isEqualByComparingTo(average(providerSum, providerCount));
+        assertThat(histogramTotal(storedProvider.getRatingHistogram())).isEqualTo(providerCount);
+    }
+
+    @Test
+    void backfillRebuildsTotalsAndHistogramsFromFeedback() {
+        ServiceCatalog plumbing = service(provider, "Plumbing");
+        ServiceCatalog wiring = service(provider, "Wiring");
+        saveFeedback(plumbing, 5, 5, 4, 1);
+        saveFeedback(wiring, 3, 3);
+
+        ratingBackfillService.backfill();
+
+        ServiceCatalog storedPlumbing = serviceCatalogRepository.findById(plumbing.getServiceId()).orElseThrow();
+        assertThat(storedPlumbing.getTotalRatings()).isEqualTo(4);
+        assertThat(storedPlumbing.getRatingSum()).isEqualTo(15);
+        assertThat(storedPlumbing.getAvgRating()).isEqualByComparingTo("3.8");
+        assertThat(storedPlumbing.getRatingHistogram().toMap()).containsExactly(
+                Map.entry(1, 1), Map.entry(2, 0), Map.entry(3, 0), Map.entry(4, 1), Map.entry(5, 2));
+        ServiceCatalog storedWiring = serviceCatalogRepository.findById(wiring.getServiceId()).orElseThrow();
+        assertThat(storedWiring.getRatingHistogram().toMap()).containsEntry(3, 2).containsEntry(5, 0);
+        Provider storedProvider = providerRepository.findById(provider.getProviderId()).orElseThrow();
+        assertThat(storedProvider.getTotalRatings()).isEqualTo(6);
+        assertThat(storedProvider.getRatingSum()).isEqualTo(21);
+        assertThat(storedProvider.getAvgRating()).isEqualByComparingTo("3.5");
+        assertThat(storedProvider.getRatingHistogram().toMap()).containsExactly(
+                Map.entry(1, 1), Map.entry(2, 0), Map.entry(3, 2), Map.entry(4, 1), Map.entry(5, 2));
+
+        // Everything up to the watermark counts as applied; a later review is left to the aggregator
+        assertThat(ratingAggregator.replay()).isZero();
+        saveFeedback(wiring, 1);
+        assertThat(ratingAggregator.replay()).isEqualTo(1);
+        assertThat(ratingAggregator.flush()).isEqualTo(1);
+        assertThat(serviceCatalogRepository.findById(wiring.getServiceId()).orElseThrow().getRatingHistogram().toMap())
+                .containsEntry(1, 1).containsEntry(3, 2);
+        assertThat(providerRepository.findById(provider.getProviderId()).orElseThrow().getTotalRatings()).isEqualTo(7);
+    }
+
+    @Test
+    void replayQueuesOnlyFeedbackThatWasNeverApplied() {
+        ServiceCatalog service = service(provider, "Plumbing");
+        // Saved without the after-commit enqueue, as if the node had gone down before flushing
+        List<Long> ids = saveFeedback(service, 1, 2, 3, 4, 5, 1, 2, 3, 4, 5, 1, 2, 3, 4, 5);
+        ids.subList(0, 5).forEach(ratingAggregator::enqueueAfterCommit);
+        assertThat(ratingAggregator.flush()).isEqualTo(5);
+
+        assertThat(ratingAggregator.replay()).isEqualTo(10);
+        assertThat(ratingAggregator.flush()).isEqualTo(10);
+        assertThat(ratingAggregator.replay()).isZero();
+
+        ServiceCatalog stored = serviceCatalogRepository.findById(service.getServiceId()).orElseThrow();
+        assertThat(stored.getTotalRatings()).isEqualTo(15);
+        assertThat(stored.getRatingSum()).isEqualTo(45);
+        assertThat(stored.getRatingHistogram().toMap()).containsOnly(
+                Map.entry(1, 3), Map.entry(2, 3), Map.entry(3, 3), Map.entry(4, 3), Map.entry(5, 3));
+    }
+
+    @Test
+    void keysetPagingWalksEveryReviewOnceAcrossSharedTimestamps() {
+        ServiceCatalog service = service(provider, "Plumbing");
+        int[] ratings = new int[45];
+        Arrays.fill(ratings, 4);
+        saveFeedback(service, ratings);
+        // Three timestamps for 45 reviews, so most page boundaries fall inside a tie
+        Instant base = Instant.parse("2025-01-01T10:00:00Z");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < 3; i++) {
+                entityManager.createQuery("update Feedback f set f.createdAt = :at where mod(f.feedbackId, 3) = :group")
+                        .setParameter("at", base.plusSeconds(i))
+                        .setParameter("group", (long) i)
+                        .executeUpdate();
+            }
+        });
+
+        List<FeedbackDto> walked = new ArrayList<>();
+        String cursor = null;
+        FeedbackPageDto page;
+        do {
+            page = feedbackService.getFeedbackPage(service.getServiceId(), cursor, 10).orElseThrow();
+            walked.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            if (page.isHasMore()) {
+                // The cursor carries the last row's sort key, exactly as it was stored
+                FeedbackDto last = page.getItems().get(page.getItems().size() - 1);
+                assertThat(CursorCodec.decode(cursor, 2))
+                        .containsExactly(last.getCreatedAt().toString(), last.getFeedbackId().toString());
+            } else {
+                assertThat(cursor).isNull();
+            }
+        } while (page.isHasMore());
+
+        assertThat(walked).extracting(FeedbackDto::getFeedbackId).doesNotHaveDuplicates().hasSize(45);
+        assertThat(walked).isSortedAccordingTo(Comparator.comparing(FeedbackDto::getCreatedAt)
+                .thenComparing(FeedbackDto::getFeedbackId).reversed());
+        assertThatThrownBy(() -> feedbackService.getFeedbackPage(service.getServiceId(), "not-a-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void concurrentFlushesOverTheSameIdsApplyEachRatingOnce() throws Exception {
+        ServiceCatalog service = service(provider, "Plumbing");
+        List<Feedback> feedbacks = new ArrayList<>();
+        long expectedSum = 0;
+        for (int i = 0; i < FEEDBACKS; i++) {
+            int rating = i % 5 + 1;
+            expectedSum += rating;
+            feedbacks.add(Feedback.builder().serviceId(service).userId(user).rating(rating).build());
+        }
+        List<Long> ids = feedbackRepository.saveAll(feedbacks).stream().map(Feedback::getFeedbackId).toList();
+
+        // Two instances that were both handed every id, as after a restart of a two-node deployment
+        List<RatingAggregator> aggregators = List.of(aggregator(), aggregator());
+        aggregators.forEach(aggregator -> ids.forEach(aggregator::enqueueAfterCommit));
+        ExecutorService pool = Executors.newFixedThreadPool(aggregators.size());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> flushes = new ArrayList<>();
+        for (RatingAggregator aggregator : aggregators) {
+            flushes.add(pool.submit(() -> {
+                start.await();
+                return aggregator.flush();
+            }));
+        }
+        start.countDown();
+        int applied = 0;
+        for (Future<Integer> flush : flushes) {
+            applied += flush.get();
+        }
+        pool.shutdown();
+
+        assertThat(applied).isEqualTo(FEEDBACKS);
+        ServiceCatalog stored = serviceCatalogRepository.findById(service.getServiceId()).orElseThrow();
+        assertThat(stored.getTotalRatings()).isEqualTo(FEEDBACKS);
+        assertThat(stored.getRatingSum()).isEqualTo(expectedSum);
+        assertThat(histogramTotal(stored.getRatingHistogram())).isEqualTo(FEEDBACKS);
+        Provider storedProvider = providerRepository.findById(provider.getProviderId()).orElseThrow();
+        assertThat(storedProvider.getTotalRatings()).isEqualTo(FEEDBACKS);
+        assertThat(storedProvider.getRatingSum()).isEqualTo(expectedSum);
+    }
+
+    private RatingAggregator aggregator() {
+        return new RatingAggregator(feedbackRepository, serviceCatalogRepository, providerRepository,
+                catalogCache, catalogIndexer, geoIndex, transactionManager, 3600000, 50);
+    }
+
+    private List<Long> saveFeedback(ServiceCatalog service, int... ratings) {
+        List<Feedback> feedbacks = new ArrayList<>();
+        for (int rating : ratings) {
+            feedbacks.add(Feedback.builder().serviceId(service).userId(user).rating(rating).build());
+        }
+        return feedbackRepository.saveAll(feedbacks).stream().map(Feedback::getFeedbackId).toList();
+    }
+
+    private static long histogramTotal(RatingHistogram histogram) {
+        return histogram.getStars1() + histogram.getStars2() + histogram.getStars3()
+                + histogram.getStars4() + histogram.getStars5();
+    }
+
+    private ServiceCatalog service(Provider provider, String name) {
+        return serviceCatalogRepository.save(ServiceCatalog.builder()
+                .providerId(provider)
+                .serviceName(name)
+                .cost(BigDecimal.valueOf(500))
+                .availability(Availability.AVAILABLE)
+                .active(true)
+                .build());
+    }
+
+    private static BigDecimal average(long sum, long count) {
+        return BigDecimal.valueOf(sum).divide(BigDecimal.valueOf(count), 1, java.math.RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,117 @@
+package com.FindMyService.service;
+
+import com.FindMyService.model.LineItem;
+import com.FindMyService.model.Order;
+import com.FindMyService.model.Provider;
+import com.FindMyService.model.User;
+import com.FindMyService.model.dto.CursorPage;
+import com.FindMyService.model.dto.OrderHistoryDto;
+import com.FindMyService.model.enums.OrderStatus;
+import com.FindMyService.model.enums.Role;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({OrderService.class, PaymentService.class, PaymentOutbox.class})
+class OrderHistoryTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private User user;
+    private Provider provider;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        user = User.builder().name("Buyer").email("buyer@example.com").password("secret").role(Role.USER).build();
+        provider = Provider.builder().providerName("Busy").email("busy@example.com").password("secret").build();
+        entityManager.persist(user);
+        entityManager.persist(provider);
+
+        for (int i = 0; i < 30; i++) {
+            Order order = Order.builder()
+                    .userId(user)
+                    .providerId(provider)
+                    .orderStatus(i % 2 == 0 ? OrderStatus.PAID : OrderStatus.REQUESTED)
+                    .totalCost(BigDecimal.TEN)
+                    .lineItemDTOS(new HashSet<>())
+                    .build();
+            for (int j = 0; j <= i % 3; j++) {
+                order.getLineItemDTOS().add(LineItem.builder()
+                        .serviceName("Service " + j)
+                        .cost(BigDecimal.TEN)
+                        .quantityUnits(1)
+                        .build());
+            }
+            order.attachLineItems();
+            entityManager.persist(order);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void pagesCostTwoStatementsWhateverTheirSize() {
+        assertThat(statementsForPage(5)).isEqualTo(2);
+        assertThat(statementsForPage(25)).isEqualTo(2);
+    }
+
+    @Test
+    void cursorWalksEveryOrderOnceNewestFirstWithItsLineItems() {
+        int seen = 0;
+        Long previousId = Long.MAX_VALUE;
+        String cursor = null;
+        do {
+            CursorPage<OrderHistoryDto> page = orderService
+                    .getOrderHistoryByProvider(provider.getProviderId(), OrderStatus.PAID, cursor, 4)
+                    .orElseThrow();
+            for (OrderHistoryDto order : page.getItems()) {
+                assertThat(order.getOrderId()).isLessThan(previousId);
+                assertThat(order.getOrderStatus()).isEqualTo(OrderStatus.PAID);
+                assertThat(order.getLineItems()).isNotEmpty();
+                previousId = order.getOrderId();
+            }
+            seen += page.getItems().size();
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(seen).isEqualTo(15);
+    }
+
+    @Test
+    void unknownOwnerIsDistinguishedFromNoOrders() {
+        assertThat(orderService.getOrderHistoryByUser(-1L, null, null, 10)).isEmpty();
+        assertThat(orderService.getOrderHistoryByUser(user.getUserId(), OrderStatus.CANCELLED, null, 10))
+                .get().extracting(CursorPage::getItems).asList().isEmpty();
+    }
+
+    private long statementsForPage(int size) {
+        entityManager.clear();
+        statistics.clear();
+        CursorPage<OrderHistoryDto> page = orderService
+                .getOrderHistoryByUser(user.getUserId(), null, null, size)
+                .orElseThrow();
+        assertThat(page.getItems()).hasSize(size);
+        assertThat(page.getItems()).allSatisfy(order -> assertThat(order.getLineItems()).isNotEmpty());
+        return statistics.getPrepareStatementCount();
+    }
+}
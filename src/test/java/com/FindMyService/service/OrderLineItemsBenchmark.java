@@ -0,0 +1,238 @@
+package com.FindMyService.service;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order creation and one page of provider order history through Hibernate, under
+ * the old join-table mapping (order_line_items) and the current order_id foreign
+ * key. Each layout gets its own in-memory H2 database and a pair of classes mapped
+ * the way that layout was; the work per operation mirrors OrderService.createOrder
+ * (persist an order with its items in one transaction) and the history read (page
+ * of orders, then the page's items in one query). Run with
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main OrderLineItemsBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class OrderLineItemsBenchmark {
+
+    private static final int ORDERS = 5_000;
+    private static final int ITEMS_PER_ORDER = 3;
+    private static final int PAGE_SIZE = 20;
+    private static final long PROVIDER_ID = 1;
+
+    private static final String JOIN_TABLE_ITEMS = "select o.orderId, li.lineItemId, li.serviceName, li.cost "
+            + "from JoinTableOrder o join o.lineItems li where o.orderId in :orderIds "
+            + "order by o.orderId desc, li.lineItemId";
+    private static final String FOREIGN_KEY_ITEMS = "select li.order.orderId, li.lineItemId, li.serviceName, li.cost "
+            + "from ForeignKeyLineItem li where li.order.orderId in :orderIds "
+            + "order by li.order.orderId desc, li.lineItemId";
+
+    @Param({"joinTable", "foreignKey"})
+    public String layout;
+
+    private SessionFactory sessionFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Configuration configuration = new Configuration()
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:" + layout + ";DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.connection.username", "sa")
+                .setProperty("hibernate.connection.password", "")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.show_sql", "false");
+        String mapping = joinTable() ? JOIN_TABLE_MAPPING : FOREIGN_KEY_MAPPING;
+        configuration.addInputStream(new ByteArrayInputStream(mapping.getBytes(StandardCharsets.UTF_8)));
+        sessionFactory = configuration.buildSessionFactory();
+
+        for (int i = 0; i < ORDERS; i++) {
+            createOrder();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public Long createOrder() {
+        return sessionFactory.fromTransaction(session -> {
+            if (joinTable()) {
+                JoinTableOrder order = new JoinTableOrder();
+                order.providerId = PROVIDER_ID;
+                order.orderStatus = "REQUESTED";
+                order.totalCost = BigDecimal.valueOf(300);
+                for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+                    JoinTableLineItem item = new JoinTableLineItem();
+                    item.serviceName = "Service " + i;
+                    item.cost = BigDecimal.valueOf(100);
+                    item.quantityUnits = 1;
+                    order.lineItems.add(item);
+                }
+                session.persist(order);
+                return order.orderId;
+            }
+            ForeignKeyOrder order = new ForeignKeyOrder();
+            order.providerId = PROVIDER_ID;
+            order.orderStatus = "REQUESTED";
+            order.totalCost = BigDecimal.valueOf(300);
+            for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+                ForeignKeyLineItem item = new ForeignKeyLineItem();
+                item.order = order;
+                item.serviceName = "Service " + i;
+                item.cost = BigDecimal.valueOf(100);
+                item.quantityUnits = 1;
+                order.lineItems.add(item);
+            }
+            session.persist(order);
+            return order.orderId;
+        });
+    }
+
+    @Benchmark
+    public List<Object[]> readHistoryPage() {
+        try (Session session = sessionFactory.openSession()) {
+            List<Object[]> page = session.createSelectionQuery(
+                            "select o.orderId, o.orderStatus, o.totalCost from "
+                                    + (joinTable() ? "JoinTableOrder" : "ForeignKeyOrder")
+                                    + " o where o.providerId = :providerId order by o.orderId desc", Object[].class)
+                    .setParameter("providerId", PROVIDER_ID)
+                    .setMaxResults(PAGE_SIZE)
+                    .getResultList();
+            List<Long> orderIds = new ArrayList<>(page.size());
+            page.forEach(row -> orderIds.add((Long) row[0]));
+            List<Object[]> rows = new ArrayList<>(page);
+            rows.addAll(session.createSelectionQuery(joinTable() ? JOIN_TABLE_ITEMS : FOREIGN_KEY_ITEMS, Object[].class)
+                    .setParameter("orderIds", orderIds)
+                    .getResultList());
+            return rows;
+        }
+    }
+
+    private boolean joinTable() {
+        return "joinTable".equals(layout);
+    }
+
+    // Mapping before migration 009: items linked through order_line_items
+    public static class JoinTableOrder {
+        Long orderId;
+        Long providerId;
+        String orderStatus;
+        BigDecimal totalCost;
+        Set<JoinTableLineItem> lineItems = new HashSet<>();
+    }
+
+    public static class JoinTableLineItem {
+        Long lineItemId;
+        String serviceName;
+        BigDecimal cost;
+        Integer quantityUnits;
+    }
+
+    // Current mapping: line_item.order_id owned by the item
+    public static class ForeignKeyOrder {
+        Long orderId;
+        Long providerId;
+        String orderStatus;
+        BigDecimal totalCost;
+        Set<ForeignKeyLineItem> lineItems = new HashSet<>();
+    }
+
+    public static class ForeignKeyLineItem {
+        Long lineItemId;
+        ForeignKeyOrder order;
+        String serviceName;
+        BigDecimal cost;
+        Integer quantityUnits;
+    }
+
+    // Mapped in XML rather than with @Entity, so the application's entity scan never sees these classes
+    private static final String JOIN_TABLE_MAPPING = """
+            <entity-mappings xmlns="https://jakarta.ee/xml/ns/persistence/orm" version="3.1">
+              <package>com.FindMyService.service</package>
+              <entity class="OrderLineItemsBenchmark$JoinTableOrder" name="JoinTableOrder" access="FIELD">
+                <table name="orders"><index column-list="providerId, orderId"/></table>
+                <attributes>
+                  <id name="orderId"><generated-value strategy="IDENTITY"/></id>
+                  <basic name="providerId"/>
+                  <basic name="orderStatus"/>
+                  <basic name="totalCost"/>
+                  <many-to-many name="lineItems" fetch="LAZY">
+                    <join-table name="order_line_items">
+                      <join-column name="order_id"/>
+                      <inverse-join-column name="line_item_id"/>
+                    </join-table>
+                    <cascade><cascade-persist/></cascade>
+                  </many-to-many>
+                </attributes>
+              </entity>
+              <entity class="OrderLineItemsBenchmark$JoinTableLineItem" name="JoinTableLineItem" access="FIELD">
+                <table name="line_item"/>
+                <attributes>
+                  <id name="lineItemId"><generated-value strategy="IDENTITY"/></id>
+                  <basic name="serviceName"/>
+                  <basic name="cost"/>
+                  <basic name="quantityUnits"/>
+                </attributes>
+              </entity>
+            </entity-mappings>
+            """;
+
+    private static final String FOREIGN_KEY_MAPPING = """
+            <entity-mappings xmlns="https://jakarta.ee/xml/ns/persistence/orm" version="3.1">
+              <package>com.FindMyService.service</package>
+              <entity class="OrderLineItemsBenchmark$ForeignKeyOrder" name="ForeignKeyOrder" access="FIELD">
+                <table name="orders"><index column-list="providerId, orderId"/></table>
+                <attributes>
+                  <id name="orderId"><generated-value strategy="IDENTITY"/></id>
+                  <basic name="providerId"/>
+                  <basic name="orderStatus"/>
+                  <basic name="totalCost"/>
+                  <one-to-many name="lineItems" mapped-by="order" fetch="LAZY" orphan-removal="true">
+                    <cascade><cascade-all/></cascade>
+                  </one-to-many>
+                </attributes>
+              </entity>
+              <entity class="OrderLineItemsBenchmark$ForeignKeyLineItem" name="ForeignKeyLineItem" access="FIELD">
+                <table name="line_item"><index column-list="order_id, lineItemId"/></table>
+                <attributes>
+                  <id name="lineItemId"><generated-value strategy="IDENTITY"/></id>
+                  <basic name="serviceName"/>
+                  <basic name="cost"/>
+                  <basic name="quantityUnits"/>
+                  <many-to-one name="order" fetch="LAZY" optional="false">
+                    <join-column name="order_id" nullable="false"/>
+                  </many-to-one>
+                </attributes>
+              </entity>
+            </entity-mappings>
+            """;
+}
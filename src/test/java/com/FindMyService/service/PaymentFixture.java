@@ -0,0 +1,81 @@
+package com.FindMyService.service;
+
+import com.FindMyService.model.Order;
+import com.FindMyService.model.Provider;
+import com.FindMyService.model.User;
+import com.FindMyService.model.enums.OrderStatus;
+import com.FindMyService.model.enums.Role;
+import com.FindMyService.repository.OrderRepository;
+import com.FindMyService.repository.PaymentAttemptRepository;
+import com.FindMyService.repository.ProviderRepository;
+import com.FindMyService.repository.ReconciliationCheckpointRepository;
+import com.FindMyService.repository.ServiceCatalogRepository;
+import com.FindMyService.repository.StripeWebhookEventRepository;
+import com.FindMyService.repository.UserRepository;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.math.BigDecimal;
+
+/**
+ * Data shared by the payment tests: empties every table they write, children first,
+ * then saves the buyer and the provider their orders are placed with.
+ */
+@TestComponent
+class PaymentFixture {
+
+    private final StripeWebhookEventRepository webhookEventRepository;
+    private final ReconciliationCheckpointRepository checkpointRepository;
+    private final PaymentAttemptRepository paymentAttemptRepository;
+    private final OrderRepository orderRepository;
+    private final ServiceCatalogRepository serviceCatalogRepository;
+    private final ProviderRepository providerRepository;
+    private final UserRepository userRepository;
+
+    private User buyer;
+    private Provider provider;
+
+    PaymentFixture(StripeWebhookEventRepository webhookEventRepository,
+                   ReconciliationCheckpointRepository checkpointRepository,
+                   PaymentAttemptRepository paymentAttemptRepository,
+                   OrderRepository orderRepository,
+                   ServiceCatalogRepository serviceCatalogRepository,
+                   ProviderRepository providerRepository,
+                   UserRepository userRepository) {
+        this.webhookEventRepository = webhookEventRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.paymentAttemptRepository = paymentAttemptRepository;
+        this.orderRepository = orderRepository;
+        this.serviceCatalogRepository = serviceCatalogRepository;
+        this.providerRepository = providerRepository;
+        this.userRepository = userRepository;
+    }
+
+    void reset(String providerName) {
+        webhookEventRepository.deleteAllInBatch();
+        checkpointRepository.deleteAllInBatch();
+        paymentAttemptRepository.deleteAllInBatch();
+        orderRepository.deleteAllInBatch();
+        serviceCatalogRepository.deleteAllInBatch();
+        providerRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+
+        buyer = userRepository.save(User.builder()
+                .name("Buyer").email("buyer@example.com").password("secret").role(Role.USER).build());
+        provider = providerRepository.save(Provider.builder()
+                .providerName(providerName).email("provider@example.com").password("secret").build());
+    }
+
+    Provider provider() {
+        return provider;
+    }
+
+    Order order(OrderStatus status, long totalCost, String paymentIntentId) {
+        return orderRepository.save(Order.builder()
+                .userId(buyer)
+                .providerId(provider)
+                .orderStatus(status)
+                .totalCost(BigDecimal.valueOf(totalCost))
+                .stripePaymentIntentId(paymentIntentId)
+                .build());
+    }
+}
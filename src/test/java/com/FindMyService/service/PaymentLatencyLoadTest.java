@@ -0,0 +1,261 @@
+package com.FindMyService.service;
+
+import com.FindMyService.cache.CatalogCache;
+import com.FindMyService.geo.ZipCentroids;
+import com.FindMyService.index.AttributeIndex;
+import com.FindMyService.index.CatalogIndexer;
+import com.FindMyService.index.CatalogVersions;
+import com.FindMyService.index.FacetIndex;
+import com.FindMyService.index.GeoIndex;
+import com.FindMyService.index.LeaderboardIndex;
+import com.FindMyService.index.SearchIndex;
+import com.FindMyService.model.PaymentAttempt;
+import com.FindMyService.model.ServiceCatalog;
+import com.FindMyService.model.enums.Availability;
+import com.FindMyService.model.enums.OrderStatus;
+import com.FindMyService.model.enums.PaymentAttemptStatus;
+import com.FindMyService.model.enums.ServiceSortField;
+import com.FindMyService.repository.OrderRepository;
+import com.FindMyService.repository.PaymentAttemptRepository;
+import com.FindMyService.repository.ServiceCatalogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives more concurrent payment initiations than the pool has connections
+ * against a gateway stub that takes 1.5 s per call, and checks that catalog
+ * reads running alongside keep their latency.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:payments;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=10",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "payments.recovery.interval-ms=3600000",
+        "payments.recovery.stale-after-ms=0",
+        "payments.recovery.max-tries=2"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({OrderService.class, PaymentOutbox.class, PaymentFixture.class, StubPaymentGateway.class,
+        ServiceCatalogService.class, CatalogIndexer.class, CatalogCache.class, CatalogVersions.class,
+        SearchIndex.class, FacetIndex.class, GeoIndex.class, AttributeIndex.class, LeaderboardIndex.class,
+        ZipCentroids.class})
+class PaymentLatencyLoadTest {
+
+    private static final int PAYMENTS = 30;
+    private static final int READERS = 4;
+    private static final int READS_PER_READER = 100;
+    private static final long GATEWAY_LATENCY_MS = 1_500;
+    // Reads may slow down somewhat under load, but nowhere near a gateway call
+    private static final int ALLOWED_SLOWDOWN = 3;
+    private static final long ALLOWED_SLACK_MS = 50;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ServiceCatalogService serviceCatalogService;
+
+    @Autowired
+    private PaymentOutbox paymentOutbox;
+
+    @Autowired
+    private StubPaymentGateway gateway;
+
+    @Autowired
+    private PaymentFixture fixture;
+
+    @Autowired
+    private ServiceCatalogRepository serviceCatalogRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentAttemptRepository paymentAttemptRepository;
+
+    private final List<Long> orderIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        fixture.reset("Plumbers");
+        gateway.reset();
+
+        for (int i = 0; i < 50; i++) {
+            serviceCatalogRepository.save(ServiceCatalog.builder()
+                    .providerId(fixture.provider())
+                    .serviceName("Service " + i)
+                    .cost(BigDecimal.valueOf(100 + i))
+                    .location("Kolkata")
+                    .availability(Availability.AVAILABLE)
+                    .active(true)
+                    .build());
+        }
+        orderIds.clear();
+        for (int i = 0; i < PAYMENTS; i++) {
+            orderIds.add(fixture.order(OrderStatus.REQUESTED, 250 + i, null).getOrderId());
+        }
+    }
+
+    @Test
+    void slowGatewayLeavesCatalogReadsUntouched() throws Exception {
+        readCatalog();
+        long baselineP99 = p99(readCatalog());
+
+        gateway.latencyMs = GATEWAY_LATENCY_MS;
+        ExecutorService payers = Executors.newFixedThreadPool(PAYMENTS);
+        List<Future<ResponseEntity<?>>> payments = new ArrayList<>();
+        for (Long orderId : orderIds) {
+            payments.add(payers.submit(() -> orderService.initiatePayment(orderId)));
+        }
+        // Every payment is parked in the gateway, three times as many as there are connections
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (gateway.inFlight.get() < PAYMENTS && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(gateway.inFlight.get()).isEqualTo(PAYMENTS);
+
+        long underLoadP99 = p99(readCatalog());
+        assertThat(gateway.inFlight.get()).as("reads finished while payments were still in flight").isPositive();
+
+        for (Future<ResponseEntity<?>> payment : payments) {
+            assertThat(payment.get(10, TimeUnit.SECONDS).getStatusCode().value()).isEqualTo(200);
+        }
+        payers.shutdown();
+
+        assertThat(underLoadP99)
+                .as("catalog read p99 with %d payments in flight, against a baseline of %d ns", PAYMENTS, baselineP99)
+                .isLessThanOrEqualTo(baselineP99 * ALLOWED_SLOWDOWN + TimeUnit.MILLISECONDS.toNanos(ALLOWED_SLACK_MS));
+        assertThat(paymentAttemptRepository.findAll())
+                .hasSize(PAYMENTS)
+                .allSatisfy(attempt -> assertThat(attempt.getStatus()).isEqualTo(PaymentAttemptStatus.CREATED));
+        assertThat(orderRepository.findAll()).allSatisfy(order -> assertThat(order.getStripePaymentIntentId()).isNotNull());
+    }
+
+    @Test
+    void pendingAttemptLeftByACrashIsReplayedUnderItsKey() {
+        Long orderId = orderIds.get(0);
+        PaymentAttempt crashed = paymentAttemptRepository.save(PaymentAttempt.builder()
+                .orderId(orderId)
+                .amountInPaise(25_000L)
+                .idempotencyKey("crashed-key")
+                .status(PaymentAttemptStatus.PENDING)
+                .updatedAt(Instant.now().minusSeconds(1))
+                .build());
+
+        assertThat(paymentOutbox.recoverStale()).isEqualTo(1);
+        assertThat(paymentOutbox.recoverStale()).isZero();
+
+        PaymentAttempt recovered = paymentAttemptRepository.findById(crashed.getPaymentAttemptId()).orElseThrow();
+        assertThat(recovered.getStatus()).isEqualTo(PaymentAttemptStatus.CREATED);
+        assertThat(recovered.getStripePaymentIntentId()).isEqualTo("pi_crashed-key");
+        assertThat(orderRepository.findById(orderId).orElseThrow().getStripePaymentIntentId()).isEqualTo("pi_crashed-key");
+
+        // A retry of the same payment reuses the attempt rather than minting a new key
+        orderService.initiatePayment(orderId);
+        assertThat(paymentAttemptRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentInitiationsOfOneOrderShareOneAttempt() throws Exception {
+        Long orderId = orderIds.get(0);
+        gateway.latencyMs = 50;
+        ExecutorService payers = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ResponseEntity<?>>> payments = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            payments.add(payers.submit(() -> {
+                start.await();
+                return orderService.initiatePayment(orderId);
+            }));
+        }
+        start.countDown();
+        for (Future<ResponseEntity<?>> payment : payments) {
+            assertThat(payment.get(10, TimeUnit.SECONDS).getStatusCode().value()).isEqualTo(200);
+        }
+        payers.shutdown();
+
+        assertThat(paymentAttemptRepository.findAll()).singleElement()
+                .satisfies(attempt -> assertThat(attempt.getOrderId()).isEqualTo(orderId));
+    }
+
+    @Test
+    void orderSettledBeforeTheLockIsNotOfferedANewIntent() {
+        Long orderId = orderIds.get(0);
+        orderRepository.settlePaidOrders(List.of(orderId), Instant.now());
+
+        ResponseEntity<?> response = orderService.initiatePayment(orderId);
+
+        assertThat(response.getStatusCode().value()).isEqualTo(400);
+        assertThat(paymentAttemptRepository.count()).isZero();
+        assertThat(gateway.calls.get()).isZero();
+    }
+
+    @Test
+    void gatewayErrorsKeepTheAttemptPendingUntilMaxTries() {
+        gateway.unreachable = true;
+        ResponseEntity<?> response = orderService.initiatePayment(orderIds.get(0));
+        assertThat(response.getStatusCode().value()).isEqualTo(500);
+        assertThat(paymentAttemptRepository.findAll()).singleElement()
+                .satisfies(attempt -> assertThat(attempt.getStatus()).isEqualTo(PaymentAttemptStatus.PENDING));
+
+        assertThat(paymentOutbox.recoverStale()).isZero();
+        assertThat(paymentAttemptRepository.findAll()).singleElement()
+                .satisfies(attempt -> {
+                    assertThat(attempt.getStatus()).isEqualTo(PaymentAttemptStatus.FAILED);
+                    assertThat(attempt.getTries()).isEqualTo(2);
+                });
+    }
+
+    private long[] readCatalog() throws Exception {
+        ExecutorService readers = Executors.newFixedThreadPool(READERS);
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            results.add(readers.submit(() -> {
+                long[] latencies = new long[READS_PER_READER];
+                for (int i = 0; i < READS_PER_READER; i++) {
+                    long started = System.nanoTime();
+                    serviceCatalogService.getServicesPage(ServiceSortField.CREATED_AT, Sort.Direction.DESC, null, 20);
+                    latencies[i] = System.nanoTime() - started;
+                }
+                return latencies;
+            }));
+        }
+        long[] all = new long[READERS * READS_PER_READER];
+        for (int r = 0; r < READERS; r++) {
+            System.arraycopy(results.get(r).get(30, TimeUnit.SECONDS), 0, all, r * READS_PER_READER, READS_PER_READER);
+        }
+        readers.shutdown();
+        return all;
+    }
+
+    private static long p99(long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(sorted.length * 0.99) - 1];
+    }
+}
@@ -0,0 +1,249 @@
+package com.FindMyService.service;
+
+import com.FindMyService.model.Order;
+import com.FindMyService.model.PaymentAttempt;
+import com.FindMyService.model.ReconciliationCheckpoint;
+import com.FindMyService.model.enums.OrderStatus;
+import com.FindMyService.model.enums.PaymentAttemptStatus;
+import com.FindMyService.repository.OrderRepository;
+import com.FindMyService.repository.PaymentAttemptRepository;
+import com.FindMyService.repository.ReconciliationCheckpointRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "payments.reconciliation.interval-ms=3600000",
+        "payments.reconciliation.min-age-ms=0",
+        "payments.reconciliation.chunk-size=16",
+        "payments.reconciliation.concurrency=4",
+        "payments.reconciliation.requests-per-second=1000",
+        "payments.reconciliation.max-age-ms=604800000",
+        "payments.reconciliation.max-backoff-ms=86400000",
+        "payments.reconciliation.lookup-timeout-ms=2000"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({PaymentReconciler.class, PaymentFixture.class, StubPaymentGateway.class})
+class PaymentReconcilerTest {
+
+    private static final int ORDERS = 100;
+    private static final Duration INTERVAL = Duration.ofHours(1);
+    private static final List<String> STATUSES =
+            List.of("succeeded", "canceled", "requires_payment_method", "processing");
+
+    @Autowired
+    private PaymentReconciler reconciler;
+
+    @Autowired
+    private PaymentFixture fixture;
+
+    @Autowired
+    private StubPaymentGateway gateway;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentAttemptRepository paymentAttemptRepository;
+
+    @Autowired
+    private ReconciliationCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final List<Long> orderIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        fixture.reset("Movers");
+        gateway.reset();
+        gateway.latencyMs = 5;
+
+        orderIds.clear();
+        for (int i = 0; i < ORDERS; i++) {
+            String intentId = "pi_" + i;
+            gateway.statuses.put(intentId, STATUSES.get(i % STATUSES.size()));
+            orderIds.add(fixture.order(OrderStatus.REQUESTED, 100, intentId).getOrderId());
+        }
+        // Neither is a candidate: already paid, and never started a payment
+        fixture.order(OrderStatus.PAID, 100, "pi_paid");
+        fixture.order(OrderStatus.REQUESTED, 100, null);
+
+        paymentAttemptRepository.save(PaymentAttempt.builder()
+                .orderId(orderIds.get(1))
+                .amountInPaise(10_000L)
+                .idempotencyKey("key-1")
+                .status(PaymentAttemptStatus.CREATED)
+                .stripePaymentIntentId("pi_1")
+                .updatedAt(Instant.now())
+                .build());
+    }
+
+    @Test
+    void backlogIsReconciledInChunksWithBoundedConcurrency() {
+        gateway.failing.add("pi_4");
+
+        assertThat(reconciler.reconcile()).isEqualTo(ORDERS / 2 - 1);
+
+        assertThat(gateway.calls.get()).isEqualTo(ORDERS);
+        assertThat(gateway.maxInFlight.get()).isBetween(2, 4);
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = orderRepository.findById(orderIds.get(i)).orElseThrow();
+            switch (STATUSES.get(i % STATUSES.size())) {
+                case "succeeded" -> assertThat(order.getOrderStatus())
+                        .isEqualTo(i == 4 ? OrderStatus.REQUESTED : OrderStatus.PAID);
+                case "canceled" -> assertThat(order.getStripePaymentIntentId()).isNull();
+                default -> {
+                    assertThat(order.getOrderStatus()).isEqualTo(OrderStatus.REQUESTED);
+                    assertThat(order.getStripePaymentIntentId()).isNotNull();
+                }
+            }
+        }
+        assertThat(paymentAttemptRepository.findAll()).singleElement()
+                .satisfies(attempt -> assertThat(attempt.getStatus()).isEqualTo(PaymentAttemptStatus.FAILED));
+        ReconciliationCheckpoint checkpoint = checkpointRepository.findById(PaymentReconciler.JOB_NAME).orElseThrow();
+        assertThat(checkpoint.getLastOrderId()).isZero();
+        assertThat(checkpoint.getLeaseOwner()).isNull();
+
+        // Still-open intents are backed off, so only the failed lookup is asked about again
+        gateway.failing.clear();
+        gateway.calls.set(0);
+        assertThat(reconciler.reconcile()).isEqualTo(1);
+        assertThat(gateway.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void openIntentsAreBackedOffAndAbandonedOnesAgedOut() {
+        Instant firstPass = Instant.now();
+        assertThat(reconciler.reconcile()).isEqualTo(ORDERS / 2);
+        Order open = orderRepository.findById(orderIds.get(2)).orElseThrow();
+        assertThat(open.getReconcileChecks()).isEqualTo(1);
+        assertThat(open.getReconcileAfter()).isBetween(firstPass.plus(INTERVAL), Instant.now().plus(INTERVAL));
+
+        // Once due, each open intent is looked up again and its delay doubles
+        update("update Order o set o.reconcileAfter = :at", Instant.now().minusSeconds(1));
+        gateway.calls.set(0);
+        Instant secondPass = Instant.now();
+        assertThat(reconciler.reconcile()).isZero();
+        assertThat(gateway.calls.get()).isEqualTo(ORDERS / 2);
+        open = orderRepository.findById(orderIds.get(2)).orElseThrow();
+        assertThat(open.getReconcileChecks()).isEqualTo(2);
+        assertThat(open.getReconcileAfter())
+                .isBetween(secondPass.plus(INTERVAL.multipliedBy(2)), Instant.now().plus(INTERVAL.multipliedBy(2)));
+
+        // Intents attached longer ago than max-age are not polled at all
+        update("update Order o set o.reconcileAfter = :at", Instant.now().minusSeconds(1));
+        update("update Order o set o.updatedAt = :at where mod(o.orderId, 2) = 0", Instant.now().minus(Duration.ofDays(8)));
+        long recent = orderRepository.findAll().stream()
+                .filter(order -> order.getOrderStatus() == OrderStatus.REQUESTED && order.getStripePaymentIntentId() != null)
+                .filter(order -> order.getOrderId() % 2 != 0)
+                .count();
+        gateway.calls.set(0);
+        assertThat(reconciler.reconcile()).isZero();
+        assertThat(gateway.calls.get()).isEqualTo((int) recent).isLessThan(ORDERS / 2);
+    }
+
+    @Test
+    void hungLookupTimesOutAsAGatewayError() {
+        long errorsBefore = (Long) reconciler.metrics().get("gatewayErrors");
+        long timedOutBefore = (Long) reconciler.metrics().get("timedOut");
+        gateway.hanging.add("pi_0");
+
+        assertThat(reconciler.reconcile()).isEqualTo(ORDERS / 2 - 1);
+
+        Order hung = orderRepository.findById(orderIds.get(0)).orElseThrow();
+        assertThat(hung.getOrderStatus()).isEqualTo(OrderStatus.REQUESTED);
+        assertThat(hung.getReconcileChecks()).isZero();
+        assertThat(reconciler.metrics())
+                .containsEntry("gatewayErrors", errorsBefore + 1)
+                .containsEntry("timedOut", timedOutBefore + 1);
+        assertThat(checkpointRepository.findById(PaymentReconciler.JOB_NAME).orElseThrow().getLastOrderId()).isZero();
+    }
+
+    @Test
+    void interruptedPassResumesFromItsCheckpoint() {
+        Long resumeAfter = orderIds.get(59);
+        checkpointRepository.save(ReconciliationCheckpoint.builder()
+                .jobName(PaymentReconciler.JOB_NAME)
+                .lastOrderId(resumeAfter)
+                .updatedAt(Instant.now())
+                .build());
+
+        assertThat(reconciler.reconcile()).isEqualTo(20);
+        assertThat(gateway.calls.get()).isEqualTo(40);
+        assertThat(orderRepository.findById(orderIds.get(0)).orElseThrow().getOrderStatus())
+                .isEqualTo(OrderStatus.REQUESTED);
+
+        // The pass completed, so the next one starts from the beginning
+        assertThat(reconciler.reconcile()).isEqualTo(30);
+        assertThat(orderRepository.findById(orderIds.get(0)).orElseThrow().getOrderStatus())
+                .isEqualTo(OrderStatus.PAID);
+        assertThat(reconciler.metrics()).containsEntry("checkpoint", 0L);
+    }
+
+    @Test
+    void passIsSkippedWhileAnotherInstanceHoldsTheLease() {
+        Instant now = Instant.now();
+        checkpointRepository.save(lease("other-instance", now.plusSeconds(60)));
+
+        assertThat(reconciler.reconcile()).isZero();
+        assertThat(gateway.calls.get()).isZero();
+        assertThat(reconciler.metrics()).containsEntry("leaseBusy", 1L);
+
+        // A lease its holder let lapse is taken over
+        checkpointRepository.save(lease("other-instance", now.minusSeconds(1)));
+        assertThat(reconciler.reconcile()).isEqualTo(ORDERS / 2);
+        assertThat(checkpointRepository.findById(PaymentReconciler.JOB_NAME).orElseThrow().getLeaseOwner()).isNull();
+    }
+
+    @Test
+    void secondPassOnTheSameInstanceWaitsForTheLease() throws Exception {
+        gateway.latencyMs = 20;
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(reconciler::reconcile);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (gateway.calls.get() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+
+        assertThat(reconciler.reconcile()).isZero();
+        assertThat(reconciler.metrics()).containsEntry("running", true);
+        assertThat(first.get(30, TimeUnit.SECONDS)).isEqualTo(ORDERS / 2);
+        assertThat(gateway.calls.get()).isEqualTo(ORDERS);
+    }
+
+    private void update(String jpql, Instant at) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                entityManager.createQuery(jpql).setParameter("at", at).executeUpdate());
+    }
+
+    private static ReconciliationCheckpoint lease(String owner, Instant until) {
+        return ReconciliationCheckpoint.builder()
+                .jobName(PaymentReconciler.JOB_NAME)
+                .lastOrderId(0L)
+                .updatedAt(Instant.now())
+                .leaseOwner(owner)
+                .leaseUntil(until)
+                .build();
+    }
+}
@@ -0,0 +1,158 @@
+package com.FindMyService.service;
+
+import com.FindMyService.cache.CatalogCache;
+import com.FindMyService.geo.ZipCentroids;
+import com.FindMyService.index.AttributeIndex;
+import com.FindMyService.index.CatalogIndexer;
+import com.FindMyService.index.CatalogVersions;
+import com.FindMyService.index.FacetIndex;
+import com.FindMyService.index.GeoIndex;
+import com.FindMyService.index.LeaderboardIndex;
+import com.FindMyService.index.SearchIndex;
+import com.FindMyService.model.Provider;
+import com.FindMyService.model.ServiceCatalog;
+import com.FindMyService.model.dto.CursorPage;
+import com.FindMyService.model.dto.ServiceCatalogDto;
+import com.FindMyService.model.enums.Availability;
+import com.FindMyService.model.enums.Role;
+import com.FindMyService.model.enums.ServiceSortField;
+import com.FindMyService.security.JwtPrincipal;
+import com.FindMyService.utils.OwnerCheck;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({ServiceCatalogService.class, CatalogIndexer.class, CatalogCache.class, CatalogVersions.class,
+        SearchIndex.class, FacetIndex.class, GeoIndex.class, AttributeIndex.class, LeaderboardIndex.class,
+        ZipCentroids.class, OwnerCheck.class})
+class ServiceCatalogServiceTest {
+
+    @Autowired
+    private ServiceCatalogService serviceCatalogService;
+
+    @Autowired
+    private OwnerCheck ownerCheck;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void listingIssuesConstantStatementCountRegardlessOfPageSize() {
+        persistServices(25);
+
+        long smallPage = countStatements(3);
+        long largePage = countStatements(20);
+
+        assertThat(smallPage).isEqualTo(1);
+        assertThat(largePage).isEqualTo(smallPage);
+    }
+
+    @Test
+    void cursorWalksEveryServiceExactlyOnce() {
+        persistServices(7);
+        entityManager.clear();
+
+        int seen = 0;
+        String cursor = null;
+        do {
+            CursorPage<ServiceCatalogDto> page = serviceCatalogService.getServicesPage(
+                    ServiceSortField.COST, Sort.Direction.ASC, cursor, 3);
+            page.getItems().forEach(dto -> assertThat(dto.getProviderName()).startsWith("Provider"));
+            seen += page.getItems().size();
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(seen).isEqualTo(7);
+    }
+
+    @Test
+    void ownershipIsOneQueryAndLoadsNoEntity() {
+        persistServices(2);
+        List<ServiceCatalog> services = entityManager
+                .createQuery("select s from ServiceCatalog s order by s.serviceId", ServiceCatalog.class)
+                .getResultList();
+        Long ownerId = services.get(0).getProviderId().getProviderId();
+        entityManager.clear();
+        statistics.clear();
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new JwtPrincipal(ownerId, "provider0@example.com", Role.PROVIDER, null, null), null, List.of()));
+
+        assertThat(ownerCheck.ownsService(services.get(0).getServiceId())).isTrue();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+
+        assertThat(ownerCheck.ownsService(services.get(1).getServiceId())).isFalse();
+        assertThat(ownerCheck.ownsService(-1L)).isFalse();
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new JwtPrincipal(ownerId, "user@example.com", Role.USER, null, null), null, List.of()));
+        assertThat(ownerCheck.ownsService(services.get(0).getServiceId())).as("only providers own services").isFalse();
+    }
+
+    private long countStatements(int pageSize) {
+        entityManager.clear();
+        statistics.clear();
+
+        CursorPage<ServiceCatalogDto> page = serviceCatalogService.getServicesPage(
+                ServiceSortField.CREATED_AT, Sort.Direction.DESC, null, pageSize);
+
+        assertThat(page.getItems()).hasSize(pageSize);
+        page.getItems().forEach(dto -> assertThat(dto.getProviderName()).isNotNull());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void persistServices(int count) {
+        for (int i = 0; i < count; i++) {
+            // One provider per service so any lazy provider load would show up per row
+            Provider provider = Provider.builder()
+                    .providerName("Provider " + i)
+                    .email("provider" + i + "@example.com")
+                    .password("secret")
+                    .build();
+            entityManager.persist(provider);
+
+            entityManager.persist(ServiceCatalog.builder()
+                    .providerId(provider)
+                    .serviceName("Service " + i)
+                    .cost(BigDecimal.valueOf(100 + (i % 3)))
+                    .location("Kolkata")
+                    .availability(Availability.AVAILABLE)
+                    .active(true)
+                    .build());
+        }
+        entityManager.flush();
+    }
+}
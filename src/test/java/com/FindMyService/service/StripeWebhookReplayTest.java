@@ -0,0 +1,243 @@
+package com.FindMyService.service;
+
+import com.FindMyService.model.Order;
+import com.FindMyService.model.PaymentAttempt;
+import com.FindMyService.model.StripeWebhookEvent;
+import com.FindMyService.model.enums.OrderStatus;
+import com.FindMyService.model.enums.PaymentAttemptStatus;
+import com.FindMyService.repository.OrderRepository;
+import com.FindMyService.repository.PaymentAttemptRepository;
+import com.FindMyService.repository.StripeWebhookEventRepository;
+import com.stripe.exception.SignatureVerificationException;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "stripe.webhook.secret=" + StripeWebhookReplayTest.SECRET,
+        "payments.settlement.capacity=40",
+        "payments.settlement.flush-interval-ms=3600000",
+        "payments.settlement.replay-after-ms=3600000",
+        "payments.settlement.max-match-attempts=3"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({StripeWebhookService.class, PaymentSettlementQueue.class, PaymentFixture.class})
+class StripeWebhookReplayTest {
+
+    static final String SECRET = "whsec_replay_test";
+    private static final int ORDERS = 30;
+
+    @Autowired
+    private StripeWebhookService webhookService;
+
+    @Autowired
+    private PaymentSettlementQueue settlementQueue;
+
+    @Autowired
+    private PaymentFixture fixture;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentAttemptRepository paymentAttemptRepository;
+
+    @Autowired
+    private StripeWebhookEventRepository webhookEventRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> orderIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        fixture.reset("Cleaners");
+        settlementQueue.flush();
+
+        orderIds.clear();
+        for (int i = 0; i < ORDERS; i++) {
+            orderIds.add(order("pi_" + i).getOrderId());
+        }
+    }
+
+    @Test
+    void redeliveriesAreDroppedAndOrdersSettleInOneBatch() throws Exception {
+        int recorded = 0;
+        for (int delivery = 0; delivery < 2; delivery++) {
+            for (int i = 0; i < ORDERS; i++) {
+                if (replay("evt_" + i, "payment_intent.succeeded", "pi_" + i)) {
+                    recorded++;
+                }
+            }
+        }
+        assertThat(replay("evt_failed", "payment_intent.payment_failed", "pi_0")).isTrue();
+        assertThat(replay("evt_charge", "charge.succeeded", "ch_1")).isFalse();
+        assertThat(recorded).isEqualTo(ORDERS);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertThat(settlementQueue.flush()).isEqualTo(ORDERS);
+        // Two lookups resolving the intents, one UPDATE for the orders and one marking the events settled
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+
+        assertThat(orderRepository.findAll()).allSatisfy(order -> {
+            assertThat(order.getOrderStatus()).isEqualTo(OrderStatus.PAID);
+            assertThat(order.getPaymentDate()).isNotNull();
+        });
+        assertThat(webhookEventRepository.findAll()).allSatisfy(event -> assertThat(event.getSettledAt()).isNotNull());
+        assertThat(replay("evt_0", "payment_intent.succeeded", "pi_0")).isFalse();
+    }
+
+    @Test
+    void eventsThatOverflowTheQueueAreReplayedFromTheTable() throws Exception {
+        for (int i = 0; i < ORDERS; i++) {
+            replay("evt_a" + i, "payment_intent.processing", "pi_" + i);
+        }
+        for (int i = 0; i < ORDERS; i++) {
+            replay("evt_b" + i, "payment_intent.succeeded", "pi_" + i);
+        }
+        assertThat(settlementQueue.pendingCount()).isEqualTo(40);
+        assertThat(settlementQueue.metrics()).containsEntry("overflowed", 20L);
+
+        assertThat(settlementQueue.flush()).isEqualTo(10);
+        assertThat(settlementQueue.replay(Instant.now().plusSeconds(1))).isEqualTo(20);
+        assertThat(settlementQueue.flush()).isEqualTo(20);
+        assertThat(orderRepository.findAll()).allSatisfy(order ->
+                assertThat(order.getOrderStatus()).isEqualTo(OrderStatus.PAID));
+    }
+
+    @Test
+    void succeededIntentsAreResolvedToTheirOrderOrLeftUnsettled() throws Exception {
+        // The order has moved on to a newer intent, but the old one was paid
+        Long retried = orderIds.get(0);
+        paymentAttemptRepository.save(PaymentAttempt.builder()
+                .orderId(retried)
+                .amountInPaise(10_000L)
+                .idempotencyKey("key-old")
+                .status(PaymentAttemptStatus.CREATED)
+                .stripePaymentIntentId("pi_old")
+                .updatedAt(Instant.now())
+                .build());
+        // The webhook beat the outbox to attaching the intent; only the metadata knows the order
+        Long unattached = order(null).getOrderId();
+        long missesBefore = (Long) settlementQueue.metrics().get("unmatched");
+
+        assertThat(replay("evt_old", "payment_intent.succeeded", "pi_old")).isTrue();
+        assertThat(replay("evt_meta", "payment_intent.succeeded", "pi_meta", unattached)).isTrue();
+        assertThat(replay("evt_stale_meta", "payment_intent.succeeded", "pi_1", Long.MAX_VALUE)).isTrue();
+        assertThat(replay("evt_unknown", "payment_intent.succeeded", "pi_unknown")).isTrue();
+
+        assertThat(settlementQueue.flush()).isEqualTo(3);
+        assertThat(orderRepository.findById(retried).orElseThrow().getOrderStatus()).isEqualTo(OrderStatus.PAID);
+        assertThat(orderRepository.findById(unattached).orElseThrow().getOrderStatus()).isEqualTo(OrderStatus.PAID);
+        assertThat(orderRepository.findById(orderIds.get(1)).orElseThrow().getOrderStatus()).isEqualTo(OrderStatus.PAID);
+        assertThat(orderRepository.findById(orderIds.get(2)).orElseThrow().getOrderStatus())
+                .isEqualTo(OrderStatus.REQUESTED);
+
+        assertThat(webhookEventRepository.findById("evt_unknown").orElseThrow().getSettledAt()).isNull();
+        assertThat(webhookEventRepository.findById("evt_old").orElseThrow().getSettledAt()).isNotNull();
+        assertThat(settlementQueue.metrics()).containsEntry("unmatched", missesBefore + 1);
+
+        // Still unsettled, so it is replayed until an order claims the intent
+        assertThat(settlementQueue.replay(Instant.now().plusSeconds(1))).isEqualTo(1);
+        orderRepository.attachPaymentIntent(orderIds.get(2), "pi_unknown", Instant.now());
+        assertThat(settlementQueue.flush()).isEqualTo(1);
+        assertThat(webhookEventRepository.findById("evt_unknown").orElseThrow().getSettledAt()).isNotNull();
+    }
+
+    @Test
+    void eventsThatNeverMatchAnOrderStopBeingReplayed() throws Exception {
+        long missesBefore = (Long) settlementQueue.metrics().get("unmatched");
+        long parkedBefore = (Long) settlementQueue.metrics().get("parked");
+        assertThat(replay("evt_orphan", "payment_intent.succeeded", "pi_orphan")).isTrue();
+        assertThat(settlementQueue.flush()).isZero();
+
+        Instant later = Instant.now().plusSeconds(1);
+        for (int attempt = 2; attempt <= 3; attempt++) {
+            assertThat(settlementQueue.replay(later)).isEqualTo(1);
+            assertThat(settlementQueue.flush()).isZero();
+        }
+
+        StripeWebhookEvent orphan = webhookEventRepository.findById("evt_orphan").orElseThrow();
+        assertThat(orphan.getMatchAttempts()).isEqualTo(3);
+        assertThat(orphan.getUnmatchedAt()).isNotNull();
+        assertThat(orphan.getSettledAt()).isNull();
+        assertThat(settlementQueue.replay(later)).isZero();
+        assertThat(settlementQueue.metrics())
+                .containsEntry("unmatched", missesBefore + 3)
+                .containsEntry("parked", parkedBefore + 1);
+    }
+
+    @Test
+    void unsignedOrTamperedDeliveriesAreRejected() {
+        String payload = event("evt_x", "payment_intent.succeeded", "pi_0");
+        String signature = sign(payload, Instant.now().getEpochSecond());
+
+        assertThatThrownBy(() -> webhookService.receive(payload, null))
+                .isInstanceOf(SignatureVerificationException.class);
+        assertThatThrownBy(() -> webhookService.receive(payload.replace("pi_0", "pi_1"), signature))
+                .isInstanceOf(SignatureVerificationException.class);
+        assertThat(webhookEventRepository.count()).isZero();
+    }
+
+    private Order order(String intentId) {
+        return fixture.order(OrderStatus.REQUESTED, 100 + orderIds.size(), intentId);
+    }
+
+    private boolean replay(String eventId, String type, String objectId) throws SignatureVerificationException {
+        return replay(eventId, type, objectId, null);
+    }
+
+    // Signs and delivers an event the way Stripe does
+    private boolean replay(String eventId, String type, String objectId, Long orderId)
+            throws SignatureVerificationException {
+        String payload = event(eventId, type, objectId, orderId);
+        return webhookService.receive(payload, sign(payload, Instant.now().getEpochSecond()));
+    }
+
+    private static String event(String eventId, String type, String objectId) {
+        return event(eventId, type, objectId, null);
+    }
+
+    private static String event(String eventId, String type, String objectId, Long orderId) {
+        String metadata = orderId == null ? "{}" : "{\"orderId\":\"" + orderId + "\"}";
+        return "{\"id\":\"" + eventId + "\",\"object\":\"event\",\"type\":\"" + type + "\","
+                + "\"data\":{\"object\":{\"id\":\"" + objectId + "\",\"object\":\"payment_intent\","
+                + "\"metadata\":" + metadata + "}}}";
+    }
+
+    private static String sign(String payload, long timestamp) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            byte[] digest = mac.doFinal((timestamp + "." + payload).getBytes(StandardCharsets.UTF_8));
+            return "t=" + timestamp + ",v1=" + HexFormat.of().formatHex(digest);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.FindMyService.service;
+
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.StripeException;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Local stand-in for Stripe shared by the payment tests: no network, canned intents
+ * named after their idempotency key, statuses answered from a table, a configurable
+ * delay, and switches to fail every call, or to fail or hang the lookups of particular
+ * intents. It records how many calls were made and how many overlapped.
+ */
+@TestComponent
+class StubPaymentGateway implements PaymentGateway {
+
+    final Map<String, String> statuses = new ConcurrentHashMap<>();
+    final Set<String> failing = ConcurrentHashMap.newKeySet();
+    final Set<String> hanging = ConcurrentHashMap.newKeySet();
+    final AtomicInteger calls = new AtomicInteger();
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+    volatile long latencyMs;
+    volatile boolean unreachable;
+
+    void reset() {
+        statuses.clear();
+        failing.clear();
+        hanging.clear();
+        calls.set(0);
+        maxInFlight.set(0);
+        latencyMs = 0;
+        unreachable = false;
+    }
+
+    @Override
+    public Map<String, String> createPaymentIntent(Long amount, Long orderId, String idempotencyKey)
+            throws StripeException {
+        return call(null, () -> Map.of(
+                "clientSecret", "secret_" + idempotencyKey,
+                "paymentIntentId", "pi_" + idempotencyKey));
+    }
+
+    @Override
+    public String retrievePaymentIntentStatus(String paymentIntentId) throws StripeException {
+        return call(paymentIntentId, () -> statuses.get(paymentIntentId));
+    }
+
+    private <T> T call(String paymentIntentId, Supplier<T> answer) throws StripeException {
+        calls.incrementAndGet();
+        if (unreachable) {
+            throw new ApiConnectionException("gateway unreachable");
+        }
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            // A hanging lookup only returns once the caller gives up and interrupts it
+            Thread.sleep(paymentIntentId != null && hanging.contains(paymentIntentId)
+                    ? TimeUnit.MINUTES.toMillis(10) : latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiConnectionException("interrupted");
+        } finally {
+            inFlight.decrementAndGet();
+        }
+        if (paymentIntentId != null && failing.contains(paymentIntentId)) {
+            throw new ApiConnectionException("gateway unreachable");
+        }
+        return answer.get();
+    }
+}
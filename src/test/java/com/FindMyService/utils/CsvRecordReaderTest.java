@@ -0,0 +1,60 @@
+package com.FindMyService.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvRecordReaderTest {
+
+    @Test
+    void quotedFieldsKeepCommasLineBreaksAndDoubledQuotes() throws IOException {
+        CsvRecordReader csv = reader("a,\"b,c\",\"say \"\"hi\"\"\"\n\"two\nlines\",,end\n");
+
+        assertThat(csv.next()).containsExactly("a", "b,c", "say \"hi\"");
+        assertThat(csv.next()).containsExactly("two\nlines", "", "end");
+        assertThat(csv.next()).isNull();
+    }
+
+    @Test
+    void crlfAndLfEndRecordsAlikeAndTheLastNeedsNoTerminator() throws IOException {
+        CsvRecordReader csv = reader("a,b\r\nc,d\ne,f");
+
+        assertThat(csv.next()).containsExactly("a", "b");
+        assertThat(csv.next()).containsExactly("c", "d");
+        assertThat(csv.next()).containsExactly("e", "f");
+        assertThat(csv.next()).isNull();
+    }
+
+    @Test
+    void lineTracksWhereEachRecordStartsAcrossEmbeddedBreaks() throws IOException {
+        CsvRecordReader csv = reader("h1,h2\r\n\"x\r\ny\",1\r\n\r\nz,2\r\n");
+
+        assertThat(csv.line()).isEqualTo(1);
+        csv.next();
+        assertThat(csv.line()).isEqualTo(2);
+        assertThat(csv.next()).containsExactly("x\r\ny", "1");
+        assertThat(csv.line()).isEqualTo(4);
+        assertThat(csv.next()).containsExactly("");
+        assertThat(csv.line()).isEqualTo(5);
+        assertThat(csv.next()).containsExactly("z", "2");
+        assertThat(csv.next()).isNull();
+    }
+
+    @Test
+    void unterminatedQuoteIsReportedAtTheLineItStarted() throws IOException {
+        CsvRecordReader csv = reader("a,b\n\"open,\nstill open\n");
+
+        assertThat(csv.next()).containsExactly("a", "b");
+        assertThatThrownBy(csv::next)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unterminated quoted field starting on line 2");
+    }
+
+    private static CsvRecordReader reader(String text) {
+        return new CsvRecordReader(new StringReader(text));
+    }
+}